@@ -3,6 +3,8 @@ package com.sarahpilates.controller;
 import com.sarahpilates.dto.LoginRequest;
 import com.sarahpilates.dto.LoginResponse;
 import com.sarahpilates.entity.User;
+import com.sarahpilates.security.JwtPrincipal;
+import com.sarahpilates.security.LoginExecutor;
 import com.sarahpilates.security.JwtTokenProvider;
 import com.sarahpilates.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,8 +15,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -25,26 +30,30 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserService userService;
+    private final LoginExecutor loginExecutor;
     
     @PostMapping("/login")
     @Operation(summary = "Fazer login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getEmail(),
-                        loginRequest.getPassword()
-                )
-        );
-        
-        User user = (User) authentication.getPrincipal();
-        String token = jwtTokenProvider.generateToken(user);
-        
-        LoginResponse response = new LoginResponse();
-        response.setToken(token);
-        response.setUser(user);
-        response.setExpiresIn(jwtTokenProvider.getExpirationTime());
-        
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        // A verificação da senha roda no pool de login; a thread da requisição fica livre
+        return loginExecutor.submit(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequest.getEmail(),
+                            loginRequest.getPassword()
+                    )
+            );
+            
+            User user = (User) authentication.getPrincipal();
+            String token = jwtTokenProvider.generateToken(user);
+            
+            LoginResponse response = new LoginResponse();
+            response.setToken(token);
+            response.setUser(user);
+            response.setExpiresIn(jwtTokenProvider.getExpirationTime());
+            
+            return ResponseEntity.ok(response);
+        });
     }
     
     @PostMapping("/register")
@@ -58,8 +67,10 @@ public class AuthController {
     
     @GetMapping("/me")
     @Operation(summary = "Obter dados do usuário logado")
-    public ResponseEntity<User> getCurrentUser(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+    public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal JwtPrincipal principal) {
+        // O token só traz id, e-mail e perfil: os demais dados vêm do cadastro
+        User user = userService.findById(principal.userId())
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         // Remover senha da resposta
         user.setPassword(null);
         return ResponseEntity.ok(user);
@@ -0,0 +1,49 @@
+package com.sarahpilates.controller;
+
+import com.sarahpilates.dto.CacheRegionStatistics;
+import com.sarahpilates.dto.ReportCacheStatistics;
+import com.sarahpilates.dto.TokenCacheStatistics;
+import com.sarahpilates.security.JwtTokenProvider;
+import com.sarahpilates.service.EntityCacheService;
+import com.sarahpilates.service.ReportCacheService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/cache")
+@RequiredArgsConstructor
+@Tag(name = "Cache", description = "Cache de segundo nível")
+@CrossOrigin(origins = "*")
+public class CacheController {
+    
+    private final EntityCacheService entityCacheService;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ReportCacheService reportCacheService;
+    
+    @GetMapping("/statistics")
+    @Operation(summary = "Acertos e faltas por região do cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CacheRegionStatistics>> getStatistics() {
+        return ResponseEntity.ok(entityCacheService.statistics());
+    }
+    
+    @GetMapping("/tokens")
+    @Operation(summary = "Acertos e tempo de verificação do cache de tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TokenCacheStatistics> getTokenStatistics() {
+        return ResponseEntity.ok(jwtTokenProvider.getTokenCacheStatistics());
+    }
+    
+    @GetMapping("/reports")
+    @Operation(summary = "Acertos e invalidações do cache de relatórios")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReportCacheStatistics> getReportStatistics() {
+        return ResponseEntity.ok(reportCacheService.statistics());
+    }
+}
\ No newline at end of file
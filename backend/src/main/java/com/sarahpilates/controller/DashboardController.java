@@ -1,15 +1,13 @@
 package com.sarahpilates.controller;
 
 import com.sarahpilates.dto.DashboardStats;
-import com.sarahpilates.service.*;
+import com.sarahpilates.service.DashboardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDate;
-
 @RestController
 @RequestMapping("/dashboard")
 @RequiredArgsConstructor
@@ -17,34 +15,12 @@ import java.time.LocalDate;
 @CrossOrigin(origins = "*")
 public class DashboardController {
     
-    private final StudentService studentService;
-    private final InstructorService instructorService;
-    private final ScheduleService scheduleService;
-    private final PhysicalEvaluationService physicalEvaluationService;
-    private final EvolutionRecordService evolutionRecordService;
+    private final DashboardService dashboardService;
     
     @GetMapping("/stats")
     @Operation(summary = "Obter estatísticas do dashboard")
     public ResponseEntity<DashboardStats> getDashboardStats() {
-        LocalDate today = LocalDate.now();
-        LocalDate startOfMonth = today.withDayOfMonth(1);
-        LocalDate endOfMonth = today.withDayOfMonth(today.lengthOfMonth());
-        
-        DashboardStats stats = new DashboardStats();
-        
-        // Estatísticas básicas
-        stats.setTotalStudents(studentService.countActiveStudents());
-        stats.setTotalInstructors(instructorService.countActiveInstructors());
-        stats.setTodaySchedules(scheduleService.countConfirmedSchedulesForDate(today));
-        stats.setMonthlyRevenue(scheduleService.calculateRevenueBetweenDates(startOfMonth, endOfMonth));
-        stats.setCompletedClasses(scheduleService.countCompletedClassesBetweenDates(startOfMonth, endOfMonth));
-        
-        // Agendamentos de hoje
-        stats.setTodaySchedulesList(scheduleService.getTodaySchedules());
-        
-        // Próximos agendamentos
-        stats.setUpcomingSchedules(scheduleService.getUpcomingSchedules());
-        
-        return ResponseEntity.ok(stats);
+        // Retrato pré-calculado, atualizado em segundo plano a cada alteração
+        return ResponseEntity.ok(dashboardService.getStats());
     }
 }
\ No newline at end of file
@@ -1,9 +1,15 @@
 package com.sarahpilates.controller;
 
+import com.sarahpilates.dto.CursorPage;
 import com.sarahpilates.entity.EvolutionRecord;
 import com.sarahpilates.service.EvolutionRecordService;
+import com.sarahpilates.service.ExportService;
+import com.sarahpilates.util.ExportFormat;
+import com.sarahpilates.util.KeysetCursor;
+import com.sarahpilates.util.TableWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -13,6 +19,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -24,6 +31,7 @@ import java.util.List;
 public class EvolutionRecordController {
     
     private final EvolutionRecordService evolutionRecordService;
+    private final ExportService exportService;
     
     @GetMapping
     @Operation(summary = "Listar todas as fichas de evolução")
@@ -42,6 +50,17 @@ public class EvolutionRecordController {
         return ResponseEntity.ok(records);
     }
     
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Listar fichas de evolução por cursor",
+            description = "Paginação por cursor, dos mais recentes para os mais antigos, sem total de registros. " +
+                    "Envie cursor vazio na primeira página e depois o nextCursor da resposta.")
+    public ResponseEntity<CursorPage<EvolutionRecord>> getRecordsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(defaultValue = "" + KeysetCursor.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(evolutionRecordService.findByCursor(studentId, cursor, size));
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Buscar ficha de evolução por ID")
     public ResponseEntity<EvolutionRecord> getRecordById(@PathVariable Long id) {
@@ -80,6 +99,18 @@ public class EvolutionRecordController {
         return ResponseEntity.ok(records);
     }
     
+    @GetMapping("/export")
+    @Operation(summary = "Exportar fichas do período em CSV ou XLSX")
+    public void exportRecords(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        TableWriter writer = format.open(response,
+                "fichas-de-evolucao-" + startDate + "-a-" + endDate, "Fichas de evolução");
+        exportService.exportEvolutionRecords(startDate, endDate, writer);
+    }
+    
     @PostMapping
     @Operation(summary = "Criar nova ficha de evolução")
     public ResponseEntity<EvolutionRecord> createRecord(@Valid @RequestBody EvolutionRecord record) {
@@ -0,0 +1,31 @@
+package com.sarahpilates.controller;
+
+import com.sarahpilates.service.LiveUpdateService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/live")
+@RequiredArgsConstructor
+@Tag(name = "Live", description = "Atualizações em Tempo Real")
+@CrossOrigin(origins = "*")
+public class LiveUpdateController {
+    
+    private final LiveUpdateService liveUpdateService;
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Receber alterações de agendamentos, do dashboard e dos relatórios (SSE)")
+    public SseEmitter stream(
+            @RequestParam(required = false) Set<LiveUpdateService.Topic> topics,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return liveUpdateService.subscribe(topics != null ? topics : Set.of(), date);
+    }
+}
\ No newline at end of file
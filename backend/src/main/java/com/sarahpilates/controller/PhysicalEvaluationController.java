@@ -1,9 +1,15 @@
 package com.sarahpilates.controller;
 
+import com.sarahpilates.dto.CursorPage;
 import com.sarahpilates.entity.PhysicalEvaluation;
+import com.sarahpilates.service.ExportService;
 import com.sarahpilates.service.PhysicalEvaluationService;
+import com.sarahpilates.util.ExportFormat;
+import com.sarahpilates.util.KeysetCursor;
+import com.sarahpilates.util.TableWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -13,6 +19,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -24,6 +31,7 @@ import java.util.List;
 public class PhysicalEvaluationController {
     
     private final PhysicalEvaluationService physicalEvaluationService;
+    private final ExportService exportService;
     
     @GetMapping
     @Operation(summary = "Listar todas as avaliações físicas")
@@ -45,6 +53,17 @@ public class PhysicalEvaluationController {
         return ResponseEntity.ok(evaluations);
     }
     
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Listar avaliações físicas por cursor",
+            description = "Paginação por cursor, dos mais recentes para os mais antigos, sem total de registros. " +
+                    "Envie cursor vazio na primeira página e depois o nextCursor da resposta.")
+    public ResponseEntity<CursorPage<PhysicalEvaluation>> getEvaluationsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(defaultValue = "" + KeysetCursor.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(physicalEvaluationService.findByCursor(studentId, cursor, size));
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Buscar avaliação física por ID")
     public ResponseEntity<PhysicalEvaluation> getEvaluationById(@PathVariable Long id) {
@@ -90,6 +109,18 @@ public class PhysicalEvaluationController {
         return ResponseEntity.ok(evaluations);
     }
     
+    @GetMapping("/export")
+    @Operation(summary = "Exportar avaliações do período em CSV ou XLSX")
+    public void exportEvaluations(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        TableWriter writer = format.open(response,
+                "avaliacoes-fisicas-" + startDate + "-a-" + endDate, "Avaliações físicas");
+        exportService.exportPhysicalEvaluations(startDate, endDate, writer);
+    }
+    
     @PostMapping
     @Operation(summary = "Criar nova avaliação física")
     public ResponseEntity<PhysicalEvaluation> createEvaluation(@Valid @RequestBody PhysicalEvaluation evaluation) {
@@ -1,12 +1,19 @@
 package com.sarahpilates.controller;
 
 import com.sarahpilates.dto.ReportDTO;
+import com.sarahpilates.dto.ReportJobDTO;
+import com.sarahpilates.entity.ReportJob;
+import com.sarahpilates.service.ClassAttendanceService;
+import com.sarahpilates.service.ReportJobService;
 import com.sarahpilates.service.ReportService;
+import com.sarahpilates.service.ScheduleRollupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -19,6 +26,9 @@ import java.time.LocalDate;
 public class ReportController {
     
     private final ReportService reportService;
+    private final ScheduleRollupService scheduleRollupService;
+    private final ClassAttendanceService classAttendanceService;
+    private final ReportJobService reportJobService;
     
     @GetMapping("/monthly")
     @Operation(summary = "Relatório mensal")
@@ -52,4 +62,43 @@ public class ReportController {
         ReportDTO.StudentProgress report = reportService.generateStudentProgressReport(studentId);
         return ResponseEntity.ok(report);
     }
+    
+    @PostMapping("/jobs")
+    @Operation(summary = "Gerar relatório em segundo plano")
+    public ResponseEntity<ReportJobDTO> submitReportJob(
+            @RequestParam ReportJob.ReportType type,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        ReportJob job = reportJobService.submit(type, startDate, endDate);
+        // 200 com o relatório já gravado; 202 enquanto gera: consultar /reports/jobs/{id}
+        // ou aguardar o evento "report-job" no tópico REPORTS de /live/stream
+        HttpStatus status = job.getStatus() == ReportJob.JobStatus.CONCLUIDO ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(ReportJobDTO.from(job));
+    }
+    
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Consultar relatório em segundo plano")
+    public ResponseEntity<ReportJobDTO> getReportJob(@PathVariable Long id) {
+        return reportJobService.findById(id)
+                .map(job -> ResponseEntity.ok(ReportJobDTO.from(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @PostMapping("/rollup/rebuild")
+    @Operation(summary = "Reconstruir totais diários de agendamentos")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> rebuildScheduleRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        int rows = scheduleRollupService.rebuild(startDate, endDate);
+        return ResponseEntity.ok(rows);
+    }
+    
+    @PostMapping("/attendance/rebuild")
+    @Operation(summary = "Reconstruir contadores de aulas de alunos e instrutores")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> rebuildClassAttendance() {
+        int pairs = classAttendanceService.rebuild();
+        return ResponseEntity.ok(pairs);
+    }
 }
\ No newline at end of file
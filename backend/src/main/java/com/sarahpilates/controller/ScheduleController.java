@@ -1,9 +1,22 @@
 package com.sarahpilates.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sarahpilates.dto.BulkStatusRequest;
+import com.sarahpilates.dto.BulkStatusResult;
+import com.sarahpilates.dto.CursorPage;
+import com.sarahpilates.dto.ScheduleDTO;
+import com.sarahpilates.dto.ScheduleSeriesRequest;
+import com.sarahpilates.dto.ScheduleSeriesResult;
 import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.service.ExportService;
 import com.sarahpilates.service.ScheduleService;
+import com.sarahpilates.util.ExportFormat;
+import com.sarahpilates.util.JsonArrayWriter;
+import com.sarahpilates.util.KeysetCursor;
+import com.sarahpilates.util.TableWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -13,8 +26,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
-import java.util.List;
 
 @RestController
 @RequestMapping("/schedules")
@@ -24,22 +37,26 @@ import java.util.List;
 public class ScheduleController {
     
     private final ScheduleService scheduleService;
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
     
     @GetMapping
     @Operation(summary = "Listar todos os agendamentos")
-    public ResponseEntity<Page<Schedule>> getAllSchedules(
+    public ResponseEntity<Page<ScheduleDTO>> getAllSchedules(
             @RequestParam(required = false) String search,
             Pageable pageable) {
-        
-        Page<Schedule> schedules;
-        
-        if (search != null && !search.trim().isEmpty()) {
-            schedules = scheduleService.search(search, pageable);
-        } else {
-            schedules = scheduleService.findAll(pageable);
-        }
-        
-        return ResponseEntity.ok(schedules);
+        return ResponseEntity.ok(scheduleService.findSummaries(search, pageable));
+    }
+    
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Listar agendamentos por cursor",
+            description = "Paginação por cursor, dos mais recentes para os mais antigos, sem total de registros. " +
+                    "Envie cursor vazio na primeira página e depois o nextCursor da resposta.")
+    public ResponseEntity<CursorPage<ScheduleDTO>> getSchedulesByCursor(
+            @RequestParam String cursor,
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(defaultValue = "" + KeysetCursor.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(scheduleService.findSummariesByCursor(studentId, cursor, size));
     }
     
     @GetMapping("/{id}")
@@ -52,54 +69,77 @@ public class ScheduleController {
     
     @GetMapping("/date/{date}")
     @Operation(summary = "Buscar agendamentos por data")
-    public ResponseEntity<List<Schedule>> getSchedulesByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        List<Schedule> schedules = scheduleService.findByDate(date);
-        return ResponseEntity.ok(schedules);
+    public void getSchedulesByDate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            HttpServletResponse response) throws IOException {
+        JsonArrayWriter<ScheduleDTO> writer = new JsonArrayWriter<>(objectMapper, response);
+        scheduleService.streamSummariesByDate(date, writer);
+        writer.finish();
     }
     
     @GetMapping("/date-range")
     @Operation(summary = "Buscar agendamentos por período")
-    public ResponseEntity<List<Schedule>> getSchedulesByDateRange(
+    public void getSchedulesByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<Schedule> schedules = scheduleService.findByDateRange(startDate, endDate);
-        return ResponseEntity.ok(schedules);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletResponse response) throws IOException {
+        JsonArrayWriter<ScheduleDTO> writer = new JsonArrayWriter<>(objectMapper, response);
+        scheduleService.streamSummariesByDateRange(startDate, endDate, writer);
+        writer.finish();
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Exportar agendamentos do período em CSV ou XLSX")
+    public void exportSchedules(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        TableWriter writer = format.open(response,
+                "agendamentos-" + startDate + "-a-" + endDate, "Agendamentos");
+        exportService.exportSchedules(startDate, endDate, writer);
     }
     
     @GetMapping("/student/{studentId}")
     @Operation(summary = "Buscar agendamentos por aluno")
-    public ResponseEntity<List<Schedule>> getSchedulesByStudent(@PathVariable Long studentId) {
-        List<Schedule> schedules = scheduleService.findByStudentId(studentId);
-        return ResponseEntity.ok(schedules);
+    public void getSchedulesByStudent(@PathVariable Long studentId, HttpServletResponse response) throws IOException {
+        JsonArrayWriter<ScheduleDTO> writer = new JsonArrayWriter<>(objectMapper, response);
+        scheduleService.streamSummariesByStudentId(studentId, writer);
+        writer.finish();
     }
     
     @GetMapping("/instructor/{instructorId}")
     @Operation(summary = "Buscar agendamentos por instrutor")
-    public ResponseEntity<List<Schedule>> getSchedulesByInstructor(@PathVariable Long instructorId) {
-        List<Schedule> schedules = scheduleService.findByInstructorId(instructorId);
-        return ResponseEntity.ok(schedules);
+    public void getSchedulesByInstructor(@PathVariable Long instructorId,
+                                         HttpServletResponse response) throws IOException {
+        JsonArrayWriter<ScheduleDTO> writer = new JsonArrayWriter<>(objectMapper, response);
+        scheduleService.streamSummariesByInstructorId(instructorId, writer);
+        writer.finish();
     }
     
     @GetMapping("/status/{status}")
     @Operation(summary = "Buscar agendamentos por status")
-    public ResponseEntity<List<Schedule>> getSchedulesByStatus(@PathVariable Schedule.ScheduleStatus status) {
-        List<Schedule> schedules = scheduleService.findByStatus(status);
-        return ResponseEntity.ok(schedules);
+    public void getSchedulesByStatus(@PathVariable Schedule.ScheduleStatus status,
+                                     HttpServletResponse response) throws IOException {
+        JsonArrayWriter<ScheduleDTO> writer = new JsonArrayWriter<>(objectMapper, response);
+        scheduleService.streamSummariesByStatus(status, writer);
+        writer.finish();
     }
     
     @GetMapping("/today")
     @Operation(summary = "Buscar agendamentos de hoje")
-    public ResponseEntity<List<Schedule>> getTodaySchedules() {
-        List<Schedule> schedules = scheduleService.getTodaySchedules();
-        return ResponseEntity.ok(schedules);
+    public void getTodaySchedules(HttpServletResponse response) throws IOException {
+        JsonArrayWriter<ScheduleDTO> writer = new JsonArrayWriter<>(objectMapper, response);
+        scheduleService.streamSummariesByDate(LocalDate.now(), writer);
+        writer.finish();
     }
     
     @GetMapping("/upcoming")
     @Operation(summary = "Buscar próximos agendamentos")
-    public ResponseEntity<List<Schedule>> getUpcomingSchedules() {
-        List<Schedule> schedules = scheduleService.getUpcomingSchedules();
-        return ResponseEntity.ok(schedules);
+    public void getUpcomingSchedules(HttpServletResponse response) throws IOException {
+        JsonArrayWriter<ScheduleDTO> writer = new JsonArrayWriter<>(objectMapper, response);
+        scheduleService.streamUpcomingSummaries(writer);
+        writer.finish();
     }
     
     @PostMapping
@@ -109,6 +149,17 @@ public class ScheduleController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedSchedule);
     }
     
+    @PostMapping("/series")
+    @Operation(summary = "Criar série de aulas recorrentes",
+            description = "Agenda o mesmo horário nos dias da semana informados até a data final. " +
+                    "Datas com conflito são recusadas individualmente e listadas no resultado.")
+    public ResponseEntity<ScheduleSeriesResult> createScheduleSeries(
+            @Valid @RequestBody ScheduleSeriesRequest request) {
+        ScheduleSeriesResult result = scheduleService.createSeries(request);
+        HttpStatus status = result.getCreated() > 0 ? HttpStatus.CREATED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(result);
+    }
+    
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar agendamento")
     public ResponseEntity<Schedule> updateSchedule(@PathVariable Long id, @Valid @RequestBody Schedule schedule) {
@@ -123,6 +174,16 @@ public class ScheduleController {
         return ResponseEntity.ok(updatedSchedule);
     }
     
+    @PatchMapping("/status")
+    @Operation(summary = "Atualizar status de vários agendamentos",
+            description = "Aplica todas as mudanças em uma transação. Com o cabeçalho Idempotency-Key, " +
+                    "repetir a mesma requisição devolve o resultado original sem aplicar de novo.")
+    public ResponseEntity<BulkStatusResult> updateScheduleStatuses(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody BulkStatusRequest request) {
+        return ResponseEntity.ok(scheduleService.updateStatuses(request, idempotencyKey));
+    }
+    
     @DeleteMapping("/{id}")
     @Operation(summary = "Excluir agendamento")
     public ResponseEntity<Void> deleteSchedule(@PathVariable Long id) {
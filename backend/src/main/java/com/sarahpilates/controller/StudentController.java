@@ -1,9 +1,13 @@
 package com.sarahpilates.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sarahpilates.dto.StudentDTO;
 import com.sarahpilates.entity.Student;
 import com.sarahpilates.service.StudentService;
+import com.sarahpilates.util.JsonArrayWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -12,6 +16,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -22,25 +27,15 @@ import java.util.List;
 public class StudentController {
     
     private final StudentService studentService;
+    private final ObjectMapper objectMapper;
     
     @GetMapping
     @Operation(summary = "Listar todos os alunos")
-    public ResponseEntity<Page<Student>> getAllStudents(
+    public ResponseEntity<Page<StudentDTO>> getAllStudents(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Student.StudentStatus status,
             Pageable pageable) {
-        
-        Page<Student> students;
-        
-        if (status != null && search != null && !search.trim().isEmpty()) {
-            students = studentService.searchByStatus(status, search, pageable);
-        } else if (search != null && !search.trim().isEmpty()) {
-            students = studentService.search(search, pageable);
-        } else {
-            students = studentService.findAll(pageable);
-        }
-        
-        return ResponseEntity.ok(students);
+        return ResponseEntity.ok(studentService.findSummaries(search, status, pageable));
     }
     
     @GetMapping("/{id}")
@@ -61,9 +56,11 @@ public class StudentController {
     
     @GetMapping("/status/{status}")
     @Operation(summary = "Listar alunos por status")
-    public ResponseEntity<List<Student>> getStudentsByStatus(@PathVariable Student.StudentStatus status) {
-        List<Student> students = studentService.findByStatus(status);
-        return ResponseEntity.ok(students);
+    public void getStudentsByStatus(@PathVariable Student.StudentStatus status,
+                                    HttpServletResponse response) throws IOException {
+        JsonArrayWriter<StudentDTO> writer = new JsonArrayWriter<>(objectMapper, response);
+        studentService.streamSummariesByStatus(status, writer);
+        writer.finish();
     }
     
     @PostMapping
@@ -0,0 +1,35 @@
+package com.sarahpilates.dto;
+
+import com.sarahpilates.entity.Schedule;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Várias mudanças de status aplicadas juntas, como no fechamento do dia em que
+ * o instrutor marca as aulas como concluídas ou faltas.
+ */
+@Data
+public class BulkStatusRequest {
+    
+    public static final int MAX_ITEMS = 500;
+    
+    @NotEmpty(message = "Informe ao menos um agendamento")
+    @Size(max = MAX_ITEMS, message = "No máximo " + MAX_ITEMS + " agendamentos por requisição")
+    @Valid
+    private List<Item> items;
+    
+    @Data
+    public static class Item {
+        
+        @NotNull(message = "Agendamento é obrigatório")
+        private Long scheduleId;
+        
+        @NotNull(message = "Status é obrigatório")
+        private Schedule.ScheduleStatus status;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.sarahpilates.dto;
+
+import com.sarahpilates.entity.Schedule;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de uma atualização de status em lote, item a item, na ordem da
+ * requisição.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResult {
+    private int updated;
+    private int unchanged;
+    private int notFound;
+    private List<Item> items;
+    
+    public record Item(Long scheduleId, Schedule.ScheduleStatus previousStatus, Schedule.ScheduleStatus status,
+                       Outcome outcome) {
+    }
+    
+    public enum Outcome {
+        ATUALIZADO, SEM_ALTERACAO, NAO_ENCONTRADO
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.sarahpilates.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Acertos e faltas de uma região do cache de segundo nível desde a
+ * inicialização.
+ */
+@Data
+@AllArgsConstructor
+public class CacheRegionStatistics {
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private double hitRatio;
+}
\ No newline at end of file
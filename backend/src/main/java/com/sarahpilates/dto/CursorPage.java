@@ -0,0 +1,31 @@
+package com.sarahpilates.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página da paginação por cursor. Não traz total de registros: quem consome
+ * segue pedindo com {@code nextCursor} enquanto {@code hasNext} for verdadeiro.
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    
+    /**
+     * Monta a página a partir de uma consulta que buscou {@code size + 1}
+     * linhas; a linha extra só indica que existe próxima página.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPage<>(content, cursorOf.apply(content.get(size - 1)), true);
+    }
+}
\ No newline at end of file
@@ -3,10 +3,14 @@ package com.sarahpilates.dto;
 import com.sarahpilates.entity.Schedule;
 import lombok.Data;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 public class DashboardStats {
+    // Versão e horário de geração do retrato servido pelo cache
+    private Long snapshotVersion;
+    private LocalDateTime generatedAt;
     private Long totalStudents;
     private Long totalInstructors;
     private Long todaySchedules;
@@ -0,0 +1,18 @@
+package com.sarahpilates.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Cache de relatórios desde a inicialização. {@code invalidated} conta os
+ * relatórios removidos por alterações nos seus períodos.
+ */
+@Data
+@AllArgsConstructor
+public class ReportCacheStatistics {
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long size;
+    private long invalidated;
+}
\ No newline at end of file
@@ -64,8 +64,14 @@ public class ReportDTO {
         private String metricName;
         private Double initialValue;
         private Double currentValue;
+        // Positivo quando a medida melhorou (para dor e gordura corporal, quando diminuiu)
         private Double improvement;
         private String unit;
+        private Integer samples;
+        // Inclinação da reta de tendência, por 30 dias; nula com menos de duas datas
+        private Double trendPerMonth;
+        // Média das últimas medições
+        private Double movingAverage;
     }
     
     @Data
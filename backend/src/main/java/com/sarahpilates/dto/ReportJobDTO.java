@@ -0,0 +1,38 @@
+package com.sarahpilates.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.sarahpilates.entity.ReportJob;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class ReportJobDTO {
+    private Long id;
+    private ReportJob.ReportType type;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private ReportJob.JobStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private String error;
+    
+    // Relatório gravado em JSON, devolvido como está, sem nova conversão
+    @JsonRawValue
+    private String result;
+    
+    public static ReportJobDTO from(ReportJob job) {
+        ReportJobDTO dto = new ReportJobDTO();
+        dto.setId(job.getId());
+        dto.setType(job.getType());
+        dto.setStartDate(job.getStartDate());
+        dto.setEndDate(job.getEndDate());
+        dto.setStatus(job.getStatus());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setCompletedAt(job.getCompletedAt());
+        dto.setError(job.getError());
+        dto.setResult(job.getResult());
+        return dto;
+    }
+}
\ No newline at end of file
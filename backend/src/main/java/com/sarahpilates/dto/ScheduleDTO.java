@@ -2,14 +2,17 @@ package com.sarahpilates.dto;
 
 import com.sarahpilates.entity.Schedule;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class ScheduleDTO {
     private Long id;
     private Long studentId;
@@ -37,6 +40,34 @@ public class ScheduleDTO {
     private Boolean isPast;
     private Boolean isFuture;
     
+    /**
+     * Projeção usada nas listagens (SELECT new ... nos repositórios): só as
+     * colunas da linha do agendamento e os nomes de aluno e instrutor, sem
+     * observações. Os equipamentos são preenchidos depois, em uma consulta
+     * para a página inteira.
+     */
+    public ScheduleDTO(Long id, Long studentId, String studentName, Long instructorId, String instructorName,
+                       LocalDate date, LocalTime startTime, LocalTime endTime, String type,
+                       Schedule.ScheduleStatus status, String room, BigDecimal price,
+                       Schedule.PaymentStatus paymentStatus, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.studentId = studentId;
+        this.studentName = studentName;
+        this.instructorId = instructorId;
+        this.instructorName = instructorName;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.type = type;
+        this.status = status;
+        this.room = room;
+        this.price = price;
+        this.paymentStatus = paymentStatus;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        fillCalculatedFields();
+    }
+    
     public static ScheduleDTO fromEntity(Schedule schedule) {
         ScheduleDTO dto = new ScheduleDTO();
         dto.setId(schedule.getId());
@@ -51,30 +82,31 @@ public class ScheduleDTO {
         dto.setStatus(schedule.getStatus());
         dto.setNotes(schedule.getNotes());
         dto.setRoom(schedule.getRoom());
-        dto.setEquipment(schedule.getEquipment());
+        // Cópia da coleção, para que o DTO possa ser serializado fora da sessão
+        dto.setEquipment(schedule.getEquipment() != null ? new ArrayList<>(schedule.getEquipment()) : null);
         dto.setPrice(schedule.getPrice());
         dto.setPaymentStatus(schedule.getPaymentStatus());
         dto.setCreatedAt(schedule.getCreatedAt());
         dto.setUpdatedAt(schedule.getUpdatedAt());
-        
+        dto.fillCalculatedFields();
+        return dto;
+    }
+    
+    private void fillCalculatedFields() {
         // Calcular duração em minutos
-        if (schedule.getStartTime() != null && schedule.getEndTime() != null) {
-            dto.setDurationMinutes(
-                (int) java.time.Duration.between(schedule.getStartTime(), schedule.getEndTime()).toMinutes()
-            );
+        if (startTime != null && endTime != null) {
+            durationMinutes = (int) java.time.Duration.between(startTime, endTime).toMinutes();
         }
         
         // Descrições dos status
-        dto.setStatusDescription(getStatusDescription(schedule.getStatus()));
-        dto.setPaymentStatusDescription(getPaymentStatusDescription(schedule.getPaymentStatus()));
+        statusDescription = getStatusDescription(status);
+        paymentStatusDescription = getPaymentStatusDescription(paymentStatus);
         
         // Verificações de data
         LocalDate today = LocalDate.now();
-        dto.setIsToday(schedule.getDate().equals(today));
-        dto.setIsPast(schedule.getDate().isBefore(today));
-        dto.setIsFuture(schedule.getDate().isAfter(today));
-        
-        return dto;
+        isToday = date.equals(today);
+        isPast = date.isBefore(today);
+        isFuture = date.isAfter(today);
     }
     
     private static String getStatusDescription(Schedule.ScheduleStatus status) {
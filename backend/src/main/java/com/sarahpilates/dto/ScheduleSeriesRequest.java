@@ -0,0 +1,54 @@
+package com.sarahpilates.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Série de aulas recorrentes: o mesmo aluno, instrutor e horário nos dias da
+ * semana informados, de {@code startDate} até {@code endDate}, inclusive.
+ */
+@Data
+public class ScheduleSeriesRequest {
+    
+    @NotNull(message = "Aluno é obrigatório")
+    private Long studentId;
+    
+    @NotNull(message = "Instrutor é obrigatório")
+    private Long instructorId;
+    
+    @NotEmpty(message = "Informe ao menos um dia da semana")
+    private Set<DayOfWeek> daysOfWeek;
+    
+    @NotNull(message = "Horário de início é obrigatório")
+    private LocalTime startTime;
+    
+    @NotNull(message = "Horário de fim é obrigatório")
+    private LocalTime endTime;
+    
+    @NotNull(message = "Data inicial é obrigatória")
+    private LocalDate startDate;
+    
+    @NotNull(message = "Data final é obrigatória")
+    private LocalDate endDate;
+    
+    private String type = "Pilates Solo";
+    
+    private String room = "Sala 1";
+    
+    private String notes;
+    
+    private List<String> equipment;
+    
+    @NotNull(message = "Valor é obrigatório")
+    @Positive(message = "Valor deve ser positivo")
+    private BigDecimal price;
+}
\ No newline at end of file
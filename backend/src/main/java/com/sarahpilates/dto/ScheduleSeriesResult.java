@@ -0,0 +1,26 @@
+package com.sarahpilates.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Resultado da criação de uma série: cada data da série foi agendada ou
+ * recusada por conflito com os horários listados.
+ */
+@Data
+@AllArgsConstructor
+public class ScheduleSeriesResult {
+    private int created;
+    private int conflicts;
+    private List<Occurrence> occurrences;
+    
+    public record Occurrence(LocalDate date, Status status, Long scheduleId, List<String> conflictsWith) {
+    }
+    
+    public enum Status {
+        CRIADO, CONFLITO
+    }
+}
\ No newline at end of file
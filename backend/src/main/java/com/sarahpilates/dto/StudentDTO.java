@@ -2,11 +2,13 @@ package com.sarahpilates.dto;
 
 import com.sarahpilates.entity.Student;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class StudentDTO {
     private Long id;
     private String name;
@@ -31,6 +33,32 @@ public class StudentDTO {
     private Long daysSinceLastClass;
     private String statusDescription;
     
+    /**
+     * Projeção usada nas listagens (SELECT new ... no repositório): deixa de
+     * fora endereço, histórico médico e objetivos, colunas TEXT que só a tela
+     * de detalhes mostra.
+     */
+    public StudentDTO(Long id, String name, String email, String phone, LocalDate birthDate,
+                      String emergencyContact, String emergencyPhone, String plan, Student.StudentStatus status,
+                      LocalDate registrationDate, LocalDateTime lastClass, Integer totalClasses,
+                      LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.phone = phone;
+        this.birthDate = birthDate;
+        this.emergencyContact = emergencyContact;
+        this.emergencyPhone = emergencyPhone;
+        this.plan = plan;
+        this.status = status;
+        this.registrationDate = registrationDate;
+        this.lastClass = lastClass;
+        this.totalClasses = totalClasses;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        fillCalculatedFields();
+    }
+    
     public static StudentDTO fromEntity(Student student) {
         StudentDTO dto = new StudentDTO();
         dto.setId(student.getId());
@@ -50,23 +78,23 @@ public class StudentDTO {
         dto.setTotalClasses(student.getTotalClasses());
         dto.setCreatedAt(student.getCreatedAt());
         dto.setUpdatedAt(student.getUpdatedAt());
-        
+        dto.fillCalculatedFields();
+        return dto;
+    }
+    
+    private void fillCalculatedFields() {
         // Calcular idade
-        if (student.getBirthDate() != null) {
-            dto.setAge(LocalDate.now().getYear() - student.getBirthDate().getYear());
+        if (birthDate != null) {
+            age = LocalDate.now().getYear() - birthDate.getYear();
         }
         
         // Calcular dias desde última aula
-        if (student.getLastClass() != null) {
-            dto.setDaysSinceLastClass(
-                java.time.Duration.between(student.getLastClass(), LocalDateTime.now()).toDays()
-            );
+        if (lastClass != null) {
+            daysSinceLastClass = java.time.Duration.between(lastClass, LocalDateTime.now()).toDays();
         }
         
         // Descrição do status
-        dto.setStatusDescription(getStatusDescription(student.getStatus()));
-        
-        return dto;
+        statusDescription = getStatusDescription(status);
     }
     
     private static String getStatusDescription(Student.StudentStatus status) {
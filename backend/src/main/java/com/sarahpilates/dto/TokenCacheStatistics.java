@@ -0,0 +1,18 @@
+package com.sarahpilates.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Cache de tokens JWT já verificados desde a inicialização. O tempo médio de
+ * verificação é o custo de cada falta (assinatura e leitura das claims).
+ */
+@Data
+@AllArgsConstructor
+public class TokenCacheStatistics {
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long size;
+    private double averageVerificationMicros;
+}
\ No newline at end of file
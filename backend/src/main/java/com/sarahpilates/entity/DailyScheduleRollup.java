@@ -0,0 +1,80 @@
+package com.sarahpilates.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totais diários dos agendamentos por instrutor, tipo de aula e sala, mantidos
+ * na mesma transação que altera o agendamento. Os relatórios e o dashboard
+ * somam estas linhas em vez de varrer a tabela de agendamentos.
+ */
+@Entity
+@Table(name = "daily_schedule_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_schedule_rollup",
+               columnNames = {"date", "instructor_id", "type", "room"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyScheduleRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDate date;
+    
+    // Sem chave estrangeira: linhas zeradas não impedem a exclusão do instrutor
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "instructor_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Instructor instructor;
+    
+    @Column(nullable = false)
+    private String type;
+    
+    @Column(nullable = false)
+    private String room;
+    
+    // Quantidade por status do agendamento
+    @Column(name = "scheduled_count", nullable = false)
+    private Long scheduledCount = 0L;
+    
+    @Column(name = "confirmed_count", nullable = false)
+    private Long confirmedCount = 0L;
+    
+    @Column(name = "completed_count", nullable = false)
+    private Long completedCount = 0L;
+    
+    @Column(name = "canceled_count", nullable = false)
+    private Long canceledCount = 0L;
+    
+    @Column(name = "no_show_count", nullable = false)
+    private Long noShowCount = 0L;
+    
+    // Quantidade e valor por status do pagamento
+    @Column(name = "pending_count", nullable = false)
+    private Long pendingCount = 0L;
+    
+    @Column(name = "paid_count", nullable = false)
+    private Long paidCount = 0L;
+    
+    @Column(name = "exempt_count", nullable = false)
+    private Long exemptCount = 0L;
+    
+    @Column(name = "pending_amount", precision = 12, scale = 2, nullable = false)
+    private BigDecimal pendingAmount = BigDecimal.ZERO;
+    
+    @Column(name = "paid_amount", precision = 12, scale = 2, nullable = false)
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+    
+    @Column(name = "exempt_amount", precision = 12, scale = 2, nullable = false)
+    private BigDecimal exemptAmount = BigDecimal.ZERO;
+    
+    @Column(name = "total_minutes", nullable = false)
+    private Long totalMinutes = 0L;
+}
\ No newline at end of file
@@ -15,7 +15,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "evolution_records")
+@Table(name = "evolution_records", indexes = {
+        // Paginação por cursor: geral e histórico do aluno
+        @Index(name = "idx_evolution_records_date_session", columnList = "date, session, id"),
+        @Index(name = "idx_evolution_records_student_date_session", columnList = "student_id, date, session, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
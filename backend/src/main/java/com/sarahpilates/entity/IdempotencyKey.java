@@ -0,0 +1,46 @@
+package com.sarahpilates.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Chave enviada pelo cliente no cabeçalho {@code Idempotency-Key} de uma
+ * operação em lote, com o hash da requisição e a resposta gerada. Uma nova
+ * tentativa com a mesma chave recebe a resposta gravada sem reaplicar nada.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+       uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys",
+               columnNames = {"operation", "key_value"}),
+       indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 50)
+    private String operation;
+    
+    @Column(name = "key_value", nullable = false, length = 100)
+    private String keyValue;
+    
+    // SHA-256 do corpo da requisição, em hexadecimal
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(columnDefinition = "TEXT")
+    private String response;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
\ No newline at end of file
@@ -7,6 +7,8 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -17,6 +19,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "instructors")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "instructors")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -58,6 +62,7 @@ public class Instructor {
     private String crefNumber;
     
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "instructor-specializations")
     @CollectionTable(name = "instructor_specializations", joinColumns = @JoinColumn(name = "instructor_id"))
     @Column(name = "specialization")
     private List<String> specializations;
@@ -78,10 +83,12 @@ public class Instructor {
     @Column(columnDefinition = "TEXT")
     private String notes;
     
-    @Column(name = "total_classes", nullable = false)
+    // Mantidos só por ClassAttendanceService, com UPDATEs diretos: salvar o
+    // instrutor nunca sobrescreve esses campos com um valor lido antes
+    @Column(name = "total_classes", nullable = false, updatable = false)
     private Integer totalClasses = 0;
     
-    @Column(name = "total_students", nullable = false)
+    @Column(name = "total_students", nullable = false, updatable = false)
     private Integer totalStudents = 0;
     
     @CreationTimestamp
@@ -0,0 +1,35 @@
+package com.sarahpilates.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Par (instrutor, aluno) com ao menos uma aula concluída. A quantidade de
+ * linhas de um instrutor é o seu {@code totalStudents}; a linha é removida
+ * quando as aulas concluídas do par voltam a zero.
+ */
+@Entity
+@Table(name = "instructor_students",
+       uniqueConstraints = @UniqueConstraint(name = "uk_instructor_students",
+               columnNames = {"instructor_id", "student_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstructorStudent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Só os ids: a tabela é mantida por UPDATEs diretos e nunca navega para as entidades
+    @Column(name = "instructor_id", nullable = false)
+    private Long instructorId;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "completed_classes", nullable = false)
+    private Long completedClasses = 0L;
+}
\ No newline at end of file
@@ -15,7 +15,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "physical_evaluations")
+@Table(name = "physical_evaluations", indexes = {
+        // Paginação por cursor: geral e histórico do aluno
+        @Index(name = "idx_physical_evaluations_date", columnList = "date, id"),
+        @Index(name = "idx_physical_evaluations_student_date", columnList = "student_id, date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,68 @@
+package com.sarahpilates.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Relatório pedido para ser gerado em segundo plano. Ao concluir, o relatório
+ * fica gravado em JSON até {@code expiresAt} e é devolvido a novos pedidos
+ * com o mesmo tipo e período.
+ */
+@Entity
+@Table(name = "report_jobs", indexes = {
+        @Index(name = "idx_report_jobs_request", columnList = "type, start_date, end_date, status"),
+        @Index(name = "idx_report_jobs_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReportType type;
+    
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+    
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status = JobStatus.PENDENTE;
+    
+    @Column(columnDefinition = "TEXT")
+    private String result;
+    
+    @Column(length = 500)
+    private String error;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+    
+    public enum ReportType {
+        MENSAL, FINANCEIRO, FREQUENCIA
+    }
+    
+    public enum JobStatus {
+        PENDENTE, EM_ANDAMENTO, CONCLUIDO, FALHOU
+    }
+}
\ No newline at end of file
@@ -16,12 +16,23 @@ import java.time.LocalTime;
 import java.util.List;
 
 @Entity
-@Table(name = "schedules")
+@Table(name = "schedules", indexes = {
+        // Paginação por cursor: geral e histórico do aluno
+        @Index(name = "idx_schedules_date_start_time", columnList = "date, start_time, id"),
+        @Index(name = "idx_schedules_student_date_start_time", columnList = "student_id, date, start_time, id")
+})
+@NamedEntityGraph(name = Schedule.WITH_STUDENT_AND_INSTRUCTOR, attributeNodes = {
+        @NamedAttributeNode("student"),
+        @NamedAttributeNode("instructor")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Schedule {
     
+    // Listagens serializam aluno e instrutor; carregados no mesmo SELECT
+    public static final String WITH_STUDENT_AND_INSTRUCTOR = "Schedule.withStudentAndInstructor";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
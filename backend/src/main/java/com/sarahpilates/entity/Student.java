@@ -7,6 +7,8 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,6 +17,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "students")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "students")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -68,10 +72,12 @@ public class Student {
     @Column(name = "registration_date", nullable = false)
     private LocalDate registrationDate = LocalDate.now();
     
-    @Column(name = "last_class")
+    // Mantidos só por ClassAttendanceService, com UPDATEs diretos: salvar o
+    // aluno nunca sobrescreve esses campos com um valor lido antes
+    @Column(name = "last_class", updatable = false)
     private LocalDateTime lastClass;
     
-    @Column(name = "total_classes", nullable = false)
+    @Column(name = "total_classes", nullable = false, updatable = false)
     private Integer totalClasses = 0;
     
     @CreationTimestamp
@@ -0,0 +1,10 @@
+package com.sarahpilates.event;
+
+import com.sarahpilates.dto.DashboardStats;
+
+/**
+ * Publicado pelo {@code DashboardService} a cada novo retrato. Contém apenas os
+ * contadores; as listas de agendamentos chegam pelos {@link ScheduleChangedEvent}.
+ */
+public record DashboardUpdatedEvent(DashboardStats counters) {
+}
\ No newline at end of file
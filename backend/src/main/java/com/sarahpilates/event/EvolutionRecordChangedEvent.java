@@ -0,0 +1,21 @@
+package com.sarahpilates.event;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * Publicado pelo {@code EvolutionRecordService} ao criar, alterar ou excluir uma ficha de evolução.
+ * Aluno e data anteriores são nulos na criação; os atuais, na exclusão.
+ */
+public record EvolutionRecordChangedEvent(Long evolutionRecordId, Long previousStudentId, Long studentId,
+                                          LocalDate previousDate, LocalDate date) {
+    
+    public boolean isCreation() {
+        return previousStudentId == null && studentId != null;
+    }
+    
+    public boolean affectsBetween(LocalDate startDate, LocalDate endDate) {
+        return Stream.of(previousDate, date)
+                .anyMatch(day -> day != null && !day.isBefore(startDate) && !day.isAfter(endDate));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.sarahpilates.event;
+
+/**
+ * Publicado pelo {@code InstructorService} ao criar, alterar ou excluir um instrutor.
+ * {@code nameChanged} indica que o nome pode ter mudado: agendamentos, fichas e
+ * avaliações do instrutor são encontrados na busca pelo nome dele.
+ */
+public record InstructorChangedEvent(Long instructorId, boolean nameChanged) {
+}
\ No newline at end of file
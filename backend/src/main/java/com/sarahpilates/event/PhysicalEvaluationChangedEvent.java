@@ -0,0 +1,8 @@
+package com.sarahpilates.event;
+
+/**
+ * Publicado pelo {@code PhysicalEvaluationService} ao criar, alterar ou excluir uma avaliação física.
+ * {@code previousStudentId} é nulo na criação e {@code studentId} é nulo na exclusão.
+ */
+public record PhysicalEvaluationChangedEvent(Long physicalEvaluationId, Long previousStudentId, Long studentId) {
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.sarahpilates.event;
+
+import com.sarahpilates.entity.ReportJob;
+
+/**
+ * Publicado pelo {@code ReportJobService} quando um relatório em segundo plano
+ * termina, com ou sem sucesso. O relatório em si é buscado pelo id.
+ */
+public record ReportJobCompletedEvent(Long jobId, ReportJob.ReportType type, ReportJob.JobStatus status) {
+}
\ No newline at end of file
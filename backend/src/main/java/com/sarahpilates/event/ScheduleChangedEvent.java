@@ -0,0 +1,29 @@
+package com.sarahpilates.event;
+
+import com.sarahpilates.dto.ScheduleDTO;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * Publicado pelo {@code ScheduleService} a cada alteração de agendamento.
+ * {@code previousDate} é nulo na criação; {@code date} e {@code schedule}, o
+ * estado após a alteração, são nulos na exclusão.
+ */
+public record ScheduleChangedEvent(Type type, Long scheduleId, LocalDate previousDate, LocalDate date,
+                                   ScheduleDTO schedule) {
+    
+    public enum Type {
+        CREATED, UPDATED, STATUS_CHANGED, DELETED
+    }
+    
+    // Datas cujos agendamentos foram afetados pela alteração
+    public boolean affects(LocalDate day) {
+        return day.equals(previousDate) || day.equals(date);
+    }
+    
+    public boolean affectsBetween(LocalDate startDate, LocalDate endDate) {
+        return Stream.of(previousDate, date)
+                .anyMatch(day -> day != null && !day.isBefore(startDate) && !day.isAfter(endDate));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.sarahpilates.event;
+
+/**
+ * Publicado pelo {@code StudentService} ao criar, alterar ou excluir um aluno.
+ * {@code nameChanged} indica que o nome pode ter mudado: agendamentos, fichas e
+ * avaliações do aluno são encontrados na busca pelo nome dele.
+ */
+public record StudentChangedEvent(Long studentId, boolean nameChanged) {
+}
\ No newline at end of file
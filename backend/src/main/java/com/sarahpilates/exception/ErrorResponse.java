@@ -3,6 +3,7 @@ package com.sarahpilates.exception;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -12,4 +13,5 @@ public class ErrorResponse {
     private String error;
     private String message;
     private Map<String, String> validationErrors;
+    private List<String> details;
 }
\ No newline at end of file
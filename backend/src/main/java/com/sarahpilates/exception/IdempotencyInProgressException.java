@@ -0,0 +1,12 @@
+package com.sarahpilates.exception;
+
+/**
+ * Outra requisição com a mesma chave de idempotência ainda está em andamento;
+ * repetir em instantes devolve o resultado dela.
+ */
+public class IdempotencyInProgressException extends RuntimeException {
+    
+    public IdempotencyInProgressException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.sarahpilates.exception;
+
+import com.sarahpilates.service.ScheduleConflictIndex;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+public class ScheduleConflictException extends RuntimeException {
+    
+    private final List<ScheduleConflictIndex.Slot> conflicts;
+    
+    public ScheduleConflictException(List<ScheduleConflictIndex.Slot> conflicts) {
+        super("Instrutor já possui agendamento neste horário: " +
+              conflicts.stream().map(ScheduleConflictIndex.Slot::toString).collect(Collectors.joining(", ")));
+        this.conflicts = conflicts;
+    }
+}
\ No newline at end of file
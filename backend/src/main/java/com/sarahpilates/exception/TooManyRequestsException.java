@@ -0,0 +1,12 @@
+package com.sarahpilates.exception;
+
+/**
+ * Recusa imediata quando um recurso limitado está saturado; o cliente deve
+ * tentar de novo em instantes.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.sarahpilates.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Contadores de aulas de alunos e instrutores, alterados com SQL direto. Um
+ * UPDATE em lote pelo Hibernate (JPQL) esvazia a região inteira da entidade no
+ * cache de segundo nível; aqui só a linha muda e quem chama remove do cache
+ * apenas os registros alterados.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClassCounterRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public int addStudentClasses(Long studentId, int delta) {
+        return jdbcTemplate.update("UPDATE students SET total_classes = total_classes + ? WHERE id = ?",
+                delta, studentId);
+    }
+    
+    // Só avança: uma aula concluída anterior à última não altera o campo
+    public int advanceLastClass(Long studentId, LocalDateTime lastClass) {
+        return jdbcTemplate.update("UPDATE students SET last_class = ? WHERE id = ? " +
+                "AND (last_class IS NULL OR last_class < ?)",
+                Timestamp.valueOf(lastClass), studentId, Timestamp.valueOf(lastClass));
+    }
+    
+    public int updateLastClass(Long studentId, LocalDateTime lastClass) {
+        return jdbcTemplate.update("UPDATE students SET last_class = ? WHERE id = ?",
+                lastClass != null ? Timestamp.valueOf(lastClass) : null, studentId);
+    }
+    
+    // Reconstrução: cada linha é (última aula, id do aluno)
+    public void updateLastClasses(List<Object[]> lastClasses) {
+        jdbcTemplate.batchUpdate("UPDATE students SET last_class = ? WHERE id = ?", lastClasses);
+    }
+    
+    public int addInstructorClasses(Long instructorId, int delta) {
+        return jdbcTemplate.update("UPDATE instructors SET total_classes = total_classes + ? WHERE id = ?",
+                delta, instructorId);
+    }
+    
+    public int addInstructorStudents(Long instructorId, int delta) {
+        return jdbcTemplate.update("UPDATE instructors SET total_students = total_students + ? WHERE id = ?",
+                delta, instructorId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.sarahpilates.repository;
+
+import com.sarahpilates.entity.DailyScheduleRollup;
+import com.sarahpilates.repository.projection.RollupTotals;
+import com.sarahpilates.repository.projection.ScheduleRollupRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyScheduleRollupRepository extends JpaRepository<DailyScheduleRollup, Long> {
+    
+    @Query("SELECT r.date AS date, i.id AS instructorId, i.name AS instructorName, r.type AS type, " +
+           "SUM(r.scheduledCount) AS scheduledCount, SUM(r.confirmedCount) AS confirmedCount, " +
+           "SUM(r.completedCount) AS completedCount, SUM(r.canceledCount) AS canceledCount, " +
+           "SUM(r.noShowCount) AS noShowCount, SUM(r.pendingCount) AS pendingCount, " +
+           "SUM(r.paidCount) AS paidCount, SUM(r.exemptCount) AS exemptCount, " +
+           "SUM(r.pendingAmount) AS pendingAmount, SUM(r.paidAmount) AS paidAmount, " +
+           "SUM(r.exemptAmount) AS exemptAmount, SUM(r.totalMinutes) AS totalMinutes " +
+           "FROM DailyScheduleRollup r JOIN r.instructor i WHERE r.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.date, i.id, i.name, r.type")
+    List<ScheduleRollupRow> sumByDayInstructorAndType(@Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT COALESCE(SUM(r.scheduledCount), 0) AS scheduledCount, " +
+           "COALESCE(SUM(r.confirmedCount), 0) AS confirmedCount, " +
+           "COALESCE(SUM(r.completedCount), 0) AS completedCount, " +
+           "COALESCE(SUM(r.canceledCount), 0) AS canceledCount, " +
+           "COALESCE(SUM(r.noShowCount), 0) AS noShowCount, " +
+           "COALESCE(SUM(r.pendingCount), 0) AS pendingCount, " +
+           "COALESCE(SUM(r.paidCount), 0) AS paidCount, " +
+           "COALESCE(SUM(r.exemptCount), 0) AS exemptCount, " +
+           "COALESCE(SUM(r.pendingAmount), 0) AS pendingAmount, " +
+           "COALESCE(SUM(r.paidAmount), 0) AS paidAmount, " +
+           "COALESCE(SUM(r.exemptAmount), 0) AS exemptAmount, " +
+           "COALESCE(SUM(r.totalMinutes), 0) AS totalMinutes " +
+           "FROM DailyScheduleRollup r WHERE r.date BETWEEN :startDate AND :endDate")
+    RollupTotals sumBetweenDates(@Param("startDate") LocalDate startDate,
+                                 @Param("endDate") LocalDate endDate);
+    
+    @Modifying
+    @Query("DELETE FROM DailyScheduleRollup r WHERE r.date BETWEEN :startDate AND :endDate")
+    int deleteByDateBetween(@Param("startDate") LocalDate startDate,
+                            @Param("endDate") LocalDate endDate);
+}
\ No newline at end of file
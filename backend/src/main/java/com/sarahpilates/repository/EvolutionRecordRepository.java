@@ -1,15 +1,23 @@
 package com.sarahpilates.repository;
 
 import com.sarahpilates.entity.EvolutionRecord;
+import com.sarahpilates.repository.projection.EvolutionMetricsView;
+import com.sarahpilates.repository.projection.InstructorRating;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface EvolutionRecordRepository extends JpaRepository<EvolutionRecord, Long> {
@@ -30,6 +38,26 @@ public interface EvolutionRecordRepository extends JpaRepository<EvolutionRecord
            "ORDER BY er.date DESC, er.session DESC")
     List<EvolutionRecord> findByStudentIdOrderByDateDesc(@Param("studentId") Long studentId);
     
+    // Paginação por cursor, das mais recentes para as mais antigas, pelos índices (date, session, id)
+    String BEFORE_CURSOR = "(er.date < :date OR (er.date = :date AND (er.session < :session OR " +
+            "(er.session = :session AND er.id < :id))))";
+    String ORDER_DESC = " ORDER BY er.date DESC, er.session DESC, er.id DESC";
+    
+    @Query("SELECT er FROM EvolutionRecord er JOIN FETCH er.student JOIN FETCH er.instructor " +
+           "WHERE " + BEFORE_CURSOR + ORDER_DESC)
+    List<EvolutionRecord> findBefore(@Param("date") LocalDate date,
+                                     @Param("session") Integer session,
+                                     @Param("id") Long id,
+                                     Pageable window);
+    
+    @Query("SELECT er FROM EvolutionRecord er JOIN FETCH er.student JOIN FETCH er.instructor " +
+           "WHERE er.student.id = :studentId AND " + BEFORE_CURSOR + ORDER_DESC)
+    List<EvolutionRecord> findByStudentIdBefore(@Param("studentId") Long studentId,
+                                                @Param("date") LocalDate date,
+                                                @Param("session") Integer session,
+                                                @Param("id") Long id,
+                                                Pageable window);
+    
     @Query("SELECT MAX(er.session) FROM EvolutionRecord er WHERE er.student.id = :studentId")
     Integer findMaxSessionByStudentId(@Param("studentId") Long studentId);
     
@@ -38,4 +66,39 @@ public interface EvolutionRecordRepository extends JpaRepository<EvolutionRecord
     
     @Query("SELECT AVG(er.overallRating) FROM EvolutionRecord er WHERE er.student.id = :studentId")
     Double getAverageRatingByStudentId(@Param("studentId") Long studentId);
+    
+    @Query("SELECT er.instructor.id AS instructorId, AVG(er.overallRating) AS averageRating " +
+           "FROM EvolutionRecord er WHERE er.date BETWEEN :startDate AND :endDate GROUP BY er.instructor.id")
+    List<InstructorRating> getAverageRatingByInstructorBetweenDates(@Param("startDate") LocalDate startDate,
+                                                                    @Param("endDate") LocalDate endDate);
+    
+    // Leitura completa, em fluxo, usada na reconstrução do índice de busca
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT er FROM EvolutionRecord er JOIN FETCH er.student JOIN FETCH er.instructor")
+    Stream<EvolutionRecord> streamAllForSearch();
+    
+    // Registros de um aluno ou instrutor, em fluxo, reindexados quando o nome dele muda
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT er FROM EvolutionRecord er JOIN FETCH er.student st JOIN FETCH er.instructor " +
+           "WHERE st.id = :studentId")
+    Stream<EvolutionRecord> streamForSearchByStudentId(@Param("studentId") Long studentId);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT er FROM EvolutionRecord er JOIN FETCH er.student JOIN FETCH er.instructor i " +
+           "WHERE i.id = :instructorId")
+    Stream<EvolutionRecord> streamForSearchByInstructorId(@Param("instructorId") Long instructorId);
+    
+    // Só as colunas usadas no progresso do aluno, em fluxo e em ordem cronológica
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT er.id AS id, er.date AS date, er.focus AS focus, er.overallRating AS overallRating, " +
+           "er.painLevel AS painLevel, er.mobilityLevel AS mobilityLevel, er.strengthLevel AS strengthLevel, " +
+           "er.balanceLevel AS balanceLevel, er.enduranceLevel AS enduranceLevel FROM EvolutionRecord er " +
+           "WHERE er.student.id = :studentId ORDER BY er.date, er.session, er.id")
+    Stream<EvolutionMetricsView> streamMetricsByStudentId(@Param("studentId") Long studentId);
+    
+    @Query("SELECT er.id AS id, er.date AS date, er.focus AS focus, er.overallRating AS overallRating, " +
+           "er.painLevel AS painLevel, er.mobilityLevel AS mobilityLevel, er.strengthLevel AS strengthLevel, " +
+           "er.balanceLevel AS balanceLevel, er.enduranceLevel AS enduranceLevel FROM EvolutionRecord er " +
+           "WHERE er.id = :id")
+    Optional<EvolutionMetricsView> findMetricsById(@Param("id") Long id);
 }
\ No newline at end of file
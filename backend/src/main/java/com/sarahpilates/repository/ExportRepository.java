@@ -0,0 +1,94 @@
+package com.sarahpilates.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Leitura das exportações com um cursor JDBC só de avanço: as linhas chegam
+ * do banco em blocos ({@code useCursorFetch} no MySQL) e são entregues uma a
+ * uma, sem passar pelo contexto de persistência. Em memória fica só o bloco
+ * atual, qualquer que seja o período exportado.
+ */
+@Repository
+public class ExportRepository {
+    
+    private static final int CHUNK_SIZE = 500;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    
+    public ExportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(CHUNK_SIZE);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+    
+    /**
+     * Entrega cada linha de {@code sql} a {@code sink}, com datas e horas já
+     * convertidas para {@code java.time}. A primeira coluna deve ser o id.
+     *
+     * Com {@code collectionSql} (id do dono e valor, filtrados por
+     * {@code IN (:ids)}), cada linha ganha uma última coluna com os valores da
+     * coleção separados por "; ", buscados com uma consulta por bloco.
+     */
+    public void stream(String sql, Object[] args, String collectionSql, Consumer<List<Object>> sink) {
+        int columns = collectionSql != null ? 1 : 0;
+        List<Object[]> chunk = new ArrayList<>(CHUNK_SIZE);
+        jdbcTemplate.query(sql, rs -> {
+            int count = rs.getMetaData().getColumnCount();
+            Object[] row = new Object[count + columns];
+            for (int i = 0; i < count; i++) {
+                row[i] = convert(rs.getObject(i + 1));
+            }
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                emit(chunk, collectionSql, sink);
+            }
+        }, args);
+        emit(chunk, collectionSql, sink);
+    }
+    
+    private void emit(List<Object[]> chunk, String collectionSql, Consumer<List<Object>> sink) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        if (collectionSql != null) {
+            Map<Long, List<String>> values = new HashMap<>();
+            List<Long> ids = chunk.stream().map(row -> ((Number) row[0]).longValue()).toList();
+            namedJdbcTemplate.query(collectionSql, Map.of("ids", ids), rs -> {
+                values.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getString(2));
+            });
+            for (Object[] row : chunk) {
+                List<String> collection = values.get(((Number) row[0]).longValue());
+                row[row.length - 1] = collection != null ? String.join("; ", collection) : null;
+            }
+        }
+        chunk.forEach(row -> sink.accept(Arrays.asList(row)));
+        chunk.clear();
+    }
+    
+    private static Object convert(Object value) {
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof Time time) {
+            return time.toLocalTime();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return value;
+    }
+}
\ No newline at end of file
@@ -1,15 +1,21 @@
 package com.sarahpilates.repository;
 
 import com.sarahpilates.entity.Instructor;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface InstructorRepository extends JpaRepository<Instructor, Long> {
@@ -36,4 +42,18 @@ public interface InstructorRepository extends JpaRepository<Instructor, Long> {
     
     @Query("SELECT COUNT(i) FROM Instructor i WHERE i.status = 'ATIVO'")
     Long countActiveInstructors();
+    
+    // Reconstrução: totais de todos os instrutores a partir de instructor_students
+    @Modifying
+    @Query("UPDATE Instructor i SET " +
+           "i.totalStudents = (SELECT CAST(COUNT(p) AS Integer) FROM InstructorStudent p " +
+           "WHERE p.instructorId = i.id), " +
+           "i.totalClasses = (SELECT CAST(COALESCE(SUM(p.completedClasses), 0) AS Integer) " +
+           "FROM InstructorStudent p WHERE p.instructorId = i.id)")
+    int recountFromInstructorStudents();
+    
+    // Leitura completa, em fluxo, usada na reconstrução do índice de busca
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT i FROM Instructor i")
+    Stream<Instructor> streamAllForSearch();
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.sarahpilates.repository;
+
+import com.sarahpilates.entity.InstructorStudent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InstructorStudentRepository extends JpaRepository<InstructorStudent, Long> {
+    
+    @Modifying
+    @Query("UPDATE InstructorStudent p SET p.completedClasses = p.completedClasses + :delta " +
+           "WHERE p.instructorId = :instructorId AND p.studentId = :studentId")
+    int addCompletedClasses(@Param("instructorId") Long instructorId,
+                            @Param("studentId") Long studentId,
+                            @Param("delta") long delta);
+    
+    @Modifying
+    @Query("DELETE FROM InstructorStudent p WHERE p.instructorId = :instructorId AND p.studentId = :studentId " +
+           "AND p.completedClasses <= 0")
+    int deleteIfEmpty(@Param("instructorId") Long instructorId, @Param("studentId") Long studentId);
+    
+    // Reconstrução: um par por instrutor e aluno com aulas concluídas
+    @Modifying
+    @Query(value = "INSERT INTO instructor_students (instructor_id, student_id, completed_classes) " +
+                   "SELECT instructor_id, student_id, COUNT(*) FROM schedules WHERE status = 'CONCLUIDO' " +
+                   "GROUP BY instructor_id, student_id",
+           nativeQuery = true)
+    int insertFromSchedules();
+}
\ No newline at end of file
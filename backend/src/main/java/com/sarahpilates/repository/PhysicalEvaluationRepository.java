@@ -1,15 +1,21 @@
 package com.sarahpilates.repository;
 
 import com.sarahpilates.entity.PhysicalEvaluation;
+import com.sarahpilates.repository.projection.EvaluationMetricsView;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface PhysicalEvaluationRepository extends JpaRepository<PhysicalEvaluation, Long> {
@@ -38,6 +44,47 @@ public interface PhysicalEvaluationRepository extends JpaRepository<PhysicalEval
            "ORDER BY pe.date DESC")
     List<PhysicalEvaluation> findByStudentIdOrderByDateDesc(@Param("studentId") Long studentId);
     
+    // Paginação por cursor, das mais recentes para as mais antigas, pelos índices (date, id)
+    String BEFORE_CURSOR = "(pe.date < :date OR (pe.date = :date AND pe.id < :id))";
+    String ORDER_DESC = " ORDER BY pe.date DESC, pe.id DESC";
+    
+    @Query("SELECT pe FROM PhysicalEvaluation pe JOIN FETCH pe.student JOIN FETCH pe.instructor " +
+           "WHERE " + BEFORE_CURSOR + ORDER_DESC)
+    List<PhysicalEvaluation> findBefore(@Param("date") LocalDate date,
+                                        @Param("id") Long id,
+                                        Pageable window);
+    
+    @Query("SELECT pe FROM PhysicalEvaluation pe JOIN FETCH pe.student JOIN FETCH pe.instructor " +
+           "WHERE pe.student.id = :studentId AND " + BEFORE_CURSOR + ORDER_DESC)
+    List<PhysicalEvaluation> findByStudentIdBefore(@Param("studentId") Long studentId,
+                                                   @Param("date") LocalDate date,
+                                                   @Param("id") Long id,
+                                                   Pageable window);
+    
     @Query("SELECT COUNT(pe) FROM PhysicalEvaluation pe WHERE pe.type = :type")
     Long countByType(@Param("type") PhysicalEvaluation.EvaluationType type);
+    
+    // Leitura completa, em fluxo, usada na reconstrução do índice de busca
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT pe FROM PhysicalEvaluation pe JOIN FETCH pe.student JOIN FETCH pe.instructor")
+    Stream<PhysicalEvaluation> streamAllForSearch();
+    
+    // Registros de um aluno ou instrutor, em fluxo, reindexados quando o nome dele muda
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT pe FROM PhysicalEvaluation pe JOIN FETCH pe.student st JOIN FETCH pe.instructor " +
+           "WHERE st.id = :studentId")
+    Stream<PhysicalEvaluation> streamForSearchByStudentId(@Param("studentId") Long studentId);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT pe FROM PhysicalEvaluation pe JOIN FETCH pe.student JOIN FETCH pe.instructor i " +
+           "WHERE i.id = :instructorId")
+    Stream<PhysicalEvaluation> streamForSearchByInstructorId(@Param("instructorId") Long instructorId);
+    
+    // Só as medidas usadas no progresso do aluno, em fluxo e em ordem cronológica
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT pe.date AS date, pe.weight AS weight, pe.bmi AS bmi, pe.bodyFat AS bodyFat, " +
+           "pe.shoulderFlexion AS shoulderFlexion, pe.spinalFlexion AS spinalFlexion, " +
+           "pe.hipFlexion AS hipFlexion, pe.ankleFlexion AS ankleFlexion FROM PhysicalEvaluation pe " +
+           "WHERE pe.student.id = :studentId ORDER BY pe.date, pe.id")
+    Stream<EvaluationMetricsView> streamMetricsByStudentId(@Param("studentId") Long studentId);
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.sarahpilates.repository;
+
+import com.sarahpilates.entity.ReportJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+    
+    @Query("SELECT j FROM ReportJob j WHERE j.type = :type AND j.startDate = :startDate " +
+           "AND j.endDate = :endDate AND j.status = :status AND j.expiresAt > :now ORDER BY j.id DESC")
+    List<ReportJob> findValid(@Param("type") ReportJob.ReportType type,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("status") ReportJob.JobStatus status,
+                              @Param("now") LocalDateTime now,
+                              Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :failed, j.error = :error, j.completedAt = :now " +
+           "WHERE j.status IN :unfinished")
+    int failUnfinished(@Param("unfinished") Collection<ReportJob.JobStatus> unfinished,
+                       @Param("failed") ReportJob.JobStatus failed,
+                       @Param("error") String error,
+                       @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM ReportJob j WHERE j.status = :status AND j.startDate <= :date AND j.endDate >= :date")
+    int deleteCovering(@Param("status") ReportJob.JobStatus status, @Param("date") LocalDate date);
+    
+    @Modifying
+    @Query("DELETE FROM ReportJob j WHERE j.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
\ No newline at end of file
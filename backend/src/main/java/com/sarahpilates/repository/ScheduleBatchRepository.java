@@ -0,0 +1,92 @@
+package com.sarahpilates.repository;
+
+import com.sarahpilates.entity.Schedule;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserção de vários agendamentos em lote JDBC. Com IDENTITY o Hibernate
+ * insere uma linha por vez; aqui a tabela e os equipamentos vão em um lote
+ * cada (uma única instrução multi-linha no MySQL com
+ * {@code rewriteBatchedStatements}).
+ *
+ * Os agendamentos não passam pelo contexto de persistência: os ids gerados são
+ * gravados nas próprias instâncias, que continuam destacadas.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScheduleBatchRepository {
+    
+    private static final String INSERT_SCHEDULE = "INSERT INTO schedules (student_id, instructor_id, date, " +
+            "start_time, end_time, type, status, notes, room, price, payment_status, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_EQUIPMENT = "INSERT INTO schedule_equipment (schedule_id, equipment) " +
+            "VALUES (?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void insertAll(List<Schedule> schedules) {
+        if (schedules.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SCHEDULE, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Schedule schedule = schedules.get(i);
+                        ps.setLong(1, schedule.getStudent().getId());
+                        ps.setLong(2, schedule.getInstructor().getId());
+                        ps.setDate(3, Date.valueOf(schedule.getDate()));
+                        ps.setTime(4, Time.valueOf(schedule.getStartTime()));
+                        ps.setTime(5, Time.valueOf(schedule.getEndTime()));
+                        ps.setString(6, schedule.getType());
+                        ps.setString(7, schedule.getStatus().name());
+                        ps.setString(8, schedule.getNotes());
+                        ps.setString(9, schedule.getRoom());
+                        ps.setBigDecimal(10, schedule.getPrice());
+                        ps.setString(11, schedule.getPaymentStatus().name());
+                        ps.setTimestamp(12, Timestamp.valueOf(now));
+                        ps.setTimestamp(13, Timestamp.valueOf(now));
+                    }
+                    
+                    @Override
+                    public int getBatchSize() {
+                        return schedules.size();
+                    }
+                },
+                keys);
+        
+        List<Object[]> equipment = new ArrayList<>();
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < schedules.size(); i++) {
+            Schedule schedule = schedules.get(i);
+            schedule.setId(((Number) generated.get(i).values().iterator().next()).longValue());
+            schedule.setCreatedAt(now);
+            schedule.setUpdatedAt(now);
+            if (schedule.getEquipment() != null) {
+                schedule.getEquipment().forEach(item -> equipment.add(new Object[] {schedule.getId(), item}));
+            }
+        }
+        if (!equipment.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EQUIPMENT, equipment);
+        }
+    }
+}
\ No newline at end of file
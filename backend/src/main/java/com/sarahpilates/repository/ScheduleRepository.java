@@ -1,44 +1,112 @@
 package com.sarahpilates.repository;
 
+import com.sarahpilates.dto.ScheduleDTO;
 import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.repository.projection.ClassTypeStudentCount;
+import com.sarahpilates.repository.projection.InstructorStudentCount;
+import com.sarahpilates.repository.projection.LastClassView;
+import com.sarahpilates.repository.projection.ScheduleRollupSource;
+import com.sarahpilates.repository.projection.ScheduleSlotView;
+import com.sarahpilates.repository.projection.StudentAttendanceRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     
+    @EntityGraph(Schedule.WITH_STUDENT_AND_INSTRUCTOR)
+    @Override
+    List<Schedule> findAll();
+    
+    @EntityGraph(Schedule.WITH_STUDENT_AND_INSTRUCTOR)
+    @Override
+    Page<Schedule> findAll(Pageable pageable);
+    
+    @EntityGraph(Schedule.WITH_STUDENT_AND_INSTRUCTOR)
+    @Override
+    List<Schedule> findAllById(Iterable<Long> ids);
+    
+    /**
+     * Lê e bloqueia o agendamento até o fim da transação, para que mudanças de
+     * status simultâneas no mesmo agendamento sejam aplicadas uma de cada vez.
+     * Só a linha do agendamento é bloqueada, sem aluno e instrutor.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Schedule s WHERE s.id = :id")
+    Optional<Schedule> findByIdForUpdate(@Param("id") Long id);
+    
+    // Sempre na mesma ordem, para duas atualizações em lote não se bloquearem mutuamente
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Schedule s WHERE s.id IN :ids ORDER BY s.id")
+    List<Schedule> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    
+    @EntityGraph(Schedule.WITH_STUDENT_AND_INSTRUCTOR)
     List<Schedule> findByDate(LocalDate date);
     
+    @EntityGraph(Schedule.WITH_STUDENT_AND_INSTRUCTOR)
     List<Schedule> findByDateBetween(LocalDate startDate, LocalDate endDate);
     
+    @EntityGraph(Schedule.WITH_STUDENT_AND_INSTRUCTOR)
     List<Schedule> findByStudentId(Long studentId);
     
+    @EntityGraph(Schedule.WITH_STUDENT_AND_INSTRUCTOR)
     List<Schedule> findByInstructorId(Long instructorId);
     
+    @EntityGraph(Schedule.WITH_STUDENT_AND_INSTRUCTOR)
     List<Schedule> findByStatus(Schedule.ScheduleStatus status);
     
+    @EntityGraph(Schedule.WITH_STUDENT_AND_INSTRUCTOR)
     @Query("SELECT s FROM Schedule s WHERE s.date = :date AND s.status IN :statuses")
     List<Schedule> findByDateAndStatusIn(@Param("date") LocalDate date, 
                                         @Param("statuses") List<Schedule.ScheduleStatus> statuses);
     
+    // Sobreposição: o horário existente começa antes do fim do novo e termina depois do seu início
     @Query("SELECT s FROM Schedule s WHERE s.instructor.id = :instructorId AND s.date = :date AND " +
-           "((s.startTime <= :startTime AND s.endTime > :startTime) OR " +
-           "(s.startTime < :endTime AND s.endTime >= :endTime) OR " +
-           "(s.startTime >= :startTime AND s.endTime <= :endTime)) AND " +
+           "s.startTime < :endTime AND s.endTime > :startTime AND " +
            "s.status NOT IN ('CANCELADO')")
     List<Schedule> findConflictingSchedules(@Param("instructorId") Long instructorId,
                                            @Param("date") LocalDate date,
                                            @Param("startTime") LocalTime startTime,
                                            @Param("endTime") LocalTime endTime);
     
+    @Query("SELECT s.id AS id, s.instructor.id AS instructorId, s.date AS date, " +
+           "s.startTime AS startTime, s.endTime AS endTime FROM Schedule s " +
+           "WHERE s.instructor.id = :instructorId AND s.date = :date AND s.status <> 'CANCELADO'")
+    List<ScheduleSlotView> findActiveSlots(@Param("instructorId") Long instructorId,
+                                           @Param("date") LocalDate date);
+    
+    @Query("SELECT s.id AS id, s.instructor.id AS instructorId, s.date AS date, " +
+           "s.startTime AS startTime, s.endTime AS endTime FROM Schedule s " +
+           "WHERE s.date >= :fromDate AND s.status <> 'CANCELADO'")
+    List<ScheduleSlotView> findActiveSlotsFrom(@Param("fromDate") LocalDate fromDate);
+    
+    @Query("SELECT s.id AS id, s.instructor.id AS instructorId, s.date AS date, " +
+           "s.startTime AS startTime, s.endTime AS endTime FROM Schedule s " +
+           "WHERE s.instructor.id = :instructorId AND s.date BETWEEN :startDate AND :endDate " +
+           "AND s.status <> 'CANCELADO'")
+    List<ScheduleSlotView> findActiveSlotsBetween(@Param("instructorId") Long instructorId,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+    
+    @EntityGraph(Schedule.WITH_STUDENT_AND_INSTRUCTOR)
     @Query("SELECT s FROM Schedule s WHERE " +
            "LOWER(s.student.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(s.instructor.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -46,6 +114,94 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
            "LOWER(s.room) LIKE LOWER(CONCAT('%', :search, '%'))")
     Page<Schedule> findBySearchTerm(@Param("search") String search, Pageable pageable);
     
+    // Listagens: projeção direta em ScheduleDTO, sem carregar entidades nem colunas TEXT
+    String SUMMARY_SELECT = "SELECT new com.sarahpilates.dto.ScheduleDTO(s.id, st.id, st.name, i.id, i.name, " +
+            "s.date, s.startTime, s.endTime, s.type, s.status, s.room, s.price, s.paymentStatus, " +
+            "s.createdAt, s.updatedAt) FROM Schedule s JOIN s.student st JOIN s.instructor i ";
+    String SUMMARY_ORDER = " ORDER BY s.date, s.startTime, s.id";
+    
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(s) FROM Schedule s")
+    Page<ScheduleDTO> findSummaries(Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE s.id IN :ids")
+    List<ScheduleDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE " +
+                   "LOWER(st.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(i.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(s.type) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(s.room) LIKE LOWER(CONCAT('%', :search, '%'))",
+           countQuery = "SELECT COUNT(s) FROM Schedule s WHERE " +
+                        "LOWER(s.student.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                        "LOWER(s.instructor.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                        "LOWER(s.type) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                        "LOWER(s.room) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Page<ScheduleDTO> findSummariesBySearchTerm(@Param("search") String search, Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "WHERE s.date BETWEEN :startDate AND :endDate" + SUMMARY_ORDER)
+    Stream<ScheduleDTO> streamSummariesByDateBetween(@Param("startDate") LocalDate startDate,
+                                                     @Param("endDate") LocalDate endDate);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "WHERE st.id = :studentId" + SUMMARY_ORDER)
+    Stream<ScheduleDTO> streamSummariesByStudentId(@Param("studentId") Long studentId);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "WHERE i.id = :instructorId" + SUMMARY_ORDER)
+    Stream<ScheduleDTO> streamSummariesByInstructorId(@Param("instructorId") Long instructorId);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "WHERE s.status = :status" + SUMMARY_ORDER)
+    Stream<ScheduleDTO> streamSummariesByStatus(@Param("status") Schedule.ScheduleStatus status);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "WHERE s.date = :date AND s.status IN :statuses" + SUMMARY_ORDER)
+    Stream<ScheduleDTO> streamSummariesByDateAndStatusIn(@Param("date") LocalDate date,
+                                                         @Param("statuses") List<Schedule.ScheduleStatus> statuses);
+    
+    // Paginação por cursor, dos mais recentes para os mais antigos, pelos índices (date, start_time, id)
+    String SUMMARY_BEFORE_CURSOR = "(s.date < :date OR (s.date = :date AND (s.startTime < :startTime OR " +
+            "(s.startTime = :startTime AND s.id < :id))))";
+    String SUMMARY_ORDER_DESC = " ORDER BY s.date DESC, s.startTime DESC, s.id DESC";
+    
+    @Query(SUMMARY_SELECT + "WHERE " + SUMMARY_BEFORE_CURSOR + SUMMARY_ORDER_DESC)
+    List<ScheduleDTO> findSummariesBefore(@Param("date") LocalDate date,
+                                          @Param("startTime") LocalTime startTime,
+                                          @Param("id") Long id,
+                                          Pageable window);
+    
+    @Query(SUMMARY_SELECT + "WHERE st.id = :studentId AND " + SUMMARY_BEFORE_CURSOR + SUMMARY_ORDER_DESC)
+    List<ScheduleDTO> findSummariesByStudentIdBefore(@Param("studentId") Long studentId,
+                                                     @Param("date") LocalDate date,
+                                                     @Param("startTime") LocalTime startTime,
+                                                     @Param("id") Long id,
+                                                     Pageable window);
+    
+    // Equipamentos de vários agendamentos de uma vez: pares [id do agendamento, equipamento]
+    @Query("SELECT s.id, e FROM Schedule s JOIN s.equipment e WHERE s.id IN :ids")
+    List<Object[]> findEquipmentByScheduleIds(@Param("ids") Collection<Long> ids);
+    
+    // Alunos distintos não se somam entre dias: estas contagens não cabem na tabela de totais diários
+    @Query("SELECT s.instructor.id AS instructorId, COUNT(DISTINCT s.student.id) AS studentCount " +
+           "FROM Schedule s WHERE s.date BETWEEN :startDate AND :endDate GROUP BY s.instructor.id")
+    List<InstructorStudentCount> countStudentsByInstructorBetweenDates(@Param("startDate") LocalDate startDate,
+                                                                       @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT s.type AS type, COUNT(DISTINCT s.student.id) AS studentCount " +
+           "FROM Schedule s WHERE s.date BETWEEN :startDate AND :endDate GROUP BY s.type")
+    List<ClassTypeStudentCount> countStudentsByTypeBetweenDates(@Param("startDate") LocalDate startDate,
+                                                                @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT st.id AS studentId, st.name AS studentName, COUNT(s) AS totalScheduled, " +
+           "SUM(CASE WHEN s.status = 'CONCLUIDO' THEN 1 ELSE 0 END) AS totalCompleted, " +
+           "SUM(CASE WHEN s.status = 'CANCELADO' THEN 1 ELSE 0 END) AS totalCanceled, " +
+           "SUM(CASE WHEN s.status = 'FALTA' THEN 1 ELSE 0 END) AS totalNoShows " +
+           "FROM Schedule s JOIN s.student st WHERE s.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY st.id, st.name")
+    List<StudentAttendanceRow> sumAttendanceByStudentBetweenDates(@Param("startDate") LocalDate startDate,
+                                                                  @Param("endDate") LocalDate endDate);
+    
     @Query("SELECT COUNT(s) FROM Schedule s WHERE s.date = :date AND s.status = 'CONFIRMADO'")
     Long countConfirmedSchedulesForDate(@Param("date") LocalDate date);
     
@@ -58,4 +214,47 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
            "s.date BETWEEN :startDate AND :endDate")
     Double calculateRevenueBetweenDates(@Param("startDate") LocalDate startDate, 
                                        @Param("endDate") LocalDate endDate);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s.date AS date, s.instructor.id AS instructorId, s.type AS type, s.room AS room, " +
+           "s.status AS status, s.paymentStatus AS paymentStatus, s.price AS price, " +
+           "s.startTime AS startTime, s.endTime AS endTime " +
+           "FROM Schedule s WHERE s.date BETWEEN :startDate AND :endDate ORDER BY s.date")
+    Stream<ScheduleRollupSource> streamRollupSources(@Param("startDate") LocalDate startDate,
+                                                     @Param("endDate") LocalDate endDate);
+    
+    boolean existsByStatus(Schedule.ScheduleStatus status);
+    
+    @Query("SELECT s.student.id AS studentId, s.date AS date, s.startTime AS startTime FROM Schedule s " +
+           "WHERE s.student.id = :studentId AND s.status = 'CONCLUIDO' ORDER BY s.date DESC, s.startTime DESC")
+    List<LastClassView> findLastCompletedClass(@Param("studentId") Long studentId, Pageable pageable);
+    
+    // Última aula concluída de cada aluno, usada na reconstrução de lastClass
+    @Query("SELECT s.student.id AS studentId, s.date AS date, MAX(s.startTime) AS startTime FROM Schedule s " +
+           "WHERE s.status = 'CONCLUIDO' AND s.date = (SELECT MAX(l.date) FROM Schedule l " +
+           "WHERE l.student = s.student AND l.status = 'CONCLUIDO') " +
+           "GROUP BY s.student.id, s.date")
+    List<LastClassView> findLastCompletedClasses();
+    
+    @Query("SELECT MIN(s.date) FROM Schedule s")
+    LocalDate findFirstDate();
+    
+    @Query("SELECT MAX(s.date) FROM Schedule s")
+    LocalDate findLastDate();
+    
+    // Leitura completa, em fluxo, usada na reconstrução do índice de busca
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM Schedule s JOIN FETCH s.student JOIN FETCH s.instructor")
+    Stream<Schedule> streamAllForSearch();
+    
+    // Registros de um aluno ou instrutor, em fluxo, reindexados quando o nome dele muda
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM Schedule s JOIN FETCH s.student st JOIN FETCH s.instructor " +
+           "WHERE st.id = :studentId")
+    Stream<Schedule> streamForSearchByStudentId(@Param("studentId") Long studentId);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM Schedule s JOIN FETCH s.student JOIN FETCH s.instructor i " +
+           "WHERE i.id = :instructorId")
+    Stream<Schedule> streamForSearchByInstructorId(@Param("instructorId") Long instructorId);
 }
\ No newline at end of file
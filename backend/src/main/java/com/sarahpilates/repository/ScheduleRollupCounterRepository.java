@@ -0,0 +1,56 @@
+package com.sarahpilates.repository;
+
+import com.sarahpilates.entity.DailyScheduleRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * Soma diferenças às linhas de {@code daily_schedule_rollup} com um único
+ * comando por linha: insere a linha se ainda não existe ou soma os valores à
+ * existente. Duas transações que criam o primeiro agendamento da mesma chave
+ * não disputam a inserção: a segunda espera a primeira e soma sobre ela.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScheduleRollupCounterRepository {
+    
+    private static final String UPSERT = "INSERT INTO daily_schedule_rollup (date, instructor_id, type, room, " +
+            "scheduled_count, confirmed_count, completed_count, canceled_count, no_show_count, " +
+            "pending_count, paid_count, exempt_count, pending_amount, paid_amount, exempt_amount, total_minutes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "scheduled_count = scheduled_count + VALUES(scheduled_count), " +
+            "confirmed_count = confirmed_count + VALUES(confirmed_count), " +
+            "completed_count = completed_count + VALUES(completed_count), " +
+            "canceled_count = canceled_count + VALUES(canceled_count), " +
+            "no_show_count = no_show_count + VALUES(no_show_count), " +
+            "pending_count = pending_count + VALUES(pending_count), " +
+            "paid_count = paid_count + VALUES(paid_count), " +
+            "exempt_count = exempt_count + VALUES(exempt_count), " +
+            "pending_amount = pending_amount + VALUES(pending_amount), " +
+            "paid_amount = paid_amount + VALUES(paid_amount), " +
+            "exempt_amount = exempt_amount + VALUES(exempt_amount), " +
+            "total_minutes = total_minutes + VALUES(total_minutes)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Cada elemento traz a chave e as diferenças a somar. Quem chama deve
+     * passar as linhas sempre na mesma ordem, para que transações simultâneas
+     * não se bloqueiem mutuamente.
+     */
+    public void addAll(List<DailyScheduleRollup> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT, deltas.stream()
+                .map(delta -> new Object[] {
+                        Date.valueOf(delta.getDate()), delta.getInstructor().getId(), delta.getType(),
+                        delta.getRoom(), delta.getScheduledCount(), delta.getConfirmedCount(),
+                        delta.getCompletedCount(), delta.getCanceledCount(), delta.getNoShowCount(),
+                        delta.getPendingCount(), delta.getPaidCount(), delta.getExemptCount(),
+                        delta.getPendingAmount(), delta.getPaidAmount(), delta.getExemptAmount(),
+                        delta.getTotalMinutes()})
+                .toList());
+    }
+}
\ No newline at end of file
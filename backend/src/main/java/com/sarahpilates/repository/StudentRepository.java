@@ -1,15 +1,23 @@
 package com.sarahpilates.repository;
 
+import com.sarahpilates.dto.StudentDTO;
 import com.sarahpilates.entity.Student;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
@@ -32,9 +40,57 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
                                            @Param("search") String search, 
                                            Pageable pageable);
     
+    // Listagens: projeção direta em StudentDTO, sem as colunas TEXT
+    String SUMMARY_SELECT = "SELECT new com.sarahpilates.dto.StudentDTO(s.id, s.name, s.email, s.phone, " +
+            "s.birthDate, s.emergencyContact, s.emergencyPhone, s.plan, s.status, s.registrationDate, " +
+            "s.lastClass, s.totalClasses, s.createdAt, s.updatedAt) FROM Student s ";
+    
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(s) FROM Student s")
+    Page<StudentDTO> findSummaries(Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE s.id IN :ids")
+    List<StudentDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE " +
+                   "LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(s.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(s.phone) LIKE LOWER(CONCAT('%', :search, '%'))",
+           countQuery = "SELECT COUNT(s) FROM Student s WHERE " +
+                        "LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                        "LOWER(s.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                        "LOWER(s.phone) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Page<StudentDTO> findSummariesBySearchTerm(@Param("search") String search, Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE s.status = :status AND " +
+                   "(LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(s.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(s.phone) LIKE LOWER(CONCAT('%', :search, '%')))",
+           countQuery = "SELECT COUNT(s) FROM Student s WHERE s.status = :status AND " +
+                        "(LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                        "LOWER(s.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                        "LOWER(s.phone) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Page<StudentDTO> findSummariesByStatusAndSearchTerm(@Param("status") Student.StudentStatus status,
+                                                       @Param("search") String search,
+                                                       Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "WHERE s.status = :status ORDER BY s.name, s.id")
+    Stream<StudentDTO> streamSummariesByStatus(@Param("status") Student.StudentStatus status);
+    
     @Query("SELECT COUNT(s) FROM Student s WHERE s.status = 'ATIVO'")
     Long countActiveStudents();
     
     @Query("SELECT s.plan, COUNT(s) FROM Student s WHERE s.status = 'ATIVO' GROUP BY s.plan")
     List<Object[]> countStudentsByPlan();
+    
+    // Reconstrução: recontagem de todos os alunos; a última aula é preenchida depois
+    @Modifying
+    @Query("UPDATE Student s SET s.lastClass = NULL, s.totalClasses = (SELECT CAST(COUNT(sc) AS Integer) " +
+           "FROM Schedule sc WHERE sc.student.id = s.id AND sc.status = 'CONCLUIDO')")
+    int recountCompletedClasses();
+    
+    // Leitura completa, em fluxo, usada na reconstrução do índice de busca
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM Student s")
+    Stream<Student> streamAllForSearch();
 }
\ No newline at end of file
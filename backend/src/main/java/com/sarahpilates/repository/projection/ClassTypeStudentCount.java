@@ -0,0 +1,8 @@
+package com.sarahpilates.repository.projection;
+
+public interface ClassTypeStudentCount {
+    
+    String getType();
+    
+    Long getStudentCount();
+}
\ No newline at end of file
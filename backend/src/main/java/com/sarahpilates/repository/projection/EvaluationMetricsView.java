@@ -0,0 +1,23 @@
+package com.sarahpilates.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface EvaluationMetricsView {
+    
+    LocalDate getDate();
+    
+    BigDecimal getWeight();
+    
+    BigDecimal getBmi();
+    
+    BigDecimal getBodyFat();
+    
+    Integer getShoulderFlexion();
+    
+    Integer getSpinalFlexion();
+    
+    Integer getHipFlexion();
+    
+    Integer getAnkleFlexion();
+}
\ No newline at end of file
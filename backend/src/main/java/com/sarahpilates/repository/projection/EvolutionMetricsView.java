@@ -0,0 +1,24 @@
+package com.sarahpilates.repository.projection;
+
+import java.time.LocalDate;
+
+public interface EvolutionMetricsView {
+    
+    Long getId();
+    
+    LocalDate getDate();
+    
+    String getFocus();
+    
+    Integer getOverallRating();
+    
+    Integer getPainLevel();
+    
+    Integer getMobilityLevel();
+    
+    Integer getStrengthLevel();
+    
+    Integer getBalanceLevel();
+    
+    Integer getEnduranceLevel();
+}
\ No newline at end of file
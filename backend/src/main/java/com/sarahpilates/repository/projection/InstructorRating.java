@@ -0,0 +1,8 @@
+package com.sarahpilates.repository.projection;
+
+public interface InstructorRating {
+    
+    Long getInstructorId();
+    
+    Double getAverageRating();
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.sarahpilates.repository.projection;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public interface LastClassView {
+    
+    Long getStudentId();
+    
+    LocalDate getDate();
+    
+    LocalTime getStartTime();
+}
\ No newline at end of file
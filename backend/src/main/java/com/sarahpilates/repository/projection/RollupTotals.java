@@ -0,0 +1,30 @@
+package com.sarahpilates.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface RollupTotals {
+    
+    Long getScheduledCount();
+    
+    Long getConfirmedCount();
+    
+    Long getCompletedCount();
+    
+    Long getCanceledCount();
+    
+    Long getNoShowCount();
+    
+    Long getPendingCount();
+    
+    Long getPaidCount();
+    
+    Long getExemptCount();
+    
+    BigDecimal getPendingAmount();
+    
+    BigDecimal getPaidAmount();
+    
+    BigDecimal getExemptAmount();
+    
+    Long getTotalMinutes();
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.sarahpilates.repository.projection;
+
+import java.time.LocalDate;
+
+public interface ScheduleRollupRow extends RollupTotals {
+    
+    LocalDate getDate();
+    
+    Long getInstructorId();
+    
+    String getInstructorName();
+    
+    String getType();
+}
\ No newline at end of file
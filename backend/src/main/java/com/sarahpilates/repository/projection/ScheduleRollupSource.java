@@ -0,0 +1,28 @@
+package com.sarahpilates.repository.projection;
+
+import com.sarahpilates.entity.Schedule;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public interface ScheduleRollupSource {
+    
+    LocalDate getDate();
+    
+    Long getInstructorId();
+    
+    String getType();
+    
+    String getRoom();
+    
+    Schedule.ScheduleStatus getStatus();
+    
+    Schedule.PaymentStatus getPaymentStatus();
+    
+    BigDecimal getPrice();
+    
+    LocalTime getStartTime();
+    
+    LocalTime getEndTime();
+}
\ No newline at end of file
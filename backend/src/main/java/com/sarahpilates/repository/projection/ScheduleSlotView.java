@@ -0,0 +1,17 @@
+package com.sarahpilates.repository.projection;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public interface ScheduleSlotView {
+    
+    Long getId();
+    
+    Long getInstructorId();
+    
+    LocalDate getDate();
+    
+    LocalTime getStartTime();
+    
+    LocalTime getEndTime();
+}
\ No newline at end of file
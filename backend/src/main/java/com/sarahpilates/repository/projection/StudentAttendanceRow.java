@@ -0,0 +1,16 @@
+package com.sarahpilates.repository.projection;
+
+public interface StudentAttendanceRow {
+    
+    Long getStudentId();
+    
+    String getStudentName();
+    
+    Long getTotalScheduled();
+    
+    Long getTotalCompleted();
+    
+    Long getTotalCanceled();
+    
+    Long getTotalNoShows();
+}
\ No newline at end of file
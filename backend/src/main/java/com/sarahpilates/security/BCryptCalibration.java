@@ -0,0 +1,38 @@
+package com.sarahpilates.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Escolhe o custo do BCrypt pela latência desejada nesta máquina: mede o custo
+ * padrão e, como cada ponto de custo dobra o tempo, sobe enquanto a estimativa
+ * couber no alvo. Nunca fica abaixo do padrão do Spring Security.
+ */
+@Slf4j
+final class BCryptCalibration {
+    
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+    
+    private BCryptCalibration() {
+    }
+    
+    static int strengthFor(Duration targetLatency) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        // A primeira execução inclui o aquecimento da JVM
+        encoder.encode("calibracao");
+        long start = System.nanoTime();
+        encoder.encode("calibracao");
+        long baseNanos = System.nanoTime() - start;
+        
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && baseNanos << (strength + 1 - MIN_STRENGTH) <= targetLatency.toNanos()) {
+            strength++;
+        }
+        log.info("Custo do BCrypt calibrado em {} (custo {} em {} ms, alvo {} ms)", strength, MIN_STRENGTH,
+                baseNanos / 1_000_000, targetLatency.toMillis());
+        return strength;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.sarahpilates.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt que pede para refazer toda senha gravada com custo diferente do
+ * configurado, e não só as de custo menor: baixar o custo, ou uma calibração
+ * que chegue a um custo menor, também alcança as senhas já gravadas.
+ */
+final class ExactCostBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    
+    private final int strength;
+    
+    ExactCostBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // A classe base valida o formato ($2a$NN$...) e trata o custo menor
+        if (super.upgradeEncoding(encodedPassword)) {
+            return true;
+        }
+        return encodedPassword != null && !encodedPassword.isEmpty()
+                && Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.sarahpilates.security;
+
+import com.sarahpilates.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Usuário autenticado por token, montado só com as claims do JWT. Para os
+ * dados completos do usuário, buscar por {@link #userId()}.
+ */
+public record JwtPrincipal(Long userId, String email, User.UserRole role) implements Principal {
+    
+    @Override
+    public String getName() {
+        return email;
+    }
+    
+    // Mesmo formato de User.getAuthorities()
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
\ No newline at end of file
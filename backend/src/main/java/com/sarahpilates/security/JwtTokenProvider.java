@@ -1,33 +1,59 @@
 package com.sarahpilates.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sarahpilates.dto.TokenCacheStatistics;
 import com.sarahpilates.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 @Slf4j
 public class JwtTokenProvider {
     
-    @Value("${spring.security.jwt.secret}")
-    private String jwtSecret;
+    private final Long jwtExpirationInMs;
     
-    @Value("${spring.security.jwt.expiration}")
-    private Long jwtExpirationInMs;
+    // Chave e parser são imutáveis e seguros entre threads: criados uma única vez
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // Tokens já verificados: o mesmo token volta a cada requisição da sessão
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    
+    public JwtTokenProvider(@Value("${spring.security.jwt.secret}") String jwtSecret,
+                            @Value("${spring.security.jwt.expiration}") Long jwtExpirationInMs,
+                            @Value("${sarah-pilates.security.token-cache.max-size:10000}") long tokenCacheSize) {
+        this.jwtExpirationInMs = jwtExpirationInMs;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
     }
     
     public String generateToken(User user) {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
         
+        // O algoritmo HMAC mais forte que o tamanho da chave permite: com HS512
+        // fixo, segredos menores que 64 bytes eram recusados ao assinar
         return Jwts.builder()
                 .setSubject(user.getEmail())
                 .claim("userId", user.getId())
@@ -35,7 +61,7 @@ public class JwtTokenProvider {
                 .claim("role", user.getRole().name())
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey)
                 .compact();
     }
     
@@ -44,33 +70,69 @@ public class JwtTokenProvider {
         return generateToken(user);
     }
     
+    /**
+     * Verifica o token e monta o usuário a partir das próprias claims, com uma
+     * única leitura do token e sem consulta ao banco. Vazio se o token for
+     * inválido, expirado ou não tiver as claims esperadas.
+     *
+     * Tokens válidos ficam em cache até expirarem, pelo texto completo do token
+     * (e não só pela assinatura, para que outro conteúdo com a mesma assinatura
+     * não seja aceito): as requisições seguintes não repetem o HMAC nem a
+     * leitura das claims. Tokens inválidos não entram no cache.
+     */
+    public Optional<JwtPrincipal> parseToken(String token) {
+        return Optional.ofNullable(verifiedTokens.get(token, this::verify))
+                .map(VerifiedToken::principal);
+    }
+    
+    // Tokens do usuário alterado voltam a ser verificados na próxima requisição
+    public void evictUser(Long userId) {
+        verifiedTokens.asMap().values().removeIf(verified -> verified.principal().userId().equals(userId));
+    }
+    
+    public TokenCacheStatistics getTokenCacheStatistics() {
+        CacheStats stats = verifiedTokens.stats();
+        long verifications = stats.loadCount();
+        return new TokenCacheStatistics(stats.hitCount(), stats.missCount(), stats.hitRate(),
+                verifiedTokens.estimatedSize(),
+                verifications == 0 ? 0.0 : stats.totalLoadTime() / 1_000.0 / verifications);
+    }
+    
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
     }
     
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.get("userId", Long.class);
+        return jwtParser.parseClaimsJws(token).getBody().get("userId", Long.class);
     }
     
     public boolean validateToken(String token) {
+        return parseClaims(token).isPresent();
+    }
+    
+    private VerifiedToken verify(String token) {
+        Claims claims = parseClaims(token).orElse(null);
+        if (claims == null) {
+            return null;
+        }
+        Long userId = claims.get("userId", Long.class);
+        String role = claims.get("role", String.class);
+        if (userId == null || role == null || claims.getSubject() == null || claims.getExpiration() == null) {
+            log.error("JWT token without user claims");
+            return null;
+        }
+        try {
+            return new VerifiedToken(new JwtPrincipal(userId, claims.getSubject(), User.UserRole.valueOf(role)),
+                    claims.getExpiration().toInstant());
+        } catch (IllegalArgumentException ex) {
+            log.error("JWT token with unknown role {}", role);
+            return null;
+        }
+    }
+    
+    private Optional<Claims> parseClaims(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return true;
+            return Optional.of(jwtParser.parseClaimsJws(token).getBody());
         } catch (SecurityException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -82,10 +144,34 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return Optional.empty();
     }
     
     public Long getExpirationTime() {
         return jwtExpirationInMs;
     }
+    
+    private record VerifiedToken(JwtPrincipal principal, Instant expiresAt) {
+    }
+    
+    // Cada token sai do cache quando expira
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+        
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), verified.expiresAt()).toNanos());
+        }
+        
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime,
+                                      long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verified, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.sarahpilates.security;
+
+import com.sarahpilates.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Executa a verificação de senha (BCrypt) fora das threads do Tomcat, em um
+ * pool próprio com fila limitada. Com o pool e a fila cheios, por exemplo em
+ * um pico de logins ou em um ataque de força bruta, a tentativa é recusada na
+ * hora com 429 e as demais requisições da API continuam sendo atendidas.
+ */
+@Component
+@Slf4j
+public class LoginExecutor {
+    
+    private final ThreadPoolExecutor executor;
+    
+    public LoginExecutor(@Value("${sarah-pilates.security.login.threads:0}") int threads,
+                         @Value("${sarah-pilates.security.login.queue-size:100}") int queueSize) {
+        // BCrypt só usa CPU: por padrão, uma thread por processador
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicLong count = new AtomicLong();
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Login recusado: {} verificações em andamento e {} na fila",
+                    executor.getActiveCount(), executor.getQueue().size());
+            throw new TooManyRequestsException("Muitas tentativas de login simultâneas. Tente novamente em instantes");
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.sarahpilates.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sarahpilates.entity.User;
+import com.sarahpilates.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Situação atual de cada usuário (ativo e perfil), consultada a cada
+ * requisição autenticada por token. Fica em memória, com tamanho limitado, e
+ * é removida quando o usuário é alterado ou excluído: um token de usuário
+ * desativado, excluído ou com outro perfil deixa de valer na hora. A expiração
+ * cobre alterações feitas fora da aplicação.
+ */
+@Component
+public class UserStatusCache {
+    
+    private static final UserStatus REMOVED = new UserStatus(false, null);
+    
+    private final UserRepository userRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final Cache<Long, UserStatus> statuses;
+    
+    public UserStatusCache(UserRepository userRepository, JwtTokenProvider jwtTokenProvider,
+                           @Value("${sarah-pilates.security.user-status.max-size:10000}") long maxSize,
+                           @Value("${sarah-pilates.security.user-status.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+    
+    /**
+     * Se o token ainda vale: o usuário existe, está ativo e tem o mesmo perfil
+     * gravado no token.
+     */
+    public boolean isValid(JwtPrincipal principal) {
+        UserStatus status = statuses.get(principal.userId(), this::load);
+        return status.active() && status.role() == principal.role();
+    }
+    
+    // Remove agora e de novo após o commit, como no cache de segundo nível
+    public void invalidateAfterCommit(Long userId) {
+        statuses.invalidate(userId);
+        jwtTokenProvider.evictUser(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    statuses.invalidate(userId);
+                    jwtTokenProvider.evictUser(userId);
+                }
+            });
+        }
+    }
+    
+    private UserStatus load(Long userId) {
+        return userRepository.findById(userId)
+                .map(user -> new UserStatus(Boolean.TRUE.equals(user.getActive()), user.getRole()))
+                .orElse(REMOVED);
+    }
+    
+    private record UserStatus(boolean active, User.UserRole role) {
+    }
+}
\ No newline at end of file
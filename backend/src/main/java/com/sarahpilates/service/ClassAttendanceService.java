@@ -0,0 +1,191 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.entity.InstructorStudent;
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.entity.Student;
+import com.sarahpilates.repository.ClassCounterRepository;
+import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.InstructorStudentRepository;
+import com.sarahpilates.repository.ScheduleRepository;
+import com.sarahpilates.repository.StudentRepository;
+import com.sarahpilates.repository.projection.LastClassView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Mantém os campos derivados das aulas concluídas: {@code totalClasses} e
+ * {@code lastClass} dos alunos, {@code totalClasses} e {@code totalStudents}
+ * dos instrutores e a tabela {@code instructor_students}. Cada alteração de
+ * agendamento aplica só a diferença entre o estado anterior e o novo, com
+ * UPDATEs diretos no banco, na mesma transação, e remove do cache de segundo
+ * nível só os alunos e instrutores alterados.
+ *
+ * As linhas são atualizadas sempre na mesma ordem (alunos, instrutores e pares,
+ * cada grupo por id), para que transações simultâneas não se bloqueiem
+ * mutuamente.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class ClassAttendanceService {
+    
+    private static final Comparator<Pair> PAIR_ORDER =
+            Comparator.comparing(Pair::instructorId).thenComparing(Pair::studentId);
+    
+    private final StudentRepository studentRepository;
+    private final InstructorRepository instructorRepository;
+    private final InstructorStudentRepository instructorStudentRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final ClassCounterRepository classCounterRepository;
+    private final EntityCacheService entityCacheService;
+    
+    // Os campos nunca foram mantidos antes desta tabela: preenche na primeira inicialização
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (instructorStudentRepository.count() == 0
+                && scheduleRepository.existsByStatus(Schedule.ScheduleStatus.CONCLUIDO)) {
+            rebuild();
+        }
+    }
+    
+    /**
+     * Substitui a contribuição {@code previous} por {@code current}. Qualquer um
+     * dos dois pode ser nulo, para agendamentos criados ou excluídos.
+     */
+    public void apply(Attendance previous, Attendance current) {
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        applyAll(previous != null ? List.of(previous) : List.of(),
+                current != null ? List.of(current) : List.of());
+    }
+    
+    /**
+     * Versão em lote de {@link #apply}: as diferenças são somadas por aluno,
+     * instrutor e par antes de ir ao banco, com um UPDATE por linha afetada.
+     */
+    public void applyAll(Collection<Attendance> removed, Collection<Attendance> added) {
+        Map<Long, Integer> studentClasses = new TreeMap<>();
+        Map<Long, Integer> instructorClasses = new TreeMap<>();
+        Map<Pair, Integer> pairClasses = new TreeMap<>(PAIR_ORDER);
+        Map<Long, LocalDateTime> lastClasses = new HashMap<>();
+        Set<Long> recountLastClass = new HashSet<>();
+        
+        for (Attendance attendance : removed) {
+            if (attendance.completed()) {
+                count(attendance, -1, studentClasses, instructorClasses, pairClasses);
+                recountLastClass.add(attendance.studentId());
+            }
+        }
+        for (Attendance attendance : added) {
+            if (attendance.completed()) {
+                count(attendance, 1, studentClasses, instructorClasses, pairClasses);
+                lastClasses.merge(attendance.studentId(), attendance.at(),
+                        (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }
+        
+        studentClasses.forEach((studentId, delta) -> {
+            if (delta != 0) {
+                classCounterRepository.addStudentClasses(studentId, delta);
+            }
+            if (recountLastClass.contains(studentId)) {
+                // A aula desfeita pode ter sido a última: busca a mais recente que restou
+                classCounterRepository.updateLastClass(studentId, findLastClass(studentId));
+            } else if (lastClasses.containsKey(studentId)) {
+                classCounterRepository.advanceLastClass(studentId, lastClasses.get(studentId));
+            }
+        });
+        
+        // Mesmo com soma zero: o UPDATE bloqueia a linha do instrutor até o fim da
+        // transação e, com isso, a inclusão de pares abaixo não corre em paralelo
+        instructorClasses.forEach(classCounterRepository::addInstructorClasses);
+        
+        pairClasses.forEach((pair, delta) -> {
+            if (delta > 0 && instructorStudentRepository.addCompletedClasses(
+                    pair.instructorId(), pair.studentId(), delta) == 0) {
+                instructorStudentRepository.save(
+                        new InstructorStudent(null, pair.instructorId(), pair.studentId(), (long) delta));
+                classCounterRepository.addInstructorStudents(pair.instructorId(), 1);
+            } else if (delta < 0) {
+                instructorStudentRepository.addCompletedClasses(pair.instructorId(), pair.studentId(), delta);
+                if (instructorStudentRepository.deleteIfEmpty(pair.instructorId(), pair.studentId()) > 0) {
+                    classCounterRepository.addInstructorStudents(pair.instructorId(), -1);
+                }
+            }
+        });
+        
+        entityCacheService.evictAfterCommit(Student.class, studentClasses.keySet());
+        entityCacheService.evictAfterCommit(Instructor.class, instructorClasses.keySet());
+    }
+    
+    /**
+     * Recalcula todos os campos a partir dos agendamentos, em poucas instruções
+     * para a base inteira: recontagem dos pares, dos instrutores e dos alunos,
+     * e uma consulta com a última aula concluída de cada aluno.
+     */
+    public int rebuild() {
+        instructorStudentRepository.deleteAllInBatch();
+        int pairs = instructorStudentRepository.insertFromSchedules();
+        instructorRepository.recountFromInstructorStudents();
+        studentRepository.recountCompletedClasses();
+        List<LastClassView> lastClasses = scheduleRepository.findLastCompletedClasses();
+        classCounterRepository.updateLastClasses(lastClasses.stream()
+                .map(lastClass -> new Object[] {
+                        Timestamp.valueOf(LocalDateTime.of(lastClass.getDate(), lastClass.getStartTime())),
+                        lastClass.getStudentId()})
+                .toList());
+        log.info("Contadores de aulas reconstruídos: {} pares instrutor-aluno, {} alunos com aulas concluídas",
+                pairs, lastClasses.size());
+        return pairs;
+    }
+    
+    private LocalDateTime findLastClass(Long studentId) {
+        return scheduleRepository.findLastCompletedClass(studentId, PageRequest.of(0, 1)).stream()
+                .map(view -> LocalDateTime.of(view.getDate(), view.getStartTime()))
+                .findFirst()
+                .orElse(null);
+    }
+    
+    private static void count(Attendance attendance, int sign, Map<Long, Integer> studentClasses,
+                              Map<Long, Integer> instructorClasses, Map<Pair, Integer> pairClasses) {
+        studentClasses.merge(attendance.studentId(), sign, Integer::sum);
+        instructorClasses.merge(attendance.instructorId(), sign, Integer::sum);
+        pairClasses.merge(new Pair(attendance.instructorId(), attendance.studentId()), sign, Integer::sum);
+    }
+    
+    /**
+     * Campos do agendamento que contribuem para os contadores. Deve ser
+     * capturado antes de alterar o agendamento.
+     */
+    public record Attendance(Long studentId, Long instructorId, LocalDateTime at, boolean completed) {
+        
+        public static Attendance of(Schedule schedule) {
+            return new Attendance(schedule.getStudent().getId(), schedule.getInstructor().getId(),
+                    LocalDateTime.of(schedule.getDate(), schedule.getStartTime()),
+                    schedule.getStatus() == Schedule.ScheduleStatus.CONCLUIDO);
+        }
+    }
+    
+    private record Pair(Long instructorId, Long studentId) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,248 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.dto.DashboardStats;
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.event.DashboardUpdatedEvent;
+import com.sarahpilates.event.InstructorChangedEvent;
+import com.sarahpilates.event.ScheduleChangedEvent;
+import com.sarahpilates.event.StudentChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantém um retrato pré-calculado das estatísticas do dashboard. As escritas
+ * de alunos, instrutores e agendamentos publicam eventos que marcam apenas os
+ * contadores afetados; uma única thread recalcula esses contadores em segundo
+ * plano e publica um novo retrato imutável, com versão e horário de geração.
+ * Leitores nunca consultam o banco, exceto na virada do dia.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+    
+    private static final int STUDENTS = 1;
+    private static final int INSTRUCTORS = 1 << 1;
+    private static final int TODAY = 1 << 2;
+    private static final int MONTH = 1 << 3;
+    private static final int UPCOMING = 1 << 4;
+    private static final int ALL = STUDENTS | INSTRUCTORS | TODAY | MONTH | UPCOMING;
+    
+    private final StudentService studentService;
+    private final InstructorService instructorService;
+    private final ScheduleService scheduleService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final AtomicInteger dirty = new AtomicInteger();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    
+    private volatile Snapshot snapshot;
+    
+    public DashboardService(StudentService studentService,
+                            InstructorService instructorService,
+                            ScheduleService scheduleService,
+                            PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher) {
+        this.studentService = studentService;
+        this.instructorService = instructorService;
+        this.scheduleService = scheduleService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.eventPublisher = eventPublisher;
+    }
+    
+    public DashboardStats getStats() {
+        Snapshot current = snapshot;
+        if (current == null || !current.date().equals(LocalDate.now())) {
+            current = refreshIfStale();
+        }
+        return current.toStats();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        requestRefresh(ALL);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        LocalDate today = LocalDate.now();
+        int parts = 0;
+        if (event.affects(today)) {
+            parts |= TODAY;
+        }
+        if (event.affectsBetween(today.withDayOfMonth(1), today.withDayOfMonth(today.lengthOfMonth()))) {
+            parts |= MONTH;
+        }
+        if (event.affects(today.plusDays(1))) {
+            parts |= UPCOMING;
+        }
+        requestRefresh(parts);
+    }
+    
+    // Nomes de alunos e instrutores também aparecem nas listas de agendamentos
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        requestRefresh(STUDENTS | TODAY | UPCOMING);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInstructorChanged(InstructorChangedEvent event) {
+        requestRefresh(INSTRUCTORS | TODAY | UPCOMING);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+    
+    private void requestRefresh(int parts) {
+        if (parts == 0) {
+            return;
+        }
+        dirty.getAndUpdate(current -> current | parts);
+        // Eventos recebidos enquanto há uma atualização pendente são agrupados nela
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refresher.execute(this::drain);
+        }
+    }
+    
+    private void drain() {
+        refreshScheduled.set(false);
+        int parts = dirty.getAndSet(0);
+        if (parts == 0) {
+            return;
+        }
+        try {
+            refresh(parts);
+        } catch (RuntimeException e) {
+            // Mantém o retrato anterior; os contadores serão recalculados no próximo evento
+            dirty.getAndUpdate(current -> current | parts);
+            log.error("Falha ao atualizar estatísticas do dashboard", e);
+        }
+    }
+    
+    // Lock em vez de synchronized: a consulta ao banco dentro de um bloco
+    // synchronized prenderia a thread virtual à thread do sistema
+    private Snapshot refresh(int parts) {
+        refreshLock.lock();
+        try {
+            return doRefresh(parts);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    // Na virada do dia várias requisições encontram o retrato antigo; só a
+    // primeira a obter o lock recalcula, as demais usam o resultado dela
+    private Snapshot refreshIfStale() {
+        refreshLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current != null && current.date().equals(LocalDate.now())) {
+                return current;
+            }
+            return doRefresh(ALL);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    private Snapshot doRefresh(int parts) {
+        LocalDate today = LocalDate.now();
+        Snapshot current = snapshot;
+        // Na virada do dia (ou na primeira carga) todos os contadores mudam de referência
+        int effectiveParts = current == null || !current.date().equals(today) ? ALL : parts;
+        
+        Snapshot updated = readOnlyTransaction.execute(status -> {
+            LocalDate startOfMonth = today.withDayOfMonth(1);
+            LocalDate endOfMonth = today.withDayOfMonth(today.lengthOfMonth());
+            
+            return new Snapshot(
+                    current == null ? 1 : current.version() + 1,
+                    LocalDateTime.now(),
+                    today,
+                    has(effectiveParts, STUDENTS)
+                            ? studentService.countActiveStudents() : current.totalStudents(),
+                    has(effectiveParts, INSTRUCTORS)
+                            ? instructorService.countActiveInstructors() : current.totalInstructors(),
+                    has(effectiveParts, TODAY)
+                            ? scheduleService.countConfirmedSchedulesForDate(today) : current.todaySchedules(),
+                    has(effectiveParts, MONTH)
+                            ? scheduleService.calculateRevenueBetweenDates(startOfMonth, endOfMonth)
+                            : current.monthlyRevenue(),
+                    has(effectiveParts, MONTH)
+                            ? scheduleService.countCompletedClassesBetweenDates(startOfMonth, endOfMonth)
+                            : current.completedClasses(),
+                    has(effectiveParts, TODAY)
+                            ? detached(scheduleService.getTodaySchedules()) : current.todaySchedulesList(),
+                    has(effectiveParts, UPCOMING)
+                            ? detached(scheduleService.getUpcomingSchedules()) : current.upcomingSchedules());
+        });
+        snapshot = updated;
+        
+        DashboardStats counters = updated.toStats();
+        counters.setTodaySchedulesList(null);
+        counters.setUpcomingSchedules(null);
+        eventPublisher.publishEvent(new DashboardUpdatedEvent(counters));
+        return updated;
+    }
+    
+    private static boolean has(int parts, int part) {
+        return (parts & part) != 0;
+    }
+    
+    // As listas são servidas fora da sessão, então as associações lazy são carregadas aqui
+    private List<Schedule> detached(List<Schedule> schedules) {
+        for (Schedule schedule : schedules) {
+            Hibernate.initialize(schedule.getStudent());
+            Hibernate.initialize(schedule.getInstructor());
+            Hibernate.initialize(schedule.getInstructor().getSpecializations());
+            Hibernate.initialize(schedule.getEquipment());
+        }
+        return List.copyOf(schedules);
+    }
+    
+    private record Snapshot(long version, LocalDateTime generatedAt, LocalDate date,
+                            Long totalStudents, Long totalInstructors, Long todaySchedules,
+                            Double monthlyRevenue, Long completedClasses,
+                            List<Schedule> todaySchedulesList, List<Schedule> upcomingSchedules) {
+        
+        DashboardStats toStats() {
+            DashboardStats stats = new DashboardStats();
+            stats.setSnapshotVersion(version);
+            stats.setGeneratedAt(generatedAt);
+            stats.setTotalStudents(totalStudents);
+            stats.setTotalInstructors(totalInstructors);
+            stats.setTodaySchedules(todaySchedules);
+            stats.setMonthlyRevenue(monthlyRevenue);
+            stats.setCompletedClasses(completedClasses);
+            stats.setTodaySchedulesList(todaySchedulesList);
+            stats.setUpcomingSchedules(upcomingSchedules);
+            return stats;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.dto.CacheRegionStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Remoção explícita e estatísticas do cache de segundo nível (alunos,
+ * instrutores e usuários). Alterações feitas pelo Hibernate já atualizam o
+ * cache sozinhas; esta classe cobre as feitas com SQL direto, que o Hibernate
+ * não enxerga.
+ */
+@Service
+@RequiredArgsConstructor
+public class EntityCacheService {
+    
+    private final EntityManagerFactory entityManagerFactory;
+    
+    /**
+     * Remove os registros do cache agora e de novo após o commit: uma leitura
+     * concorrente entre os dois momentos ainda veria o valor anterior no banco e
+     * o colocaria de volta.
+     */
+    public void evictAfterCommit(Class<?> entityType, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<?> evicted = List.copyOf(ids);
+        evict(entityType, evicted);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(entityType, evicted);
+                }
+            });
+        }
+    }
+    
+    public void evictAll(Class<?> entityType) {
+        entityManagerFactory.getCache().evict(entityType);
+    }
+    
+    public List<CacheRegionStatistics> statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    org.hibernate.stat.CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+                    long hits = stats.getHitCount();
+                    long misses = stats.getMissCount();
+                    return new CacheRegionStatistics(region, hits, misses, stats.getPutCount(),
+                            hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+                })
+                .toList();
+    }
+    
+    private void evict(Class<?> entityType, List<?> ids) {
+        ids.forEach(id -> entityManagerFactory.getCache().evict(entityType, id));
+    }
+}
\ No newline at end of file
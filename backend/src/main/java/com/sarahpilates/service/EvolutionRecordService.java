@@ -1,13 +1,19 @@
 package com.sarahpilates.service;
 
+import com.sarahpilates.dto.CursorPage;
 import com.sarahpilates.entity.EvolutionRecord;
 import com.sarahpilates.entity.Student;
 import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.event.EvolutionRecordChangedEvent;
 import com.sarahpilates.repository.EvolutionRecordRepository;
 import com.sarahpilates.repository.StudentRepository;
 import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +30,8 @@ public class EvolutionRecordService {
     private final EvolutionRecordRepository evolutionRecordRepository;
     private final StudentRepository studentRepository;
     private final InstructorRepository instructorRepository;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<EvolutionRecord> findAll() {
         return evolutionRecordRepository.findAll();
@@ -53,7 +61,34 @@ public class EvolutionRecordService {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return evolutionRecordRepository.findAll(pageable);
         }
-        return evolutionRecordRepository.findBySearchTerm(searchTerm.trim(), pageable);
+        return searchIndexService.search(SearchIndex.Kind.EVOLUTION_RECORD, null, searchTerm, pageable,
+                        evolutionRecordRepository::findAllById, EvolutionRecord::getId)
+                .orElseGet(() -> evolutionRecordRepository.findBySearchTerm(searchTerm.trim(), pageable));
+    }
+    
+    /**
+     * Página por cursor, das fichas mais recentes para as mais antigas,
+     * opcionalmente só de um aluno. O cursor guarda (data, sessão, id) da
+     * última ficha entregue.
+     */
+    public CursorPage<EvolutionRecord> findByCursor(Long studentId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor, 3);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Uma linha a mais só para saber se há próxima página
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<EvolutionRecord> rows = studentId == null
+                ? evolutionRecordRepository.findBefore(after.date(0), after.integer(1), after.id(2), window)
+                : evolutionRecordRepository.findByStudentIdBefore(studentId, after.date(0), after.integer(1),
+                        after.id(2), window);
+        CursorPage<EvolutionRecord> page = CursorPage.of(rows, pageSize,
+                last -> KeysetCursor.encode(last.getDate(), last.getSession(), last.getId()));
+        // Coleções carregadas em lote ainda dentro da transação, antes da serialização
+        page.getContent().forEach(record -> {
+            Hibernate.initialize(record.getExercisesPerformed());
+            Hibernate.initialize(record.getEquipment());
+            Hibernate.initialize(record.getInstructor().getSpecializations());
+        });
+        return page;
     }
     
     public EvolutionRecord save(EvolutionRecord record) {
@@ -74,7 +109,10 @@ public class EvolutionRecordService {
             record.setSession(maxSession != null ? maxSession + 1 : 1);
         }
         
-        return evolutionRecordRepository.save(record);
+        EvolutionRecord saved = evolutionRecordRepository.save(record);
+        eventPublisher.publishEvent(new EvolutionRecordChangedEvent(saved.getId(), null, student.getId(),
+                null, saved.getDate()));
+        return saved;
     }
     
     public EvolutionRecord update(Long id, EvolutionRecord recordDetails) {
@@ -89,6 +127,9 @@ public class EvolutionRecordService {
         Instructor instructor = instructorRepository.findById(recordDetails.getInstructor().getId())
                 .orElseThrow(() -> new RuntimeException("Instrutor não encontrado"));
         
+        Long previousStudentId = record.getStudent().getId();
+        LocalDate previousDate = record.getDate();
+        
         // Atualizar campos
         record.setStudent(student);
         record.setInstructor(instructor);
@@ -110,14 +151,18 @@ public class EvolutionRecordService {
         record.setEquipment(recordDetails.getEquipment());
         record.setDuration(recordDetails.getDuration());
         
-        return evolutionRecordRepository.save(record);
+        EvolutionRecord saved = evolutionRecordRepository.save(record);
+        eventPublisher.publishEvent(new EvolutionRecordChangedEvent(saved.getId(), previousStudentId, student.getId(),
+                previousDate, saved.getDate()));
+        return saved;
     }
     
     public void deleteById(Long id) {
-        if (!evolutionRecordRepository.existsById(id)) {
-            throw new RuntimeException("Ficha de evolução não encontrada");
-        }
-        evolutionRecordRepository.deleteById(id);
+        EvolutionRecord record = evolutionRecordRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Ficha de evolução não encontrada"));
+        evolutionRecordRepository.delete(record);
+        eventPublisher.publishEvent(new EvolutionRecordChangedEvent(id, record.getStudent().getId(), null,
+                record.getDate(), null));
     }
     
     public List<EvolutionRecord> getStudentEvolutionHistory(Long studentId) {
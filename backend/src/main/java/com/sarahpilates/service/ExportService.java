@@ -0,0 +1,108 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.repository.ExportRepository;
+import com.sarahpilates.util.TableWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Exportação do histórico completo por período (agendamentos, fichas de
+ * evolução e avaliações físicas) em planilha. As linhas vão do cursor do
+ * banco direto para o escritor da resposta, então a memória usada não depende
+ * do tamanho do período e o download começa logo.
+ *
+ * Se o cliente desiste do download, a próxima escrita falha e a leitura do
+ * banco é encerrada junto com o cursor.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Slf4j
+public class ExportService {
+    
+    private static final List<String> SCHEDULE_HEADER = List.of("Id", "Data", "Início", "Fim", "Aluno", "Instrutor",
+            "Tipo", "Status", "Sala", "Valor", "Pagamento", "Observações", "Equipamentos");
+    private static final String SCHEDULE_SQL = "SELECT s.id, s.date, s.start_time, s.end_time, st.name, i.name, " +
+            "s.type, s.status, s.room, s.price, s.payment_status, s.notes " +
+            "FROM schedules s JOIN students st ON st.id = s.student_id JOIN instructors i ON i.id = s.instructor_id " +
+            "WHERE s.date BETWEEN ? AND ? ORDER BY s.date, s.start_time, s.id";
+    private static final String SCHEDULE_EQUIPMENT_SQL = "SELECT schedule_id, equipment FROM schedule_equipment " +
+            "WHERE schedule_id IN (:ids)";
+    
+    private static final List<String> EVOLUTION_HEADER = List.of("Id", "Data", "Sessão", "Aluno", "Instrutor",
+            "Foco", "Avaliação geral", "Dor", "Mobilidade", "Força", "Equilíbrio", "Resistência", "Progresso",
+            "Dificuldades", "Melhorias", "Objetivos da próxima sessão", "Observações", "Exercícios");
+    private static final String EVOLUTION_SQL = "SELECT e.id, e.date, e.session, st.name, i.name, e.focus, " +
+            "e.overall_rating, e.pain_level, e.mobility_level, e.strength_level, e.balance_level, " +
+            "e.endurance_level, e.progress_notes, e.difficulties_observed, e.improvements, " +
+            "e.next_session_goals, e.observations " +
+            "FROM evolution_records e JOIN students st ON st.id = e.student_id " +
+            "JOIN instructors i ON i.id = e.instructor_id " +
+            "WHERE e.date BETWEEN ? AND ? ORDER BY e.date, e.session, e.id";
+    private static final String EVOLUTION_EXERCISES_SQL = "SELECT evolution_id, exercise FROM evolution_exercises " +
+            "WHERE evolution_id IN (:ids)";
+    
+    private static final List<String> EVALUATION_HEADER = List.of("Id", "Data", "Aluno", "Instrutor", "Tipo",
+            "Peso", "Altura", "IMC", "Pressão arterial", "Frequência cardíaca", "Gordura corporal",
+            "Massa muscular", "Tórax", "Cintura", "Quadril", "Coxa", "Braço", "Flexão de ombro",
+            "Flexão de coluna", "Flexão de quadril", "Flexão de tornozelo", "Força do core",
+            "Força de membros superiores", "Força de membros inferiores", "Força de preensão",
+            "Equilíbrio estático", "Equilíbrio dinâmico", "Propriocepção", "Cabeça", "Ombros", "Coluna", "Pelve",
+            "Joelhos", "Pés", "Observações médicas", "Objetivos", "Plano de tratamento", "Recomendações",
+            "Próxima avaliação");
+    private static final String EVALUATION_SQL = "SELECT p.id, p.date, st.name, i.name, p.type, p.weight, " +
+            "p.height, p.bmi, p.blood_pressure, p.heart_rate, p.body_fat, p.muscle_mass, p.chest_measurement, " +
+            "p.waist_measurement, p.hip_measurement, p.thigh_measurement, p.arm_measurement, " +
+            "p.shoulder_flexion, p.spinal_flexion, p.hip_flexion, p.ankle_flexion, p.core_strength, " +
+            "p.upper_body_strength, p.lower_body_strength, p.grip_strength, p.static_balance, " +
+            "p.dynamic_balance, p.proprioception, p.head_posture, p.shoulders_posture, p.spine_posture, " +
+            "p.pelvis_posture, p.knees_posture, p.feet_posture, p.medical_observations, p.objectives, " +
+            "p.treatment_plan, p.recommendations, p.next_evaluation_date " +
+            "FROM physical_evaluations p JOIN students st ON st.id = p.student_id " +
+            "JOIN instructors i ON i.id = p.instructor_id " +
+            "WHERE p.date BETWEEN ? AND ? ORDER BY p.date, p.id";
+    
+    private final ExportRepository exportRepository;
+    
+    public void exportSchedules(LocalDate startDate, LocalDate endDate, TableWriter writer) throws IOException {
+        export("agendamentos", SCHEDULE_HEADER, SCHEDULE_SQL, SCHEDULE_EQUIPMENT_SQL, startDate, endDate, writer);
+    }
+    
+    public void exportEvolutionRecords(LocalDate startDate, LocalDate endDate, TableWriter writer)
+            throws IOException {
+        export("fichas de evolução", EVOLUTION_HEADER, EVOLUTION_SQL, EVOLUTION_EXERCISES_SQL,
+                startDate, endDate, writer);
+    }
+    
+    public void exportPhysicalEvaluations(LocalDate startDate, LocalDate endDate, TableWriter writer)
+            throws IOException {
+        export("avaliações físicas", EVALUATION_HEADER, EVALUATION_SQL, null, startDate, endDate, writer);
+    }
+    
+    private void export(String name, List<String> header, String sql, String collectionSql,
+                        LocalDate startDate, LocalDate endDate, TableWriter writer) throws IOException {
+        long start = System.nanoTime();
+        int[] rows = {0};
+        try {
+            writer.writeRow(header);
+            exportRepository.stream(sql, new Object[] {startDate, endDate}, collectionSql, row -> {
+                writer.writeRow(row);
+                rows[0]++;
+            });
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            // Cliente desconectado: o cursor já foi fechado pela exceção; não há a quem responder
+            log.info("Exportação de {} interrompida após {} linhas: {}", name, rows[0], e.getCause().getMessage());
+            return;
+        }
+        log.info("Exportação de {} de {} a {}: {} linhas em {} ms", name, startDate, endDate, rows[0],
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.sarahpilates.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sarahpilates.entity.IdempotencyKey;
+import com.sarahpilates.exception.IdempotencyInProgressException;
+import com.sarahpilates.repository.IdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Torna operações em lote seguras para novas tentativas. A chave é gravada na
+ * mesma transação da operação, antes de aplicá-la: se a operação falhar, a
+ * chave também é desfeita; se der certo, a resposta fica gravada e uma nova
+ * tentativa com a mesma chave e os mesmos dados a recebe de volta.
+ *
+ * Uma segunda requisição com a mesma chave enquanto a primeira ainda está em
+ * andamento aguarda na restrição única e é recusada com 409; ao repetir, o
+ * cliente recebe a resposta gravada pela primeira.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+    
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${sarah-pilates.idempotency.retention:P7D}")
+    private Duration retention;
+    
+    private volatile LocalDateTime nextPurge = LocalDateTime.MIN;
+    
+    /**
+     * Executa {@code action} uma única vez por ({@code operation}, {@code key}).
+     * Sem chave, apenas executa.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> T execute(String operation, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        purgeExpired();
+        
+        String requestHash = hash(request);
+        IdempotencyKey existing = idempotencyKeyRepository.findByOperationAndKeyValue(operation, key).orElse(null);
+        if (existing != null) {
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw new RuntimeException("Chave de idempotência já utilizada com outros dados");
+            }
+            log.debug("Requisição repetida com a chave de idempotência {} ({})", key, operation);
+            return read(existing.getResponse(), responseType);
+        }
+        
+        IdempotencyKey claimed = new IdempotencyKey();
+        claimed.setOperation(operation);
+        claimed.setKeyValue(key);
+        claimed.setRequestHash(requestHash);
+        try {
+            claimed = idempotencyKeyRepository.saveAndFlush(claimed);
+        } catch (DataIntegrityViolationException e) {
+            throw new IdempotencyInProgressException(
+                    "Requisição com esta chave de idempotência já está em andamento. Tente novamente em instantes");
+        }
+        
+        T response = action.get();
+        claimed.setResponse(write(response));
+        return response;
+    }
+    
+    // No máximo uma limpeza por hora, junto com as próprias requisições
+    private void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(nextPurge)) {
+            return;
+        }
+        nextPurge = now.plusHours(1);
+        int removed = idempotencyKeyRepository.deleteByCreatedAtBefore(now.minus(retention));
+        if (removed > 0) {
+            log.info("Chaves de idempotência expiradas removidas: {}", removed);
+        }
+    }
+    
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(write(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erro ao serializar resposta idempotente", e);
+        }
+    }
+    
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erro ao ler resposta idempotente", e);
+        }
+    }
+}
\ No newline at end of file
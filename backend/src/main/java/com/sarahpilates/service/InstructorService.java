@@ -1,14 +1,17 @@
 package com.sarahpilates.service;
 
 import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.event.InstructorChangedEvent;
 import com.sarahpilates.repository.InstructorRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -17,6 +20,8 @@ import java.util.Optional;
 public class InstructorService {
     
     private final InstructorRepository instructorRepository;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<Instructor> findAll() {
         return instructorRepository.findAll();
@@ -46,14 +51,18 @@ public class InstructorService {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return instructorRepository.findAll(pageable);
         }
-        return instructorRepository.findBySearchTerm(searchTerm.trim(), pageable);
+        return searchIndexService.search(SearchIndex.Kind.INSTRUCTOR, null, searchTerm, pageable,
+                        instructorRepository::findAllById, Instructor::getId)
+                .orElseGet(() -> instructorRepository.findBySearchTerm(searchTerm.trim(), pageable));
     }
     
     public Page<Instructor> searchByStatus(Instructor.InstructorStatus status, String searchTerm, Pageable pageable) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return instructorRepository.findAll(pageable);
         }
-        return instructorRepository.findByStatusAndSearchTerm(status, searchTerm.trim(), pageable);
+        return searchIndexService.search(SearchIndex.Kind.INSTRUCTOR, status, searchTerm, pageable,
+                        instructorRepository::findAllById, Instructor::getId)
+                .orElseGet(() -> instructorRepository.findByStatusAndSearchTerm(status, searchTerm.trim(), pageable));
     }
     
     public Instructor save(Instructor instructor) {
@@ -80,7 +89,11 @@ public class InstructorService {
             }
         }
         
-        return instructorRepository.save(instructor);
+        // Na edição por save o nome anterior não é conhecido
+        boolean existing = instructor.getId() != null;
+        Instructor saved = instructorRepository.save(instructor);
+        eventPublisher.publishEvent(new InstructorChangedEvent(saved.getId(), existing));
+        return saved;
     }
     
     public Instructor update(Long id, Instructor instructorDetails) {
@@ -99,6 +112,7 @@ public class InstructorService {
             throw new RuntimeException("CPF já está em uso");
         }
         
+        boolean nameChanged = !Objects.equals(instructor.getName(), instructorDetails.getName());
         instructor.setName(instructorDetails.getName());
         instructor.setEmail(instructorDetails.getEmail());
         instructor.setPhone(instructorDetails.getPhone());
@@ -113,7 +127,9 @@ public class InstructorService {
         instructor.setStatus(instructorDetails.getStatus());
         instructor.setNotes(instructorDetails.getNotes());
         
-        return instructorRepository.save(instructor);
+        Instructor saved = instructorRepository.save(instructor);
+        eventPublisher.publishEvent(new InstructorChangedEvent(saved.getId(), nameChanged));
+        return saved;
     }
     
     public void deleteById(Long id) {
@@ -121,23 +137,10 @@ public class InstructorService {
             throw new RuntimeException("Instrutor não encontrado");
         }
         instructorRepository.deleteById(id);
+        eventPublisher.publishEvent(new InstructorChangedEvent(id, false));
     }
     
     public Long countActiveInstructors() {
         return instructorRepository.countActiveInstructors();
     }
-    
-    public void incrementTotalClasses(Long instructorId) {
-        Instructor instructor = instructorRepository.findById(instructorId)
-                .orElseThrow(() -> new RuntimeException("Instrutor não encontrado"));
-        instructor.setTotalClasses(instructor.getTotalClasses() + 1);
-        instructorRepository.save(instructor);
-    }
-    
-    public void incrementTotalStudents(Long instructorId) {
-        Instructor instructor = instructorRepository.findById(instructorId)
-                .orElseThrow(() -> new RuntimeException("Instrutor não encontrado"));
-        instructor.setTotalStudents(instructor.getTotalStudents() + 1);
-        instructorRepository.save(instructor);
-    }
 }
\ No newline at end of file
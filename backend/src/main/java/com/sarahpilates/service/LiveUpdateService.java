@@ -0,0 +1,247 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.event.DashboardUpdatedEvent;
+import com.sarahpilates.event.ReportJobCompletedEvent;
+import com.sarahpilates.event.ScheduleChangedEvent;
+import com.sarahpilates.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Canal de eventos enviados pelo servidor (SSE) com as alterações de
+ * agendamentos, os contadores do dashboard e a conclusão dos relatórios em
+ * segundo plano.
+ *
+ * Cada conexão tem uma fila limitada; um pequeno grupo de threads esvazia as
+ * filas, de modo que um cliente lento nunca atrasa a escrita nem os demais
+ * clientes. Quando a fila enche, a política configurada descarta os eventos
+ * mais antigos (e avisa o cliente com um evento {@code resync}) ou encerra a
+ * conexão.
+ */
+@Service
+@Slf4j
+public class LiveUpdateService {
+    
+    public enum Topic {
+        SCHEDULES, DASHBOARD, REPORTS
+    }
+    
+    public enum OverflowPolicy {
+        DROP_OLDEST, DISCONNECT
+    }
+    
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    // Uma permissão por conexão aberta: reservada antes de registrar o assinante
+    private final Semaphore connectionSlots;
+    private final long timeoutMillis;
+    
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeat;
+    
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final AtomicLong eventIds = new AtomicLong();
+    
+    public LiveUpdateService(@Value("${sarah-pilates.live.buffer-size:256}") int bufferSize,
+                             @Value("${sarah-pilates.live.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                             @Value("${sarah-pilates.live.sender-threads:4}") int senderThreads,
+                             @Value("${sarah-pilates.live.max-connections:5000}") int maxConnections,
+                             @Value("${sarah-pilates.live.heartbeat-seconds:25}") int heartbeatSeconds,
+                             @Value("${sarah-pilates.live.timeout-minutes:30}") int timeoutMinutes) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.overflowPolicy = overflowPolicy;
+        this.connectionSlots = new Semaphore(Math.max(0, maxConnections));
+        this.timeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), daemon("live-sender"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("live-heartbeat"));
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Abre uma conexão para os tópicos informados. Quando {@code date} não é
+     * nulo, apenas alterações de agendamentos nessa data são enviadas.
+     */
+    public SseEmitter subscribe(Set<Topic> topics, LocalDate date) {
+        if (!connectionSlots.tryAcquire()) {
+            throw new TooManyRequestsException("Limite de conexões em tempo real atingido. Tente novamente em instantes");
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), emitter,
+                topics.isEmpty() ? EnumSet.allOf(Topic.class) : EnumSet.copyOf(topics), date);
+        subscribers.put(subscriber.id, subscriber);
+        
+        emitter.onCompletion(() -> unregister(subscriber.id));
+        emitter.onTimeout(() -> unregister(subscriber.id));
+        emitter.onError(error -> unregister(subscriber.id));
+        
+        // Envia os cabeçalhos imediatamente, sem esperar o primeiro evento
+        subscriber.offer(LiveEvent.HEARTBEAT);
+        return emitter;
+    }
+    
+    public int getConnectionCount() {
+        return subscribers.size();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        broadcast(Topic.SCHEDULES, "schedule", event,
+                subscriber -> subscriber.date == null || event.affects(subscriber.date));
+    }
+    
+    @EventListener
+    public void onDashboardUpdated(DashboardUpdatedEvent event) {
+        broadcast(Topic.DASHBOARD, "dashboard", event.counters(), subscriber -> true);
+    }
+    
+    @EventListener
+    public void onReportJobCompleted(ReportJobCompletedEvent event) {
+        broadcast(Topic.REPORTS, "report-job", event, subscriber -> true);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+    
+    // Conclusão, timeout, erro e fechamento podem ocorrer juntos; só a primeira remoção libera a vaga
+    private void unregister(long id) {
+        if (subscribers.remove(id) != null) {
+            connectionSlots.release();
+        }
+    }
+    
+    private void broadcast(Topic topic, String name, Object data, Predicate<Subscriber> filter) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        LiveEvent event = new LiveEvent(eventIds.incrementAndGet(), name, data);
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.topics.contains(topic) && filter.test(subscriber)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+    
+    private void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.offer(LiveEvent.HEARTBEAT);
+        }
+    }
+    
+    private static ThreadFactory daemon(String name) {
+        AtomicLong count = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    private record LiveEvent(long id, String name, Object data) {
+        
+        static final LiveEvent HEARTBEAT = new LiveEvent(0, null, null);
+    }
+    
+    private final class Subscriber {
+        
+        private final long id;
+        private final SseEmitter emitter;
+        private final Set<Topic> topics;
+        private final LocalDate date;
+        private final BlockingQueue<LiveEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean dropped;
+        
+        Subscriber(long id, SseEmitter emitter, Set<Topic> topics, LocalDate date) {
+            this.id = id;
+            this.emitter = emitter;
+            this.topics = topics;
+            this.date = date;
+        }
+        
+        void offer(LiveEvent event) {
+            while (!queue.offer(event)) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    log.warn("Conexão em tempo real #{} encerrada: cliente não acompanha os eventos", id);
+                    close();
+                    return;
+                }
+                queue.poll();
+                dropped = true;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            try {
+                LiveEvent event;
+                while ((event = queue.poll()) != null) {
+                    if (dropped) {
+                        // O cliente perdeu eventos e deve recarregar os dados
+                        dropped = false;
+                        emitter.send(SseEmitter.event().name("resync").data(""));
+                    }
+                    send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Eventos recebidos entre o fim da fila e a liberação do indicador
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+        
+        private void send(LiveEvent event) throws IOException {
+            if (event == LiveEvent.HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("ping"));
+                return;
+            }
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.id()))
+                    .name(event.name())
+                    .data(event.data()));
+        }
+        
+        private void close() {
+            unregister(id);
+            queue.clear();
+            emitter.complete();
+        }
+    }
+}
\ No newline at end of file
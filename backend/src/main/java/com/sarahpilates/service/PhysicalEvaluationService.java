@@ -1,13 +1,19 @@
 package com.sarahpilates.service;
 
+import com.sarahpilates.dto.CursorPage;
 import com.sarahpilates.entity.PhysicalEvaluation;
 import com.sarahpilates.entity.Student;
 import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.event.PhysicalEvaluationChangedEvent;
 import com.sarahpilates.repository.PhysicalEvaluationRepository;
 import com.sarahpilates.repository.StudentRepository;
 import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +32,8 @@ public class PhysicalEvaluationService {
     private final PhysicalEvaluationRepository physicalEvaluationRepository;
     private final StudentRepository studentRepository;
     private final InstructorRepository instructorRepository;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<PhysicalEvaluation> findAll() {
         return physicalEvaluationRepository.findAll();
@@ -59,14 +67,43 @@ public class PhysicalEvaluationService {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return physicalEvaluationRepository.findAll(pageable);
         }
-        return physicalEvaluationRepository.findBySearchTerm(searchTerm.trim(), pageable);
+        return searchIndexService.search(SearchIndex.Kind.PHYSICAL_EVALUATION, null, searchTerm, pageable,
+                        physicalEvaluationRepository::findAllById, PhysicalEvaluation::getId)
+                .orElseGet(() -> physicalEvaluationRepository.findBySearchTerm(searchTerm.trim(), pageable));
     }
     
     public Page<PhysicalEvaluation> searchByType(PhysicalEvaluation.EvaluationType type, String searchTerm, Pageable pageable) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return physicalEvaluationRepository.findAll(pageable);
         }
-        return physicalEvaluationRepository.findByTypeAndSearchTerm(type, searchTerm.trim(), pageable);
+        return searchIndexService.search(SearchIndex.Kind.PHYSICAL_EVALUATION, type, searchTerm, pageable,
+                        physicalEvaluationRepository::findAllById, PhysicalEvaluation::getId)
+                .orElseGet(() -> physicalEvaluationRepository.findByTypeAndSearchTerm(type, searchTerm.trim(),
+                        pageable));
+    }
+    
+    /**
+     * Página por cursor, das avaliações mais recentes para as mais antigas,
+     * opcionalmente só de um aluno. O cursor guarda (data, id) da última
+     * avaliação entregue.
+     */
+    public CursorPage<PhysicalEvaluation> findByCursor(Long studentId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor, 2);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Uma linha a mais só para saber se há próxima página
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<PhysicalEvaluation> rows = studentId == null
+                ? physicalEvaluationRepository.findBefore(after.date(0), after.id(1), window)
+                : physicalEvaluationRepository.findByStudentIdBefore(studentId, after.date(0), after.id(1), window);
+        CursorPage<PhysicalEvaluation> page = CursorPage.of(rows, pageSize,
+                last -> KeysetCursor.encode(last.getDate(), last.getId()));
+        // Coleções carregadas em lote ainda dentro da transação, antes da serialização
+        page.getContent().forEach(evaluation -> {
+            Hibernate.initialize(evaluation.getPhotos());
+            Hibernate.initialize(evaluation.getAttachments());
+            Hibernate.initialize(evaluation.getInstructor().getSpecializations());
+        });
+        return page;
     }
     
     public PhysicalEvaluation save(PhysicalEvaluation evaluation) {
@@ -94,7 +131,9 @@ public class PhysicalEvaluationService {
             evaluation.setBmi(bmi);
         }
         
-        return physicalEvaluationRepository.save(evaluation);
+        PhysicalEvaluation saved = physicalEvaluationRepository.save(evaluation);
+        eventPublisher.publishEvent(new PhysicalEvaluationChangedEvent(saved.getId(), null, student.getId()));
+        return saved;
     }
     
     public PhysicalEvaluation update(Long id, PhysicalEvaluation evaluationDetails) {
@@ -109,6 +148,8 @@ public class PhysicalEvaluationService {
         Instructor instructor = instructorRepository.findById(evaluationDetails.getInstructor().getId())
                 .orElseThrow(() -> new RuntimeException("Instrutor não encontrado"));
         
+        Long previousStudentId = evaluation.getStudent().getId();
+        
         // Atualizar campos
         evaluation.setStudent(student);
         evaluation.setInstructor(instructor);
@@ -177,14 +218,17 @@ public class PhysicalEvaluationService {
             evaluation.setBmi(bmi);
         }
         
-        return physicalEvaluationRepository.save(evaluation);
+        PhysicalEvaluation saved = physicalEvaluationRepository.save(evaluation);
+        eventPublisher.publishEvent(new PhysicalEvaluationChangedEvent(saved.getId(), previousStudentId,
+                student.getId()));
+        return saved;
     }
     
     public void deleteById(Long id) {
-        if (!physicalEvaluationRepository.existsById(id)) {
-            throw new RuntimeException("Avaliação física não encontrada");
-        }
-        physicalEvaluationRepository.deleteById(id);
+        PhysicalEvaluation evaluation = physicalEvaluationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Avaliação física não encontrada"));
+        physicalEvaluationRepository.delete(evaluation);
+        eventPublisher.publishEvent(new PhysicalEvaluationChangedEvent(id, evaluation.getStudent().getId(), null));
     }
     
     public List<PhysicalEvaluation> getStudentEvaluationHistory(Long studentId) {
@@ -0,0 +1,86 @@
+package com.sarahpilates.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Série temporal de uma medida do aluno em arrays primitivos (dia e valor),
+ * com as somas da regressão linear mantidas a cada amostra: a inclinação sai
+ * em tempo constante e acrescentar uma medição não exige reler as anteriores.
+ *
+ * As amostras devem chegar em ordem cronológica.
+ */
+public class ProgressSeries {
+    
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private int[] days = new int[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int size;
+    
+    // Dias contados a partir da primeira amostra, para manter as somas pequenas
+    private long origin;
+    private double sumX;
+    private double sumY;
+    private double sumXY;
+    private double sumXX;
+    
+    public void add(LocalDate date, double value) {
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        if (size == 0) {
+            origin = date.toEpochDay();
+        }
+        int x = (int) (date.toEpochDay() - origin);
+        days[size] = x;
+        values[size] = value;
+        size++;
+        
+        sumX += x;
+        sumY += value;
+        sumXY += x * value;
+        sumXX += (double) x * x;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public double first() {
+        return values[0];
+    }
+    
+    public double last() {
+        return values[size - 1];
+    }
+    
+    public LocalDate lastDate() {
+        return LocalDate.ofEpochDay(origin + days[size - 1]);
+    }
+    
+    /**
+     * Inclinação da reta de mínimos quadrados, em unidades por dia. NaN com
+     * menos de duas datas distintas.
+     */
+    public double slopePerDay() {
+        double denominator = size * sumXX - sumX * sumX;
+        if (size < 2 || denominator == 0) {
+            return Double.NaN;
+        }
+        return (size * sumXY - sumX * sumY) / denominator;
+    }
+    
+    /**
+     * Média simples das últimas {@code window} amostras (ou de todas, se houver menos).
+     */
+    public double movingAverage(int window) {
+        int count = Math.min(Math.max(1, window), size);
+        double sum = 0;
+        for (int i = size - count; i < size; i++) {
+            sum += values[i];
+        }
+        return sum / count;
+    }
+}
\ No newline at end of file
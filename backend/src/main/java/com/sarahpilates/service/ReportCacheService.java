@@ -0,0 +1,152 @@
+package com.sarahpilates.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sarahpilates.dto.ReportCacheStatistics;
+import com.sarahpilates.entity.ReportJob;
+import com.sarahpilates.event.EvolutionRecordChangedEvent;
+import com.sarahpilates.event.InstructorChangedEvent;
+import com.sarahpilates.event.ScheduleChangedEvent;
+import com.sarahpilates.event.StudentChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Relatórios já calculados, por tipo e período. O relatório de um período
+ * encerrado só muda quando um agendamento ou uma ficha de evolução com data
+ * dentro dele é alterado, e continua valendo até lá; o do período atual expira
+ * em pouco tempo, porque muda a cada aula do dia.
+ *
+ * Os relatórios devolvidos são compartilhados entre as requisições e não devem
+ * ser alterados.
+ */
+@Service
+@Slf4j
+public class ReportCacheService {
+    
+    private final Cache<Key, Object> reports;
+    private final Duration openPeriodTtl;
+    
+    // Incrementado a cada alteração: um relatório calculado enquanto ela era
+    // gravada pode ter lido o estado anterior e não é guardado
+    private volatile long generation;
+    private long invalidated;
+    
+    public ReportCacheService(@Value("${sarah-pilates.reports.cache.max-size:500}") long maxSize,
+                              @Value("${sarah-pilates.reports.cache.open-period-ttl:PT1M}") Duration openPeriodTtl) {
+        this.openPeriodTtl = openPeriodTtl;
+        this.reports = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PeriodExpiry())
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * Devolve o relatório guardado para o tipo e período ou o calcula com
+     * {@code generator}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ReportJob.ReportType type, LocalDate startDate, LocalDate endDate, Supplier<T> generator) {
+        Key key = new Key(type, startDate, endDate);
+        T cached = (T) reports.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long before = generation;
+        T report = generator.get();
+        synchronized (this) {
+            if (generation == before) {
+                reports.put(key, report);
+            }
+        }
+        return report;
+    }
+    
+    /**
+     * Valor atual do contador de alterações, para {@link #invalidatedSince}.
+     */
+    public long generation() {
+        return generation;
+    }
+    
+    public boolean invalidatedSince(long generation) {
+        return this.generation != generation;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        invalidate(key -> event.affectsBetween(key.startDate(), key.endDate()));
+    }
+    
+    // A média de avaliação dos instrutores, no relatório mensal, vem das fichas do período
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEvolutionRecordChanged(EvolutionRecordChangedEvent event) {
+        invalidate(key -> event.affectsBetween(key.startDate(), key.endDate()));
+    }
+    
+    // Nomes aparecem em todos os relatórios e o mensal traz o total atual de alunos
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        invalidate(key -> true);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInstructorChanged(InstructorChangedEvent event) {
+        invalidate(key -> true);
+    }
+    
+    public ReportCacheStatistics statistics() {
+        CacheStats stats = reports.stats();
+        synchronized (this) {
+            return new ReportCacheStatistics(stats.hitCount(), stats.missCount(), stats.hitRate(),
+                    reports.estimatedSize(), invalidated);
+        }
+    }
+    
+    private synchronized void invalidate(Predicate<Key> affected) {
+        generation++;
+        int removed = 0;
+        for (Iterator<Key> keys = reports.asMap().keySet().iterator(); keys.hasNext(); ) {
+            if (affected.test(keys.next())) {
+                keys.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            invalidated += removed;
+            log.debug("Relatórios removidos do cache: {}", removed);
+        }
+    }
+    
+    private record Key(ReportJob.ReportType type, LocalDate startDate, LocalDate endDate) {
+    }
+    
+    private class PeriodExpiry implements Expiry<Key, Object> {
+        
+        @Override
+        public long expireAfterCreate(Key key, Object report, long currentTime) {
+            return key.endDate().isBefore(LocalDate.now()) ? Long.MAX_VALUE : openPeriodTtl.toNanos();
+        }
+        
+        @Override
+        public long expireAfterUpdate(Key key, Object report, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, report, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(Key key, Object report, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,272 @@
+package com.sarahpilates.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sarahpilates.entity.ReportJob;
+import com.sarahpilates.event.EvolutionRecordChangedEvent;
+import com.sarahpilates.event.ReportJobCompletedEvent;
+import com.sarahpilates.event.ScheduleChangedEvent;
+import com.sarahpilates.exception.TooManyRequestsException;
+import com.sarahpilates.repository.ReportJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Relatórios gerados em segundo plano, para períodos longos que passariam do
+ * tempo limite de uma requisição. O pedido devolve na hora um id; um pool
+ * limitado de threads gera o relatório e o grava em JSON, e o cliente consulta
+ * o id ou recebe o aviso de conclusão pelo canal em tempo real.
+ *
+ * Pedidos iguais (mesmo tipo e período) em andamento compartilham a mesma
+ * geração. Resultados de períodos já encerrados ficam gravados por mais tempo
+ * e são devolvidos de imediato; os do período atual expiram logo, porque ainda
+ * mudam. Alterações em agendamentos e fichas de evolução removem os resultados
+ * gravados dos períodos que contêm a data alterada.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    private final ReportJobRepository reportJobRepository;
+    private final ReportService reportService;
+    private final ReportCacheService reportCache;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate afterCommitTransaction;
+    private final Duration closedPeriodRetention;
+    private final Duration openPeriodRetention;
+    private final ThreadPoolExecutor workers;
+    
+    private final Map<RequestKey, Long> inFlight = new ConcurrentHashMap<>();
+    private volatile LocalDateTime nextPurge = LocalDateTime.MIN;
+    
+    public ReportJobService(ReportJobRepository reportJobRepository,
+                            ReportService reportService,
+                            ReportCacheService reportCache,
+                            ObjectMapper objectMapper,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${sarah-pilates.reports.jobs.threads:2}") int threads,
+                            @Value("${sarah-pilates.reports.jobs.queue-size:20}") int queueSize,
+                            @Value("${sarah-pilates.reports.jobs.retention:P30D}") Duration closedPeriodRetention,
+                            @Value("${sarah-pilates.reports.jobs.open-period-retention:PT10M}")
+                            Duration openPeriodRetention) {
+        this.reportJobRepository = reportJobRepository;
+        this.reportService = reportService;
+        this.reportCache = reportCache;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        // Ouvintes após o commit ainda estão presos à transação que terminou
+        this.afterCommitTransaction = new TransactionTemplate(transactionManager);
+        this.afterCommitTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.closedPeriodRetention = closedPeriodRetention;
+        this.openPeriodRetention = openPeriodRetention;
+        AtomicLong count = new AtomicLong();
+        this.workers = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    // Gerações interrompidas por uma reinicialização não vão mais terminar
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        Integer failed = transaction.execute(status -> reportJobRepository.failUnfinished(
+                List.of(ReportJob.JobStatus.PENDENTE, ReportJob.JobStatus.EM_ANDAMENTO),
+                ReportJob.JobStatus.FALHOU, "Geração interrompida pela reinicialização do servidor",
+                LocalDateTime.now()));
+        if (failed != null && failed > 0) {
+            log.warn("Relatórios em segundo plano interrompidos pela reinicialização: {}", failed);
+        }
+    }
+    
+    /**
+     * Pede o relatório do tipo e período informados. Para o relatório mensal,
+     * o período é o mês inteiro de {@code startDate}. Devolve o resultado já
+     * gravado, a geração em andamento ou uma nova geração.
+     */
+    public ReportJob submit(ReportJob.ReportType type, LocalDate startDate, LocalDate endDate) {
+        if (type == ReportJob.ReportType.MENSAL) {
+            startDate = startDate.withDayOfMonth(1);
+            endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+        } else if (endDate == null || startDate.isAfter(endDate)) {
+            throw new RuntimeException("Data inicial deve ser anterior ou igual à data final");
+        }
+        purgeExpired();
+        
+        RequestKey key = new RequestKey(type, startDate, endDate);
+        Optional<ReportJob> stored = findStored(key);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        
+        Long running = inFlight.get(key);
+        if (running == null) {
+            // A gravação fica fora do mapa; só a primeira geração publicada segue
+            ReportJob job = new ReportJob();
+            job.setType(key.type());
+            job.setStartDate(key.startDate());
+            job.setEndDate(key.endDate());
+            job = reportJobRepository.save(job);
+            Long jobId = job.getId();
+            running = inFlight.putIfAbsent(key, jobId);
+            if (running == null) {
+                // A geração anterior pode ter terminado desde a consulta acima
+                stored = findStored(key);
+                if (stored.isPresent()) {
+                    inFlight.remove(key, jobId);
+                    reportJobRepository.deleteById(jobId);
+                    return stored.get();
+                }
+                try {
+                    workers.execute(() -> run(jobId, key));
+                } catch (RejectedExecutionException e) {
+                    inFlight.remove(key, jobId);
+                    reportJobRepository.deleteById(jobId);
+                    throw new TooManyRequestsException("Muitos relatórios em geração. Tente novamente em instantes");
+                }
+                return job;
+            }
+            // Outro pedido publicou a mesma geração primeiro
+            reportJobRepository.deleteById(jobId);
+        }
+        return reportJobRepository.findById(running)
+                .orElseThrow(() -> new RuntimeException("Relatório não encontrado"));
+    }
+    
+    public Optional<ReportJob> findById(Long id) {
+        return reportJobRepository.findById(id);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        deleteStoredCovering(event.previousDate(), event.date());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEvolutionRecordChanged(EvolutionRecordChangedEvent event) {
+        deleteStoredCovering(event.previousDate(), event.date());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+    
+    private void run(Long jobId, RequestKey key) {
+        ReportJob job = reportJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            inFlight.remove(key, jobId);
+            return;
+        }
+        long start = System.nanoTime();
+        long generation = reportCache.generation();
+        try {
+            job.setStatus(ReportJob.JobStatus.EM_ANDAMENTO);
+            job = reportJobRepository.save(job);
+            
+            job.setResult(objectMapper.writeValueAsString(generate(key)));
+            job.setStatus(ReportJob.JobStatus.CONCLUIDO);
+            job.setCompletedAt(LocalDateTime.now());
+            // Com uma alteração gravada durante a geração, o resultado pode não
+            // incluí-la: vale só pelo prazo do período atual
+            boolean closed = key.endDate().isBefore(LocalDate.now()) && !reportCache.invalidatedSince(generation);
+            job.setExpiresAt(job.getCompletedAt().plus(closed ? closedPeriodRetention : openPeriodRetention));
+            job = reportJobRepository.save(job);
+            log.info("Relatório {} de {} a {} gerado em {} ms", key.type(), key.startDate(), key.endDate(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.error("Falha ao gerar relatório {} de {} a {}", key.type(), key.startDate(), key.endDate(), e);
+            job.setStatus(ReportJob.JobStatus.FALHOU);
+            job.setResult(null);
+            job.setError(truncate(e.getMessage()));
+            job.setCompletedAt(LocalDateTime.now());
+            // Falhas não são reaproveitadas: o próximo pedido gera de novo
+            job.setExpiresAt(job.getCompletedAt());
+            job = reportJobRepository.save(job);
+        } finally {
+            inFlight.remove(key, jobId);
+        }
+        eventPublisher.publishEvent(new ReportJobCompletedEvent(job.getId(), job.getType(), job.getStatus()));
+    }
+    
+    private Optional<ReportJob> findStored(RequestKey key) {
+        return reportJobRepository.findValid(key.type(), key.startDate(), key.endDate(),
+                ReportJob.JobStatus.CONCLUIDO, LocalDateTime.now(), PageRequest.of(0, 1)).stream().findFirst();
+    }
+    
+    private Object generate(RequestKey key) {
+        return switch (key.type()) {
+            case MENSAL -> reportService.generateMonthlyReport(key.startDate());
+            case FINANCEIRO -> reportService.generateFinancialReport(key.startDate(), key.endDate());
+            case FREQUENCIA -> reportService.generateAttendanceReport(key.startDate(), key.endDate());
+        };
+    }
+    
+    private void deleteStoredCovering(LocalDate... dates) {
+        Integer removed = afterCommitTransaction.execute(status -> Stream.of(dates)
+                .filter(Objects::nonNull)
+                .distinct()
+                .mapToInt(date -> reportJobRepository.deleteCovering(ReportJob.JobStatus.CONCLUIDO, date))
+                .sum());
+        if (removed != null && removed > 0) {
+            log.debug("Relatórios gravados removidos por alteração no período: {}", removed);
+        }
+    }
+    
+    // No máximo uma limpeza por hora, junto com os próprios pedidos
+    private void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(nextPurge)) {
+            return;
+        }
+        nextPurge = now.plusHours(1);
+        Integer removed = transaction.execute(status -> reportJobRepository.deleteExpired(now));
+        if (removed != null && removed > 0) {
+            log.info("Relatórios expirados removidos: {}", removed);
+        }
+    }
+    
+    private static String truncate(String message) {
+        if (message == null) {
+            return "Erro ao gerar relatório";
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+    
+    private record RequestKey(ReportJob.ReportType type, LocalDate startDate, LocalDate endDate) {
+    }
+}
\ No newline at end of file
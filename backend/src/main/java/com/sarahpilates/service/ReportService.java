@@ -1,53 +1,100 @@
 package com.sarahpilates.service;
 
 import com.sarahpilates.dto.ReportDTO;
+import com.sarahpilates.entity.ReportJob;
 import com.sarahpilates.entity.Schedule;
 import com.sarahpilates.repository.*;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.format.TextStyle;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ReportService {
     
+    private static final Locale PT_BR = new Locale("pt", "BR");
+    
     private final StudentRepository studentRepository;
     private final InstructorRepository instructorRepository;
-    private final ScheduleRepository scheduleRepository;
     private final PhysicalEvaluationRepository physicalEvaluationRepository;
     private final EvolutionRecordRepository evolutionRecordRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleRollupService rollupService;
+    private final ReportCacheService reportCache;
+    private final StudentProgressService studentProgressService;
+    private final TransactionTemplate readOnlyTransaction;
     
+    public ReportService(StudentRepository studentRepository,
+                         InstructorRepository instructorRepository,
+                         PhysicalEvaluationRepository physicalEvaluationRepository,
+                         EvolutionRecordRepository evolutionRecordRepository,
+                         ScheduleRepository scheduleRepository,
+                         ScheduleRollupService rollupService,
+                         ReportCacheService reportCache,
+                         StudentProgressService studentProgressService,
+                         PlatformTransactionManager transactionManager) {
+        this.studentRepository = studentRepository;
+        this.instructorRepository = instructorRepository;
+        this.physicalEvaluationRepository = physicalEvaluationRepository;
+        this.evolutionRecordRepository = evolutionRecordRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.rollupService = rollupService;
+        this.reportCache = reportCache;
+        this.studentProgressService = studentProgressService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    // Relatórios por período passam pelo cache fora de transação: um acerto não
+    // ocupa conexão com o banco, e só o cálculo abre a transação de leitura
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ReportDTO.MonthlyReport generateMonthlyReport(LocalDate month) {
         YearMonth yearMonth = YearMonth.from(month);
         LocalDate startDate = yearMonth.atDay(1);
         LocalDate endDate = yearMonth.atEndOfMonth();
-        
+        return reportCache.get(ReportJob.ReportType.MENSAL, startDate, endDate,
+                () -> readOnlyTransaction.execute(status -> buildMonthlyReport(startDate, endDate)));
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReportDTO.FinancialReport generateFinancialReport(LocalDate startDate, LocalDate endDate) {
+        return reportCache.get(ReportJob.ReportType.FINANCEIRO, startDate, endDate,
+                () -> readOnlyTransaction.execute(status -> buildFinancialReport(startDate, endDate)));
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReportDTO.AttendanceReport generateAttendanceReport(LocalDate startDate, LocalDate endDate) {
+        return reportCache.get(ReportJob.ReportType.FREQUENCIA, startDate, endDate,
+                () -> readOnlyTransaction.execute(status -> buildAttendanceReport(startDate, endDate)));
+    }
+    
+    private ReportDTO.MonthlyReport buildMonthlyReport(LocalDate startDate, LocalDate endDate) {
         ReportDTO.MonthlyReport report = new ReportDTO.MonthlyReport();
-        report.setMonth(month);
+        // Primeiro dia do mês, qualquer que seja o dia pedido: o mesmo relatório serve ao mês inteiro
+        report.setMonth(startDate);
         
         // Estatísticas básicas
         report.setTotalStudents(studentRepository.count());
         report.setActiveStudents(studentRepository.countActiveStudents());
         
-        List<Schedule> monthSchedules = scheduleRepository.findByDateBetween(startDate, endDate);
-        report.setTotalClasses((long) monthSchedules.size());
-        report.setCompletedClasses(
-            monthSchedules.stream()
-                .filter(s -> s.getStatus() == Schedule.ScheduleStatus.CONCLUIDO)
-                .count()
-        );
+        ScheduleAggregation rollup = rollupService.aggregate(startDate, endDate);
+        ScheduleAggregation.Bucket totals = rollup.getTotal();
+        long totalClasses = totals.getCount();
+        report.setTotalClasses(totalClasses);
+        report.setCompletedClasses(totals.count(Schedule.ScheduleStatus.CONCLUIDO));
         
         // Receita total
-        BigDecimal totalRevenue = monthSchedules.stream()
-            .filter(s -> s.getPaymentStatus() == Schedule.PaymentStatus.PAGO)
-            .map(Schedule::getPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalRevenue = totals.getRevenue();
         report.setTotalRevenue(totalRevenue);
         
         // Preço médio por aula
@@ -58,34 +105,34 @@ public class ReportService {
         }
         
         // Taxa de comparecimento
-        long scheduledClasses = monthSchedules.stream()
-            .filter(s -> s.getStatus() != Schedule.ScheduleStatus.CANCELADO)
-            .count();
+        long scheduledClasses = totalClasses - totals.count(Schedule.ScheduleStatus.CANCELADO);
         if (scheduledClasses > 0) {
             report.setAttendanceRate(
                 (double) report.getCompletedClasses() / scheduledClasses * 100
             );
         }
         
+        report.setInstructorPerformances(buildInstructorPerformances(rollup, startDate, endDate));
+        report.setClassTypeStats(buildClassTypeStats(rollup, startDate, endDate));
+        
         return report;
     }
     
-    public ReportDTO.FinancialReport generateFinancialReport(LocalDate startDate, LocalDate endDate) {
+    private ReportDTO.FinancialReport buildFinancialReport(LocalDate startDate, LocalDate endDate) {
         ReportDTO.FinancialReport report = new ReportDTO.FinancialReport();
         report.setStartDate(startDate);
         report.setEndDate(endDate);
         
-        List<Schedule> schedules = scheduleRepository.findByDateBetween(startDate, endDate);
+        ScheduleAggregation rollup = rollupService.aggregate(startDate, endDate);
+        ScheduleAggregation.Bucket totals = rollup.getTotal();
+        long totalClasses = totals.getCount();
         
         // Receita total
-        BigDecimal totalRevenue = schedules.stream()
-            .filter(s -> s.getPaymentStatus() == Schedule.PaymentStatus.PAGO)
-            .map(Schedule::getPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalRevenue = totals.getRevenue();
         report.setTotalRevenue(totalRevenue);
         
         // Total de aulas
-        report.setTotalClasses((long) schedules.size());
+        report.setTotalClasses(totalClasses);
         
         // Preço médio por aula
         if (report.getTotalClasses() > 0) {
@@ -95,41 +142,38 @@ public class ReportService {
         }
         
         // Receita por tipo de aula
-        Map<String, BigDecimal> revenueByType = schedules.stream()
-            .filter(s -> s.getPaymentStatus() == Schedule.PaymentStatus.PAGO)
-            .collect(Collectors.groupingBy(
-                Schedule::getType,
-                Collectors.reducing(BigDecimal.ZERO, Schedule::getPrice, BigDecimal::add)
-            ));
+        Map<String, BigDecimal> revenueByType = new HashMap<>();
+        rollup.getByType().forEach((type, bucket) -> {
+            if (bucket.count(Schedule.PaymentStatus.PAGO) > 0) {
+                revenueByType.put(type, bucket.getRevenue());
+            }
+        });
         report.setRevenueByClassType(revenueByType);
         
         // Receita por instrutor
-        Map<String, BigDecimal> revenueByInstructor = schedules.stream()
-            .filter(s -> s.getPaymentStatus() == Schedule.PaymentStatus.PAGO)
-            .collect(Collectors.groupingBy(
-                s -> s.getInstructor().getName(),
-                Collectors.reducing(BigDecimal.ZERO, Schedule::getPrice, BigDecimal::add)
-            ));
+        Map<String, BigDecimal> revenueByInstructor = new HashMap<>();
+        rollup.getByInstructor().forEach((instructorId, bucket) -> {
+            if (bucket.count(Schedule.PaymentStatus.PAGO) > 0) {
+                revenueByInstructor.merge(rollup.getInstructorName(instructorId), bucket.getRevenue(), BigDecimal::add);
+            }
+        });
         report.setRevenueByInstructor(revenueByInstructor);
         
+        // Receita diária
+        Map<LocalDate, BigDecimal> dailyRevenue = new TreeMap<>();
+        rollup.getByDay().forEach((date, bucket) -> dailyRevenue.put(date, bucket.getRevenue()));
+        report.setDailyRevenue(dailyRevenue);
+        
         // Resumo de pagamentos
         List<ReportDTO.PaymentStatusSummary> paymentSummary = Arrays.stream(Schedule.PaymentStatus.values())
             .map(status -> {
-                List<Schedule> statusSchedules = schedules.stream()
-                    .filter(s -> s.getPaymentStatus() == status)
-                    .toList();
+                long count = totals.count(status);
                 
                 ReportDTO.PaymentStatusSummary summary = new ReportDTO.PaymentStatusSummary();
                 summary.setStatus(status.name());
-                summary.setCount((long) statusSchedules.size());
-                summary.setAmount(
-                    statusSchedules.stream()
-                        .map(Schedule::getPrice)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add)
-                );
-                summary.setPercentage(
-                    schedules.isEmpty() ? 0.0 : (double) statusSchedules.size() / schedules.size() * 100
-                );
+                summary.setCount(count);
+                summary.setAmount(totals.amount(status));
+                summary.setPercentage(totalClasses == 0 ? 0.0 : (double) count / totalClasses * 100);
                 
                 return summary;
             })
@@ -139,30 +183,19 @@ public class ReportService {
         return report;
     }
     
-    public ReportDTO.AttendanceReport generateAttendanceReport(LocalDate startDate, LocalDate endDate) {
+    private ReportDTO.AttendanceReport buildAttendanceReport(LocalDate startDate, LocalDate endDate) {
         ReportDTO.AttendanceReport report = new ReportDTO.AttendanceReport();
         report.setStartDate(startDate);
         report.setEndDate(endDate);
         
-        List<Schedule> schedules = scheduleRepository.findByDateBetween(startDate, endDate);
+        ScheduleAggregation rollup = rollupService.aggregate(startDate, endDate);
+        ScheduleAggregation.Bucket totals = rollup.getTotal();
         
         // Estatísticas gerais
-        report.setTotalScheduled((long) schedules.size());
-        report.setTotalCompleted(
-            schedules.stream()
-                .filter(s -> s.getStatus() == Schedule.ScheduleStatus.CONCLUIDO)
-                .count()
-        );
-        report.setTotalCanceled(
-            schedules.stream()
-                .filter(s -> s.getStatus() == Schedule.ScheduleStatus.CANCELADO)
-                .count()
-        );
-        report.setTotalNoShows(
-            schedules.stream()
-                .filter(s -> s.getStatus() == Schedule.ScheduleStatus.FALTA)
-                .count()
-        );
+        report.setTotalScheduled(totals.getCount());
+        report.setTotalCompleted(totals.count(Schedule.ScheduleStatus.CONCLUIDO));
+        report.setTotalCanceled(totals.count(Schedule.ScheduleStatus.CANCELADO));
+        report.setTotalNoShows(totals.count(Schedule.ScheduleStatus.FALTA));
         
         // Taxa geral de comparecimento
         if (report.getTotalScheduled() > 0) {
@@ -171,9 +204,46 @@ public class ReportService {
             );
         }
         
+        // Comparecimento por dia da semana
+        Map<DayOfWeek, ScheduleAggregation.Bucket> byDayOfWeek = new EnumMap<>(DayOfWeek.class);
+        rollup.getByDay().forEach((date, bucket) ->
+            byDayOfWeek.computeIfAbsent(date.getDayOfWeek(), k -> new ScheduleAggregation.Bucket()).merge(bucket)
+        );
+        Map<String, Double> attendanceByDayOfWeek = new LinkedHashMap<>();
+        byDayOfWeek.forEach((dayOfWeek, bucket) ->
+            attendanceByDayOfWeek.put(dayOfWeek.getDisplayName(TextStyle.FULL, PT_BR), bucket.getAttendanceRate())
+        );
+        report.setAttendanceByDayOfWeek(attendanceByDayOfWeek);
+        
+        // Comparecimento por tipo de aula
+        Map<String, Double> attendanceByClassType = new HashMap<>();
+        rollup.getByType().forEach((type, bucket) -> attendanceByClassType.put(type, bucket.getAttendanceRate()));
+        report.setAttendanceByClassType(attendanceByClassType);
+        
+        // Frequência por aluno
+        List<ReportDTO.StudentAttendance> studentAttendances = scheduleRepository
+            .sumAttendanceByStudentBetweenDates(startDate, endDate).stream()
+            .map(row -> {
+                ReportDTO.StudentAttendance attendance = new ReportDTO.StudentAttendance();
+                attendance.setStudentId(row.getStudentId());
+                attendance.setStudentName(row.getStudentName());
+                attendance.setTotalScheduled(row.getTotalScheduled());
+                attendance.setTotalCompleted(row.getTotalCompleted());
+                attendance.setTotalCanceled(row.getTotalCanceled());
+                attendance.setTotalNoShows(row.getTotalNoShows());
+                attendance.setAttendanceRate((double) row.getTotalCompleted() / row.getTotalScheduled() * 100);
+                return attendance;
+            })
+            .sorted(Comparator.comparing(ReportDTO.StudentAttendance::getStudentName))
+            .toList();
+        report.setStudentAttendances(studentAttendances);
+        
         return report;
     }
     
+    // Sem transação: as séries do aluno são montadas em uma leitura própria, iniciada
+    // depois de StudentProgressService registrar a geração do aluno
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ReportDTO.StudentProgress generateStudentProgressReport(Long studentId) {
         ReportDTO.StudentProgress report = new ReportDTO.StudentProgress();
         
@@ -185,35 +255,66 @@ public class ReportService {
         report.setStudentName(student.getName());
         report.setStartDate(student.getRegistrationDate());
         
-        // Buscar fichas de evolução
-        var evolutionRecords = evolutionRecordRepository.findByStudentIdOrderByDateDesc(studentId);
-        report.setTotalSessions(evolutionRecords.size());
-        
-        if (!evolutionRecords.isEmpty()) {
-            // Avaliação média
-            Double averageRating = evolutionRecords.stream()
-                .filter(r -> r.getOverallRating() != null)
-                .mapToInt(r -> r.getOverallRating())
-                .average()
-                .orElse(0.0);
-            report.setAverageRating(averageRating);
-            
-            // Último foco e sessão
-            var lastRecord = evolutionRecords.get(0);
-            report.setLastFocus(lastRecord.getFocus());
-            report.setLastSession(lastRecord.getDate());
-            
-            // Calcular score de progresso (baseado na melhoria das avaliações)
-            if (evolutionRecords.size() > 1) {
-                var firstRecord = evolutionRecords.get(evolutionRecords.size() - 1);
-                var lastRecordRating = lastRecord.getOverallRating() != null ? lastRecord.getOverallRating() : 0;
-                var firstRecordRating = firstRecord.getOverallRating() != null ? firstRecord.getOverallRating() : 0;
-                
-                double progressScore = ((double) (lastRecordRating - firstRecordRating) / 5.0) * 100;
-                report.setProgressScore(Math.max(0, Math.min(100, progressScore + 50))); // Normalizar entre 0-100
-            }
-        }
+        // Sessões, avaliações e medidas, a partir das séries em memória do aluno
+        studentProgressService.fill(studentId, report);
         
         return report;
     }
+    
+    private List<ReportDTO.InstructorPerformance> buildInstructorPerformances(ScheduleAggregation aggregation,
+                                                                           LocalDate startDate, LocalDate endDate) {
+        Map<Long, Double> ratings = new HashMap<>();
+        evolutionRecordRepository.getAverageRatingByInstructorBetweenDates(startDate, endDate)
+            .forEach(rating -> ratings.put(rating.getInstructorId(), rating.getAverageRating()));
+        Map<Long, Long> students = new HashMap<>();
+        scheduleRepository.countStudentsByInstructorBetweenDates(startDate, endDate)
+            .forEach(count -> students.put(count.getInstructorId(), count.getStudentCount()));
+        
+        return aggregation.getByInstructor().entrySet().stream()
+            .map(entry -> {
+                Long instructorId = entry.getKey();
+                ScheduleAggregation.Bucket bucket = entry.getValue();
+                long scheduled = bucket.getCount() - bucket.count(Schedule.ScheduleStatus.CANCELADO);
+                
+                ReportDTO.InstructorPerformance performance = new ReportDTO.InstructorPerformance();
+                performance.setInstructorId(instructorId);
+                performance.setInstructorName(aggregation.getInstructorName(instructorId));
+                performance.setTotalClasses(bucket.getCount());
+                performance.setTotalRevenue(bucket.getRevenue());
+                performance.setAverageRating(ratings.get(instructorId));
+                performance.setTotalStudents(students.getOrDefault(instructorId, 0L));
+                performance.setAttendanceRate(
+                    scheduled > 0 ? (double) bucket.count(Schedule.ScheduleStatus.CONCLUIDO) / scheduled * 100 : 0.0
+                );
+                return performance;
+            })
+            .sorted(Comparator.comparing(ReportDTO.InstructorPerformance::getTotalRevenue).reversed())
+            .toList();
+    }
+    
+    private List<ReportDTO.ClassTypeStats> buildClassTypeStats(ScheduleAggregation aggregation,
+                                                               LocalDate startDate, LocalDate endDate) {
+        long totalClasses = aggregation.getTotal().getCount();
+        Map<String, Long> students = new HashMap<>();
+        scheduleRepository.countStudentsByTypeBetweenDates(startDate, endDate)
+            .forEach(count -> students.put(count.getType(), count.getStudentCount()));
+        
+        return aggregation.getByType().entrySet().stream()
+            .map(entry -> {
+                ScheduleAggregation.Bucket bucket = entry.getValue();
+                
+                ReportDTO.ClassTypeStats stats = new ReportDTO.ClassTypeStats();
+                stats.setClassType(entry.getKey());
+                stats.setTotalClasses(bucket.getCount());
+                stats.setTotalRevenue(bucket.getRevenue());
+                stats.setAveragePrice(
+                    bucket.getAmount().divide(BigDecimal.valueOf(bucket.getCount()), 2, RoundingMode.HALF_UP).doubleValue()
+                );
+                stats.setUniqueStudents(students.getOrDefault(entry.getKey(), 0L));
+                stats.setPercentage((double) bucket.getCount() / totalClasses * 100);
+                return stats;
+            })
+            .sorted(Comparator.comparing(ReportDTO.ClassTypeStats::getTotalClasses).reversed())
+            .toList();
+    }
 }
\ No newline at end of file
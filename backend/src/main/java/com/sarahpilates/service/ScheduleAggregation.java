@@ -0,0 +1,139 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.repository.projection.RollupTotals;
+import com.sarahpilates.repository.projection.ScheduleRollupRow;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Totais dos agendamentos de um período, somados a partir da tabela de totais
+ * diários: totais gerais e agrupamentos por tipo de aula, instrutor e dia. A
+ * memória usada depende apenas do número de grupos, não do número de
+ * agendamentos. Contagens de alunos distintos e a frequência por aluno não se
+ * somam entre dias e são consultadas à parte.
+ */
+@Getter
+@EqualsAndHashCode
+public class ScheduleAggregation {
+    
+    private final Bucket total = new Bucket();
+    
+    private final Map<String, Bucket> byType = new HashMap<>();
+    private final Map<Long, Bucket> byInstructor = new HashMap<>();
+    private final Map<LocalDate, Bucket> byDay = new TreeMap<>();
+    
+    private final Map<Long, String> instructorNames = new HashMap<>();
+    
+    public static ScheduleAggregation ofRollup(List<? extends ScheduleRollupRow> rows) {
+        ScheduleAggregation aggregation = new ScheduleAggregation();
+        rows.forEach(aggregation::acceptRollup);
+        return aggregation;
+    }
+    
+    // Linhas zeradas continuam na tabela até a próxima reconstrução e são ignoradas
+    public void acceptRollup(ScheduleRollupRow row) {
+        Bucket bucket = Bucket.of(row);
+        if (bucket.count == 0) {
+            return;
+        }
+        total.merge(bucket);
+        byType.computeIfAbsent(row.getType(), k -> new Bucket()).merge(bucket);
+        byInstructor.computeIfAbsent(row.getInstructorId(), k -> new Bucket()).merge(bucket);
+        byDay.computeIfAbsent(row.getDate(), k -> new Bucket()).merge(bucket);
+        
+        instructorNames.putIfAbsent(row.getInstructorId(), row.getInstructorName());
+    }
+    
+    public String getInstructorName(Long instructorId) {
+        return instructorNames.get(instructorId);
+    }
+    
+    /**
+     * Contagens por status de agendamento e por status de pagamento, com os
+     * valores somados por status de pagamento.
+     */
+    @Getter
+    @EqualsAndHashCode
+    public static class Bucket {
+        
+        private long count;
+        
+        private final EnumMap<Schedule.ScheduleStatus, Long> countByStatus =
+                new EnumMap<>(Schedule.ScheduleStatus.class);
+        private final EnumMap<Schedule.PaymentStatus, Long> countByPaymentStatus =
+                new EnumMap<>(Schedule.PaymentStatus.class);
+        private final EnumMap<Schedule.PaymentStatus, BigDecimal> amountByPaymentStatus =
+                new EnumMap<>(Schedule.PaymentStatus.class);
+        
+        public static Bucket of(RollupTotals totals) {
+            Bucket bucket = new Bucket();
+            bucket.put(Schedule.ScheduleStatus.AGENDADO, totals.getScheduledCount());
+            bucket.put(Schedule.ScheduleStatus.CONFIRMADO, totals.getConfirmedCount());
+            bucket.put(Schedule.ScheduleStatus.CONCLUIDO, totals.getCompletedCount());
+            bucket.put(Schedule.ScheduleStatus.CANCELADO, totals.getCanceledCount());
+            bucket.put(Schedule.ScheduleStatus.FALTA, totals.getNoShowCount());
+            bucket.put(Schedule.PaymentStatus.PENDENTE, totals.getPendingCount(), totals.getPendingAmount());
+            bucket.put(Schedule.PaymentStatus.PAGO, totals.getPaidCount(), totals.getPaidAmount());
+            bucket.put(Schedule.PaymentStatus.ISENTO, totals.getExemptCount(), totals.getExemptAmount());
+            return bucket;
+        }
+        
+        void merge(Bucket other) {
+            count += other.count;
+            other.countByStatus.forEach((status, value) -> countByStatus.merge(status, value, Long::sum));
+            other.countByPaymentStatus.forEach((status, value) -> countByPaymentStatus.merge(status, value, Long::sum));
+            other.amountByPaymentStatus.forEach((status, value) ->
+                    amountByPaymentStatus.merge(status, value, BigDecimal::add));
+        }
+        
+        private void put(Schedule.ScheduleStatus status, long value) {
+            if (value != 0) {
+                count += value;
+                countByStatus.put(status, value);
+            }
+        }
+        
+        private void put(Schedule.PaymentStatus paymentStatus, long value, BigDecimal amount) {
+            if (value != 0) {
+                countByPaymentStatus.put(paymentStatus, value);
+                amountByPaymentStatus.put(paymentStatus, amount);
+            }
+        }
+        
+        public long count(Schedule.ScheduleStatus status) {
+            return countByStatus.getOrDefault(status, 0L);
+        }
+        
+        public long count(Schedule.PaymentStatus paymentStatus) {
+            return countByPaymentStatus.getOrDefault(paymentStatus, 0L);
+        }
+        
+        public BigDecimal amount(Schedule.PaymentStatus paymentStatus) {
+            return amountByPaymentStatus.getOrDefault(paymentStatus, BigDecimal.ZERO);
+        }
+        
+        // Valor de todas as aulas, independente do pagamento
+        public BigDecimal getAmount() {
+            return amountByPaymentStatus.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+        
+        // Receita considera apenas aulas pagas
+        public BigDecimal getRevenue() {
+            return amount(Schedule.PaymentStatus.PAGO);
+        }
+        
+        // Aulas concluídas sobre o total, em percentual
+        public double getAttendanceRate() {
+            return count == 0 ? 0.0 : (double) count(Schedule.ScheduleStatus.CONCLUIDO) / count * 100;
+        }
+    }
+}
\ No newline at end of file
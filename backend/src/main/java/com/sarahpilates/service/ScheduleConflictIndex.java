@@ -0,0 +1,266 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.repository.ScheduleRepository;
+import com.sarahpilates.repository.projection.ScheduleSlotView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em memória dos horários ocupados por instrutor e data, usado para
+ * detectar conflitos de agendamento sem ida ao banco.
+ *
+ * Cada par (instrutor, data) guarda um array imutável de horários ordenado
+ * pelo início, com o maior horário de término acumulado, o que permite
+ * localizar sobreposições com busca binária. Datas fora da janela carregada
+ * na inicialização são lidas do banco na primeira consulta.
+ *
+ * Toda alteração incrementa uma geração, protegida pelo monitor do índice;
+ * uma leitura do banco só é publicada se nenhuma alteração chegou enquanto
+ * ela era feita, senão é refeita.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleConflictIndex {
+    
+    private final ScheduleRepository scheduleRepository;
+    
+    @Value("${sarah-pilates.schedule.conflict-index.warm-up-days-back:7}")
+    private int warmUpDaysBack;
+    
+    private final Map<SlotKey, DaySlots> slotsByKey = new ConcurrentHashMap<>();
+    private final Map<Long, SlotKey> keyBySchedule = new ConcurrentHashMap<>();
+    
+    private volatile LocalDate warmedFrom = LocalDate.MAX;
+    private long generation;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDate fromDate = LocalDate.now().minusDays(warmUpDaysBack);
+        List<ScheduleSlotView> views = scheduleRepository.findActiveSlotsFrom(fromDate);
+        
+        Map<SlotKey, List<Slot>> grouped = new HashMap<>();
+        for (ScheduleSlotView view : views) {
+            grouped.computeIfAbsent(new SlotKey(view.getInstructorId(), view.getDate()), k -> new ArrayList<>())
+                    .add(Slot.from(view));
+        }
+        grouped.forEach((key, slots) -> {
+            slotsByKey.put(key, DaySlots.of(slots));
+            slots.forEach(slot -> keyBySchedule.put(slot.scheduleId(), key));
+        });
+        warmedFrom = fromDate;
+        
+        log.info("Índice de conflitos carregado: {} horários em {} agendas a partir de {}",
+                views.size(), grouped.size(), fromDate);
+    }
+    
+    /**
+     * Retorna os horários ativos do instrutor que se sobrepõem ao intervalo
+     * informado, ignorando o próprio agendamento quando {@code excludeScheduleId}
+     * não for nulo.
+     */
+    public List<Slot> findConflicts(Long instructorId, LocalDate date, LocalTime startTime, LocalTime endTime,
+                                    Long excludeScheduleId) {
+        DaySlots daySlots = load(new SlotKey(instructorId, date));
+        List<Slot> conflicts = daySlots.overlapping(startTime, endTime);
+        if (excludeScheduleId != null) {
+            conflicts.removeIf(slot -> slot.scheduleId().equals(excludeScheduleId));
+        }
+        return conflicts;
+    }
+    
+    /**
+     * Registra o estado atual do agendamento no índice. Agendamentos cancelados
+     * deixam de ocupar o horário.
+     */
+    public synchronized void index(Schedule schedule) {
+        remove(schedule.getId());
+        if (schedule.getStatus() == Schedule.ScheduleStatus.CANCELADO) {
+            return;
+        }
+        
+        SlotKey key = new SlotKey(schedule.getInstructor().getId(), schedule.getDate());
+        Slot slot = new Slot(schedule.getId(), schedule.getStartTime(), schedule.getEndTime());
+        
+        // Agendas ainda não carregadas serão lidas do banco, já com este horário
+        if (!isWarmed(key)) {
+            return;
+        }
+        slotsByKey.compute(key, (k, current) -> (current == null ? DaySlots.EMPTY : current).with(slot));
+        keyBySchedule.put(slot.scheduleId(), key);
+    }
+    
+    public synchronized void remove(Long scheduleId) {
+        advance();
+        SlotKey key = keyBySchedule.remove(scheduleId);
+        if (key != null) {
+            slotsByKey.computeIfPresent(key, (k, current) -> current.without(scheduleId));
+        }
+    }
+    
+    /**
+     * Relê do banco a agenda do instrutor na data, descartando a versão em
+     * memória.
+     */
+    public void evict(Long instructorId, LocalDate date) {
+        advance();
+        read(new SlotKey(instructorId, date));
+    }
+    
+    private boolean isWarmed(SlotKey key) {
+        return slotsByKey.containsKey(key) || !key.date().isBefore(warmedFrom);
+    }
+    
+    private DaySlots load(SlotKey key) {
+        DaySlots current = slotsByKey.get(key);
+        if (current != null) {
+            return current;
+        }
+        if (!key.date().isBefore(warmedFrom)) {
+            return DaySlots.EMPTY;
+        }
+        return read(key);
+    }
+    
+    private DaySlots read(SlotKey key) {
+        while (true) {
+            long seen = generation();
+            List<Slot> slots = scheduleRepository.findActiveSlots(key.instructorId(), key.date()).stream()
+                    .map(Slot::from)
+                    .toList();
+            DaySlots loaded = publish(key, slots, seen);
+            if (loaded != null) {
+                return loaded;
+            }
+        }
+    }
+    
+    // Uma alteração gravada durante a leitura pode faltar nela: a leitura é descartada
+    private synchronized DaySlots publish(SlotKey key, List<Slot> slots, long seen) {
+        if (generation != seen) {
+            return null;
+        }
+        DaySlots previous = slotsByKey.get(key);
+        if (previous != null) {
+            for (Slot slot : previous.slots) {
+                keyBySchedule.remove(slot.scheduleId());
+            }
+        }
+        DaySlots loaded = DaySlots.of(slots);
+        slotsByKey.put(key, loaded);
+        slots.forEach(slot -> keyBySchedule.put(slot.scheduleId(), key));
+        return loaded;
+    }
+    
+    private synchronized long generation() {
+        return generation;
+    }
+    
+    private synchronized void advance() {
+        generation++;
+    }
+    
+    private record SlotKey(Long instructorId, LocalDate date) {
+    }
+    
+    public record Slot(Long scheduleId, LocalTime startTime, LocalTime endTime) {
+        
+        static Slot from(ScheduleSlotView view) {
+            return new Slot(view.getId(), view.getStartTime(), view.getEndTime());
+        }
+        
+        @Override
+        public String toString() {
+            return startTime + "-" + endTime + " (agendamento #" + scheduleId + ")";
+        }
+    }
+    
+    /**
+     * Horários de um instrutor em uma data, ordenados pelo início. {@code maxEnd[i]}
+     * guarda o maior término entre os horários 0..i, o que delimita a varredura
+     * mesmo quando há sobreposições antigas gravadas no banco.
+     */
+    private static final class DaySlots {
+        
+        static final DaySlots EMPTY = new DaySlots(new Slot[0]);
+        
+        private static final Comparator<Slot> BY_START = Comparator
+                .comparing(Slot::startTime)
+                .thenComparing(Slot::endTime)
+                .thenComparing(Slot::scheduleId);
+        
+        private final Slot[] slots;
+        private final LocalTime[] maxEnd;
+        
+        private DaySlots(Slot[] sortedSlots) {
+            this.slots = sortedSlots;
+            this.maxEnd = new LocalTime[sortedSlots.length];
+            for (int i = 0; i < sortedSlots.length; i++) {
+                LocalTime end = sortedSlots[i].endTime();
+                maxEnd[i] = i == 0 || end.isAfter(maxEnd[i - 1]) ? end : maxEnd[i - 1];
+            }
+        }
+        
+        static DaySlots of(Collection<Slot> slots) {
+            Slot[] sorted = slots.toArray(new Slot[0]);
+            Arrays.sort(sorted, BY_START);
+            return new DaySlots(sorted);
+        }
+        
+        DaySlots with(Slot slot) {
+            List<Slot> copy = new ArrayList<>(Arrays.asList(slots));
+            copy.add(slot);
+            return of(copy);
+        }
+        
+        DaySlots without(Long scheduleId) {
+            List<Slot> copy = new ArrayList<>(Arrays.asList(slots));
+            copy.removeIf(slot -> slot.scheduleId().equals(scheduleId));
+            return of(copy);
+        }
+        
+        /**
+         * Mesmo critério de {@code findConflictingSchedules}: o horário existente
+         * começa antes do fim do novo e termina depois do seu início. Os serviços
+         * recusam horários com fim igual ou anterior ao início.
+         */
+        List<Slot> overlapping(LocalTime startTime, LocalTime endTime) {
+            // Primeiro índice cujo início não é anterior ao fim do novo horário
+            int low = 0;
+            int high = slots.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (slots[mid].startTime().isBefore(endTime)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            
+            List<Slot> conflicts = new ArrayList<>();
+            for (int i = low - 1; i >= 0 && maxEnd[i].isAfter(startTime); i--) {
+                if (slots[i].endTime().isAfter(startTime)) {
+                    conflicts.add(slots[i]);
+                }
+            }
+            conflicts.sort(BY_START);
+            return conflicts;
+        }
+    }
+}
\ No newline at end of file
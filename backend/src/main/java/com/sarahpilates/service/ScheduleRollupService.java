@@ -0,0 +1,228 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.entity.DailyScheduleRollup;
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.repository.DailyScheduleRollupRepository;
+import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.ScheduleRepository;
+import com.sarahpilates.repository.ScheduleRollupCounterRepository;
+import com.sarahpilates.repository.projection.ScheduleRollupSource;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Mantém a tabela {@code daily_schedule_rollup}: cada alteração de agendamento
+ * retira a contribuição do estado anterior e soma a do novo estado na linha
+ * (data, instrutor, tipo, sala) correspondente, na mesma transação. As
+ * diferenças são gravadas com um comando que insere a linha ou soma à
+ * existente, sem consulta prévia: a criação da mesma linha por duas transações
+ * simultâneas não falha nem gera deadlock.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class ScheduleRollupService {
+    
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparing(RollupKey::date)
+            .thenComparing(RollupKey::instructorId)
+            .thenComparing(RollupKey::type)
+            .thenComparing(RollupKey::room);
+    
+    private final DailyScheduleRollupRepository rollupRepository;
+    private final ScheduleRollupCounterRepository counterRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final InstructorRepository instructorRepository;
+    private final EntityManager entityManager;
+    
+    // Reconstrói a tabela na primeira inicialização com agendamentos já cadastrados
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (rollupRepository.count() > 0) {
+            return;
+        }
+        LocalDate firstDate = scheduleRepository.findFirstDate();
+        if (firstDate != null) {
+            rebuild(firstDate, scheduleRepository.findLastDate());
+        }
+    }
+    
+    /**
+     * Substitui a contribuição {@code previous} por {@code current}. Qualquer um
+     * dos dois pode ser nulo, para agendamentos criados ou excluídos.
+     */
+    public void apply(Snapshot previous, Snapshot current) {
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        applyAll(previous != null ? List.of(previous) : List.of(), current != null ? List.of(current) : List.of());
+    }
+    
+    /**
+     * Soma a contribuição de vários agendamentos novos, como os de uma série
+     * recorrente.
+     */
+    public void addAll(Collection<Snapshot> snapshots) {
+        applyAll(List.of(), snapshots);
+    }
+    
+    /**
+     * Versão em lote de {@link #apply}: retira {@code removed} e soma
+     * {@code added}. As diferenças são somadas por linha (data, instrutor, tipo,
+     * sala) e gravadas com um comando por linha, que cria a linha se ela ainda
+     * não existe.
+     */
+    public void applyAll(Collection<Snapshot> removed, Collection<Snapshot> added) {
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+        // Sempre na mesma ordem de chave, como em ClassAttendanceService
+        Map<RollupKey, DailyScheduleRollup> deltas = new TreeMap<>(KEY_ORDER);
+        removed.forEach(snapshot -> addTo(deltas.computeIfAbsent(RollupKey.of(snapshot), this::newRollup),
+                snapshot, -1));
+        added.forEach(snapshot -> addTo(deltas.computeIfAbsent(RollupKey.of(snapshot), this::newRollup),
+                snapshot, 1));
+        counterRepository.addAll(List.copyOf(deltas.values()));
+    }
+    
+    @Transactional(readOnly = true)
+    public ScheduleAggregation aggregate(LocalDate startDate, LocalDate endDate) {
+        return ScheduleAggregation.ofRollup(rollupRepository.sumByDayInstructorAndType(startDate, endDate));
+    }
+    
+    @Transactional(readOnly = true)
+    public ScheduleAggregation.Bucket totals(LocalDate startDate, LocalDate endDate) {
+        return ScheduleAggregation.Bucket.of(rollupRepository.sumBetweenDates(startDate, endDate));
+    }
+    
+    /**
+     * Recalcula os totais do período a partir dos agendamentos, um dia por vez.
+     * As linhas do período ficam bloqueadas até o fim da transação, portanto
+     * alterações de agendamentos nessas datas aguardam a reconstrução.
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("Data final deve ser posterior à data inicial");
+        }
+        rollupRepository.deleteByDateBetween(startDate, endDate);
+        
+        int written = 0;
+        Map<RollupKey, DailyScheduleRollup> day = new LinkedHashMap<>();
+        try (Stream<ScheduleRollupSource> sources = scheduleRepository.streamRollupSources(startDate, endDate)) {
+            Iterator<ScheduleRollupSource> iterator = sources.iterator();
+            LocalDate currentDate = null;
+            while (iterator.hasNext()) {
+                Snapshot snapshot = Snapshot.of(iterator.next());
+                if (!snapshot.date().equals(currentDate)) {
+                    written += flush(day);
+                    currentDate = snapshot.date();
+                }
+                DailyScheduleRollup rollup = day.computeIfAbsent(RollupKey.of(snapshot), this::newRollup);
+                addTo(rollup, snapshot, 1);
+            }
+        }
+        written += flush(day);
+        
+        log.info("Totais diários de agendamentos reconstruídos de {} a {}: {} linhas", startDate, endDate, written);
+        return written;
+    }
+    
+    private int flush(Map<RollupKey, DailyScheduleRollup> day) {
+        int size = day.size();
+        if (size > 0) {
+            rollupRepository.saveAll(day.values());
+            rollupRepository.flush();
+            entityManager.clear();
+            day.clear();
+        }
+        return size;
+    }
+    
+    private DailyScheduleRollup newRollup(RollupKey key) {
+        DailyScheduleRollup rollup = new DailyScheduleRollup();
+        rollup.setDate(key.date());
+        rollup.setInstructor(instructorRepository.getReferenceById(key.instructorId()));
+        rollup.setType(key.type());
+        rollup.setRoom(key.room());
+        return rollup;
+    }
+    
+    private void addTo(DailyScheduleRollup rollup, Snapshot snapshot, int sign) {
+        switch (snapshot.status()) {
+            case AGENDADO -> rollup.setScheduledCount(rollup.getScheduledCount() + sign);
+            case CONFIRMADO -> rollup.setConfirmedCount(rollup.getConfirmedCount() + sign);
+            case CONCLUIDO -> rollup.setCompletedCount(rollup.getCompletedCount() + sign);
+            case CANCELADO -> rollup.setCanceledCount(rollup.getCanceledCount() + sign);
+            case FALTA -> rollup.setNoShowCount(rollup.getNoShowCount() + sign);
+        }
+        
+        BigDecimal amount = sign > 0 ? snapshot.price() : snapshot.price().negate();
+        switch (snapshot.paymentStatus()) {
+            case PENDENTE -> {
+                rollup.setPendingCount(rollup.getPendingCount() + sign);
+                rollup.setPendingAmount(rollup.getPendingAmount().add(amount));
+            }
+            case PAGO -> {
+                rollup.setPaidCount(rollup.getPaidCount() + sign);
+                rollup.setPaidAmount(rollup.getPaidAmount().add(amount));
+            }
+            case ISENTO -> {
+                rollup.setExemptCount(rollup.getExemptCount() + sign);
+                rollup.setExemptAmount(rollup.getExemptAmount().add(amount));
+            }
+        }
+        
+        rollup.setTotalMinutes(rollup.getTotalMinutes() + sign * snapshot.minutes());
+    }
+    
+    /**
+     * Campos do agendamento que contribuem para os totais diários. Deve ser
+     * capturado antes de alterar o agendamento.
+     */
+    public record Snapshot(LocalDate date, Long instructorId, String type, String room,
+                           Schedule.ScheduleStatus status, Schedule.PaymentStatus paymentStatus,
+                           BigDecimal price, long minutes) {
+        
+        public static Snapshot of(Schedule schedule) {
+            return new Snapshot(schedule.getDate(), schedule.getInstructor().getId(), schedule.getType(),
+                    schedule.getRoom(), schedule.getStatus(), schedule.getPaymentStatus(), schedule.getPrice(),
+                    minutes(schedule.getStartTime(), schedule.getEndTime()));
+        }
+        
+        static Snapshot of(ScheduleRollupSource source) {
+            return new Snapshot(source.getDate(), source.getInstructorId(), source.getType(), source.getRoom(),
+                    source.getStatus(), source.getPaymentStatus(), source.getPrice(),
+                    minutes(source.getStartTime(), source.getEndTime()));
+        }
+        
+        private static long minutes(LocalTime startTime, LocalTime endTime) {
+            return Duration.between(startTime, endTime).toMinutes();
+        }
+    }
+    
+    private record RollupKey(LocalDate date, Long instructorId, String type, String room) {
+        
+        static RollupKey of(Snapshot snapshot) {
+            return new RollupKey(snapshot.date(), snapshot.instructorId(), snapshot.type(), snapshot.room());
+        }
+    }
+}
\ No newline at end of file
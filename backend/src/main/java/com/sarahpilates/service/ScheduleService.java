@@ -1,39 +1,76 @@
 package com.sarahpilates.service;
 
+import com.sarahpilates.dto.BulkStatusRequest;
+import com.sarahpilates.dto.BulkStatusResult;
+import com.sarahpilates.dto.CursorPage;
+import com.sarahpilates.dto.ScheduleDTO;
+import com.sarahpilates.dto.ScheduleSeriesRequest;
+import com.sarahpilates.dto.ScheduleSeriesResult;
 import com.sarahpilates.entity.Schedule;
 import com.sarahpilates.entity.Student;
 import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.event.ScheduleChangedEvent;
+import com.sarahpilates.exception.ScheduleConflictException;
+import com.sarahpilates.repository.ScheduleBatchRepository;
 import com.sarahpilates.repository.ScheduleRepository;
 import com.sarahpilates.repository.StudentRepository;
 import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.projection.ScheduleSlotView;
+import com.sarahpilates.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Slf4j
 public class ScheduleService {
     
     private final ScheduleRepository scheduleRepository;
+    private final ScheduleBatchRepository scheduleBatchRepository;
     private final StudentRepository studentRepository;
     private final InstructorRepository instructorRepository;
-    private final StudentService studentService;
-    private final InstructorService instructorService;
+    private final ScheduleConflictIndex conflictIndex;
+    private final ScheduleRollupService rollupService;
+    private final ClassAttendanceService attendanceService;
+    private final IdempotencyService idempotencyService;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final int MAX_SERIES_MONTHS = 12;
+    
+    @Value("${sarah-pilates.schedule.conflict-index.verify:false}")
+    private boolean verifyConflicts;
     
     public List<Schedule> findAll() {
-        return scheduleRepository.findAll();
+        return initializeCollections(scheduleRepository.findAll());
     }
     
     public Page<Schedule> findAll(Pageable pageable) {
-        return scheduleRepository.findAll(pageable);
+        return initializeCollections(scheduleRepository.findAll(pageable));
     }
     
     public Optional<Schedule> findById(Long id) {
@@ -41,30 +78,139 @@ public class ScheduleService {
     }
     
     public List<Schedule> findByDate(LocalDate date) {
-        return scheduleRepository.findByDate(date);
+        return initializeCollections(scheduleRepository.findByDate(date));
     }
     
     public List<Schedule> findByDateRange(LocalDate startDate, LocalDate endDate) {
-        return scheduleRepository.findByDateBetween(startDate, endDate);
+        return initializeCollections(scheduleRepository.findByDateBetween(startDate, endDate));
     }
     
     public List<Schedule> findByStudentId(Long studentId) {
-        return scheduleRepository.findByStudentId(studentId);
+        return initializeCollections(scheduleRepository.findByStudentId(studentId));
     }
     
     public List<Schedule> findByInstructorId(Long instructorId) {
-        return scheduleRepository.findByInstructorId(instructorId);
+        return initializeCollections(scheduleRepository.findByInstructorId(instructorId));
     }
     
     public List<Schedule> findByStatus(Schedule.ScheduleStatus status) {
-        return scheduleRepository.findByStatus(status);
+        return initializeCollections(scheduleRepository.findByStatus(status));
     }
     
     public Page<Schedule> search(String searchTerm, Pageable pageable) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return scheduleRepository.findAll(pageable);
+            return findAll(pageable);
+        }
+        return initializeCollections(searchIndexService.search(SearchIndex.Kind.SCHEDULE, null, searchTerm, pageable,
+                        scheduleRepository::findAllById, Schedule::getId)
+                .orElseGet(() -> scheduleRepository.findBySearchTerm(searchTerm.trim(), pageable)));
+    }
+    
+    /**
+     * Página de agendamentos para as listagens, já projetada em
+     * {@link ScheduleDTO}: uma consulta para a página (mais a contagem) e uma
+     * para os equipamentos de todas as linhas.
+     */
+    public Page<ScheduleDTO> findSummaries(String searchTerm, Pageable pageable) {
+        Page<ScheduleDTO> schedules;
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            schedules = scheduleRepository.findSummaries(pageable);
+        } else {
+            schedules = searchIndexService.search(SearchIndex.Kind.SCHEDULE, null, searchTerm, pageable,
+                            scheduleRepository::findSummariesByIdIn, ScheduleDTO::getId)
+                    .orElseGet(() -> scheduleRepository.findSummariesBySearchTerm(searchTerm.trim(), pageable));
+        }
+        fillEquipment(schedules.getContent());
+        return schedules;
+    }
+    
+    /**
+     * Página por cursor, dos agendamentos mais recentes para os mais antigos,
+     * opcionalmente só de um aluno. O cursor guarda (data, início, id) do último
+     * agendamento entregue.
+     */
+    public CursorPage<ScheduleDTO> findSummariesByCursor(Long studentId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor, 3);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Uma linha a mais só para saber se há próxima página
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<ScheduleDTO> rows = studentId == null
+                ? scheduleRepository.findSummariesBefore(after.date(0), after.time(1), after.id(2), window)
+                : scheduleRepository.findSummariesByStudentIdBefore(studentId, after.date(0), after.time(1),
+                        after.id(2), window);
+        CursorPage<ScheduleDTO> page = CursorPage.of(rows, pageSize,
+                last -> KeysetCursor.encode(last.getDate(), last.getStartTime(), last.getId()));
+        fillEquipment(page.getContent());
+        return page;
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamSummariesByDate(LocalDate date, Consumer<ScheduleDTO> sink) {
+        stream(scheduleRepository.streamSummariesByDateBetween(date, date), sink);
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamSummariesByDateRange(LocalDate startDate, LocalDate endDate, Consumer<ScheduleDTO> sink) {
+        stream(scheduleRepository.streamSummariesByDateBetween(startDate, endDate), sink);
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamSummariesByStudentId(Long studentId, Consumer<ScheduleDTO> sink) {
+        stream(scheduleRepository.streamSummariesByStudentId(studentId), sink);
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamSummariesByInstructorId(Long instructorId, Consumer<ScheduleDTO> sink) {
+        stream(scheduleRepository.streamSummariesByInstructorId(instructorId), sink);
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamSummariesByStatus(Schedule.ScheduleStatus status, Consumer<ScheduleDTO> sink) {
+        stream(scheduleRepository.streamSummariesByStatus(status), sink);
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamUpcomingSummaries(Consumer<ScheduleDTO> sink) {
+        stream(scheduleRepository.streamSummariesByDateAndStatusIn(
+                LocalDate.now().plusDays(1),
+                List.of(Schedule.ScheduleStatus.AGENDADO, Schedule.ScheduleStatus.CONFIRMADO)
+        ), sink);
+    }
+    
+    /**
+     * Repassa os agendamentos para {@code sink} conforme são lidos, em blocos
+     * de {@link #STREAM_CHUNK_SIZE}: cada bloco custa uma consulta de
+     * equipamentos e a lista completa nunca fica em memória.
+     */
+    private void stream(Stream<ScheduleDTO> source, Consumer<ScheduleDTO> sink) {
+        List<ScheduleDTO> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        try (source) {
+            for (ScheduleDTO schedule : (Iterable<ScheduleDTO>) source::iterator) {
+                chunk.add(schedule);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    emit(chunk, sink);
+                }
+            }
         }
-        return scheduleRepository.findBySearchTerm(searchTerm.trim(), pageable);
+        emit(chunk, sink);
+    }
+    
+    private void emit(List<ScheduleDTO> chunk, Consumer<ScheduleDTO> sink) {
+        fillEquipment(chunk);
+        chunk.forEach(sink);
+        chunk.clear();
+    }
+    
+    private void fillEquipment(List<ScheduleDTO> schedules) {
+        if (schedules.isEmpty()) {
+            return;
+        }
+        Map<Long, List<String>> equipment = new HashMap<>();
+        List<Long> ids = schedules.stream().map(ScheduleDTO::getId).toList();
+        for (Object[] row : scheduleRepository.findEquipmentByScheduleIds(ids)) {
+            equipment.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        schedules.forEach(schedule -> schedule.setEquipment(equipment.getOrDefault(schedule.getId(), List.of())));
     }
     
     public Schedule save(Schedule schedule) {
@@ -77,25 +223,114 @@ public class ScheduleService {
                 .orElseThrow(() -> new RuntimeException("Instrutor não encontrado"));
         
         // Verificar conflitos de horário para o instrutor
-        List<Schedule> conflicts = scheduleRepository.findConflictingSchedules(
-                instructor.getId(), 
-                schedule.getDate(), 
-                schedule.getStartTime(), 
-                schedule.getEndTime()
-        );
+        validateTimes(schedule.getStartTime(), schedule.getEndTime());
+        checkConflicts(instructor.getId(), schedule.getDate(), schedule.getStartTime(), schedule.getEndTime(), null);
         
-        if (!conflicts.isEmpty()) {
-            throw new RuntimeException("Instrutor já possui agendamento neste horário");
+        schedule.setStudent(student);
+        schedule.setInstructor(instructor);
+        
+        Schedule saved = scheduleRepository.save(schedule);
+        rollupService.apply(null, ScheduleRollupService.Snapshot.of(saved));
+        attendanceService.apply(null, ClassAttendanceService.Attendance.of(saved));
+        afterCommit(() -> conflictIndex.index(saved));
+        eventPublisher.publishEvent(new ScheduleChangedEvent(
+                ScheduleChangedEvent.Type.CREATED, saved.getId(), null, saved.getDate(),
+                ScheduleDTO.fromEntity(saved)));
+        return saved;
+    }
+    
+    /**
+     * Cria uma série de aulas recorrentes. Os horários ocupados do instrutor no
+     * período inteiro são lidos em uma consulta; as datas sem conflito são
+     * inseridas em lote e as demais voltam no resultado com os horários que
+     * impediram o agendamento.
+     */
+    public ScheduleSeriesResult createSeries(ScheduleSeriesRequest request) {
+        LocalDate startDate = request.getStartDate();
+        LocalDate endDate = request.getEndDate();
+        LocalTime startTime = request.getStartTime();
+        LocalTime endTime = request.getEndTime();
+        validateTimes(startTime, endTime);
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("Data final deve ser posterior à data inicial");
+        }
+        if (endDate.isAfter(startDate.plusMonths(MAX_SERIES_MONTHS))) {
+            throw new RuntimeException("A série pode ter no máximo " + MAX_SERIES_MONTHS + " meses");
+        }
+        
+        Student student = studentRepository.findById(request.getStudentId())
+                .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
+        Instructor instructor = instructorRepository.findById(request.getInstructorId())
+                .orElseThrow(() -> new RuntimeException("Instrutor não encontrado"));
+        
+        Map<LocalDate, List<ScheduleConflictIndex.Slot>> busy = new HashMap<>();
+        for (ScheduleSlotView view : scheduleRepository.findActiveSlotsBetween(instructor.getId(), startDate, endDate)) {
+            busy.computeIfAbsent(view.getDate(), date -> new ArrayList<>()).add(
+                    new ScheduleConflictIndex.Slot(view.getId(), view.getStartTime(), view.getEndTime()));
         }
         
+        Map<LocalDate, List<String>> conflicts = new LinkedHashMap<>();
+        List<Schedule> schedules = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!request.getDaysOfWeek().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            // Mesmo critério de findConflictingSchedules e do índice de conflitos
+            List<String> overlapping = busy.getOrDefault(date, List.of()).stream()
+                    .filter(slot -> slot.startTime().isBefore(endTime) && slot.endTime().isAfter(startTime))
+                    .map(ScheduleConflictIndex.Slot::toString)
+                    .toList();
+            conflicts.put(date, overlapping);
+            if (overlapping.isEmpty()) {
+                schedules.add(newOccurrence(request, student, instructor, date));
+            }
+        }
+        
+        scheduleBatchRepository.insertAll(schedules);
+        rollupService.addAll(schedules.stream().map(ScheduleRollupService.Snapshot::of).toList());
+        afterCommit(() -> schedules.forEach(conflictIndex::index));
+        
+        Map<LocalDate, Long> created = new HashMap<>();
+        for (Schedule schedule : schedules) {
+            created.put(schedule.getDate(), schedule.getId());
+            eventPublisher.publishEvent(new ScheduleChangedEvent(
+                    ScheduleChangedEvent.Type.CREATED, schedule.getId(), null, schedule.getDate(),
+                    ScheduleDTO.fromEntity(schedule)));
+        }
+        
+        List<ScheduleSeriesResult.Occurrence> occurrences = new ArrayList<>(conflicts.size());
+        conflicts.forEach((date, overlapping) -> occurrences.add(overlapping.isEmpty()
+                ? new ScheduleSeriesResult.Occurrence(date, ScheduleSeriesResult.Status.CRIADO,
+                        created.get(date), List.of())
+                : new ScheduleSeriesResult.Occurrence(date, ScheduleSeriesResult.Status.CONFLITO,
+                        null, overlapping)));
+        log.info("Série do aluno {} com instrutor {}: {} aulas criadas, {} conflitos",
+                student.getId(), instructor.getId(), schedules.size(), occurrences.size() - schedules.size());
+        return new ScheduleSeriesResult(schedules.size(), occurrences.size() - schedules.size(), occurrences);
+    }
+    
+    private static Schedule newOccurrence(ScheduleSeriesRequest request, Student student, Instructor instructor,
+                                          LocalDate date) {
+        Schedule schedule = new Schedule();
         schedule.setStudent(student);
         schedule.setInstructor(instructor);
-        
-        return scheduleRepository.save(schedule);
+        schedule.setDate(date);
+        schedule.setStartTime(request.getStartTime());
+        schedule.setEndTime(request.getEndTime());
+        if (request.getType() != null) {
+            schedule.setType(request.getType());
+        }
+        if (request.getRoom() != null) {
+            schedule.setRoom(request.getRoom());
+        }
+        schedule.setNotes(request.getNotes());
+        schedule.setEquipment(request.getEquipment() != null ? new ArrayList<>(request.getEquipment()) : null);
+        schedule.setPrice(request.getPrice());
+        return schedule;
     }
     
     public Schedule update(Long id, Schedule scheduleDetails) {
-        Schedule schedule = scheduleRepository.findById(id)
+        Schedule schedule = scheduleRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Agendamento não encontrado"));
         
         // Validar se o aluno existe
@@ -107,19 +342,12 @@ public class ScheduleService {
                 .orElseThrow(() -> new RuntimeException("Instrutor não encontrado"));
         
         // Verificar conflitos de horário para o instrutor (excluindo o agendamento atual)
-        List<Schedule> conflicts = scheduleRepository.findConflictingSchedules(
-                instructor.getId(), 
-                scheduleDetails.getDate(), 
-                scheduleDetails.getStartTime(), 
-                scheduleDetails.getEndTime()
-        );
-        
-        conflicts.removeIf(conflict -> conflict.getId().equals(id));
-        
-        if (!conflicts.isEmpty()) {
-            throw new RuntimeException("Instrutor já possui agendamento neste horário");
-        }
+        validateTimes(scheduleDetails.getStartTime(), scheduleDetails.getEndTime());
+        checkConflicts(instructor.getId(), scheduleDetails.getDate(), scheduleDetails.getStartTime(),
+                scheduleDetails.getEndTime(), id);
         
+        ScheduleRollupService.Snapshot previous = ScheduleRollupService.Snapshot.of(schedule);
+        ClassAttendanceService.Attendance previousAttendance = ClassAttendanceService.Attendance.of(schedule);
         schedule.setStudent(student);
         schedule.setInstructor(instructor);
         schedule.setDate(scheduleDetails.getDate());
@@ -133,43 +361,136 @@ public class ScheduleService {
         schedule.setPrice(scheduleDetails.getPrice());
         schedule.setPaymentStatus(scheduleDetails.getPaymentStatus());
         
-        return scheduleRepository.save(schedule);
+        Schedule saved = scheduleRepository.save(schedule);
+        rollupService.apply(previous, ScheduleRollupService.Snapshot.of(saved));
+        attendanceService.apply(previousAttendance, ClassAttendanceService.Attendance.of(saved));
+        afterCommit(() -> conflictIndex.index(saved));
+        eventPublisher.publishEvent(new ScheduleChangedEvent(
+                ScheduleChangedEvent.Type.UPDATED, saved.getId(), previous.date(), saved.getDate(),
+                ScheduleDTO.fromEntity(saved)));
+        return saved;
     }
     
     public Schedule updateStatus(Long id, Schedule.ScheduleStatus status) {
-        Schedule schedule = scheduleRepository.findById(id)
+        Schedule schedule = scheduleRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Agendamento não encontrado"));
         
-        Schedule.ScheduleStatus oldStatus = schedule.getStatus();
+        ScheduleRollupService.Snapshot previous = ScheduleRollupService.Snapshot.of(schedule);
+        ClassAttendanceService.Attendance previousAttendance = ClassAttendanceService.Attendance.of(schedule);
         schedule.setStatus(status);
         
-        // Se a aula foi concluída, incrementar contadores
-        if (status == Schedule.ScheduleStatus.CONCLUIDO && oldStatus != Schedule.ScheduleStatus.CONCLUIDO) {
-            studentService.incrementTotalClasses(schedule.getStudent().getId());
-            instructorService.incrementTotalClasses(schedule.getInstructor().getId());
+        Schedule saved = scheduleRepository.save(schedule);
+        rollupService.apply(previous, ScheduleRollupService.Snapshot.of(saved));
+        attendanceService.apply(previousAttendance, ClassAttendanceService.Attendance.of(saved));
+        afterCommit(() -> conflictIndex.index(saved));
+        eventPublisher.publishEvent(new ScheduleChangedEvent(
+                ScheduleChangedEvent.Type.STATUS_CHANGED, saved.getId(), saved.getDate(), saved.getDate(),
+                ScheduleDTO.fromEntity(saved)));
+        return saved;
+    }
+    
+    /**
+     * Aplica várias mudanças de status em uma transação. Cada agendamento é
+     * comparado entre o estado inicial e o final: os totais diários e os
+     * contadores de aulas de alunos e instrutores são ajustados em lote, com um
+     * UPDATE por linha afetada.
+     *
+     * Com {@code idempotencyKey}, uma nova tentativa com os mesmos dados recebe o
+     * resultado original sem aplicar nada de novo.
+     */
+    public BulkStatusResult updateStatuses(BulkStatusRequest request, String idempotencyKey) {
+        return idempotencyService.execute("schedules.status", idempotencyKey, request, BulkStatusResult.class,
+                () -> applyStatuses(request.getItems()));
+    }
+    
+    private BulkStatusResult applyStatuses(List<BulkStatusRequest.Item> items) {
+        Map<Long, Schedule> schedules = new HashMap<>();
+        scheduleRepository.findAllByIdForUpdate(items.stream().map(BulkStatusRequest.Item::getScheduleId).toList())
+                .forEach(schedule -> schedules.put(schedule.getId(), schedule));
+        
+        // Estado de cada agendamento antes da primeira mudança da requisição
+        Map<Long, ScheduleRollupService.Snapshot> previous = new LinkedHashMap<>();
+        Map<Long, ClassAttendanceService.Attendance> previousAttendance = new HashMap<>();
+        List<BulkStatusResult.Item> results = new ArrayList<>(items.size());
+        int updated = 0;
+        int unchanged = 0;
+        int notFound = 0;
+        for (BulkStatusRequest.Item item : items) {
+            Schedule schedule = schedules.get(item.getScheduleId());
+            if (schedule == null) {
+                results.add(new BulkStatusResult.Item(item.getScheduleId(), null, item.getStatus(),
+                        BulkStatusResult.Outcome.NAO_ENCONTRADO));
+                notFound++;
+                continue;
+            }
+            Schedule.ScheduleStatus oldStatus = schedule.getStatus();
+            if (oldStatus == item.getStatus()) {
+                results.add(new BulkStatusResult.Item(schedule.getId(), oldStatus, oldStatus,
+                        BulkStatusResult.Outcome.SEM_ALTERACAO));
+                unchanged++;
+                continue;
+            }
+            previous.computeIfAbsent(schedule.getId(), id -> ScheduleRollupService.Snapshot.of(schedule));
+            previousAttendance.computeIfAbsent(schedule.getId(),
+                    id -> ClassAttendanceService.Attendance.of(schedule));
+            schedule.setStatus(item.getStatus());
+            results.add(new BulkStatusResult.Item(schedule.getId(), oldStatus, item.getStatus(),
+                    BulkStatusResult.Outcome.ATUALIZADO));
+            updated++;
         }
         
-        return scheduleRepository.save(schedule);
+        List<ScheduleRollupService.Snapshot> removed = new ArrayList<>();
+        List<ScheduleRollupService.Snapshot> added = new ArrayList<>();
+        List<ClassAttendanceService.Attendance> removedAttendance = new ArrayList<>();
+        List<ClassAttendanceService.Attendance> addedAttendance = new ArrayList<>();
+        List<Schedule> changed = new ArrayList<>();
+        previous.forEach((id, before) -> {
+            Schedule schedule = schedules.get(id);
+            if (before.status() == schedule.getStatus()) {
+                return;
+            }
+            removed.add(before);
+            added.add(ScheduleRollupService.Snapshot.of(schedule));
+            removedAttendance.add(previousAttendance.get(id));
+            addedAttendance.add(ClassAttendanceService.Attendance.of(schedule));
+            changed.add(schedule);
+        });
+        
+        rollupService.applyAll(removed, added);
+        attendanceService.applyAll(removedAttendance, addedAttendance);
+        afterCommit(() -> changed.forEach(conflictIndex::index));
+        for (Schedule schedule : changed) {
+            eventPublisher.publishEvent(new ScheduleChangedEvent(
+                    ScheduleChangedEvent.Type.STATUS_CHANGED, schedule.getId(), schedule.getDate(), schedule.getDate(),
+                    ScheduleDTO.fromEntity(schedule)));
+        }
+        log.info("Status em lote: {} atualizados, {} sem alteração, {} não encontrados", updated, unchanged, notFound);
+        return new BulkStatusResult(updated, unchanged, notFound, results);
     }
     
     public void deleteById(Long id) {
-        if (!scheduleRepository.existsById(id)) {
-            throw new RuntimeException("Agendamento não encontrado");
-        }
-        scheduleRepository.deleteById(id);
+        Schedule schedule = scheduleRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Agendamento não encontrado"));
+        
+        scheduleRepository.delete(schedule);
+        rollupService.apply(ScheduleRollupService.Snapshot.of(schedule), null);
+        attendanceService.apply(ClassAttendanceService.Attendance.of(schedule), null);
+        afterCommit(() -> conflictIndex.remove(id));
+        eventPublisher.publishEvent(new ScheduleChangedEvent(
+                ScheduleChangedEvent.Type.DELETED, id, schedule.getDate(), null, null));
     }
     
+    // Contadores lidos da tabela de totais diários
     public Long countConfirmedSchedulesForDate(LocalDate date) {
-        return scheduleRepository.countConfirmedSchedulesForDate(date);
+        return rollupService.totals(date, date).count(Schedule.ScheduleStatus.CONFIRMADO);
     }
     
     public Long countCompletedClassesBetweenDates(LocalDate startDate, LocalDate endDate) {
-        return scheduleRepository.countCompletedClassesBetweenDates(startDate, endDate);
+        return rollupService.totals(startDate, endDate).count(Schedule.ScheduleStatus.CONCLUIDO);
     }
     
     public Double calculateRevenueBetweenDates(LocalDate startDate, LocalDate endDate) {
-        Double revenue = scheduleRepository.calculateRevenueBetweenDates(startDate, endDate);
-        return revenue != null ? revenue : 0.0;
+        return rollupService.totals(startDate, endDate).getRevenue().doubleValue();
     }
     
     public List<Schedule> getTodaySchedules() {
@@ -177,9 +498,76 @@ public class ScheduleService {
     }
     
     public List<Schedule> getUpcomingSchedules() {
-        return scheduleRepository.findByDateAndStatusIn(
+        return initializeCollections(scheduleRepository.findByDateAndStatusIn(
                 LocalDate.now().plusDays(1), 
                 List.of(Schedule.ScheduleStatus.AGENDADO, Schedule.ScheduleStatus.CONFIRMADO)
-        );
+        ));
+    }
+    
+    /**
+     * Carrega equipamentos e especializações ainda dentro da transação. O
+     * Hibernate descarta a fila de carregamento em lote no commit; se a
+     * serialização JSON tocasse essas coleções depois, seria uma consulta por
+     * agendamento. Aqui cada acesso carrega até {@code default_batch_fetch_size}
+     * coleções de uma vez.
+     */
+    private List<Schedule> initializeCollections(List<Schedule> schedules) {
+        for (Schedule schedule : schedules) {
+            Hibernate.initialize(schedule.getEquipment());
+            Hibernate.initialize(schedule.getInstructor().getSpecializations());
+        }
+        return schedules;
+    }
+    
+    private Page<Schedule> initializeCollections(Page<Schedule> schedules) {
+        initializeCollections(schedules.getContent());
+        return schedules;
+    }
+    
+    // Um horário sem duração não ocupa a agenda e escaparia de qualquer verificação de conflito
+    private static void validateTimes(LocalTime startTime, LocalTime endTime) {
+        if (!endTime.isAfter(startTime)) {
+            throw new RuntimeException("Horário de fim deve ser posterior ao horário de início");
+        }
+    }
+    
+    private void checkConflicts(Long instructorId, LocalDate date, LocalTime startTime, LocalTime endTime,
+                                Long excludeScheduleId) {
+        List<ScheduleConflictIndex.Slot> conflicts =
+                conflictIndex.findConflicts(instructorId, date, startTime, endTime, excludeScheduleId);
+        
+        // Modo de verificação: o banco continua sendo a fonte oficial
+        if (verifyConflicts) {
+            List<ScheduleConflictIndex.Slot> dbConflicts =
+                    scheduleRepository.findConflictingSchedules(instructorId, date, startTime, endTime).stream()
+                            .filter(conflict -> !conflict.getId().equals(excludeScheduleId))
+                            .map(conflict -> new ScheduleConflictIndex.Slot(
+                                    conflict.getId(), conflict.getStartTime(), conflict.getEndTime()))
+                            .toList();
+            
+            if (!new HashSet<>(dbConflicts).equals(new HashSet<>(conflicts))) {
+                log.warn("Índice de conflitos divergente para instrutor {} em {}: índice={}, banco={}",
+                        instructorId, date, conflicts, dbConflicts);
+                conflictIndex.evict(instructorId, date);
+            }
+            conflicts = dbConflicts;
+        }
+        
+        if (!conflicts.isEmpty()) {
+            throw new ScheduleConflictException(conflicts);
+        }
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
\ No newline at end of file
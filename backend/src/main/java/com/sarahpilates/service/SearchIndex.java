@@ -0,0 +1,338 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.util.StringUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido (Lucene), em memória, usado nas buscas textuais das listagens.
+ *
+ * Os textos são quebrados em palavras, sem acentos e em minúsculas, tanto na
+ * indexação quanto na consulta. Cada palavra digitada precisa aparecer, por
+ * inteiro ou como prefixo, em algum campo do documento; o nome pesa mais que
+ * os demais campos. O resultado é uma página de ids, ordenada por relevância e
+ * depois por id, que o chamador carrega do banco em lote.
+ *
+ * Telefones, CPFs e e-mails também são indexados como sequências de trigramas
+ * (telefone e CPF só com dígitos), de modo que um trecho qualquer do contato
+ * ("98765", "456.789", "silva@") é encontrado pela interseção das listas de
+ * cada trigrama, com as posições garantindo que sejam consecutivos.
+ */
+@Component
+@Slf4j
+public class SearchIndex {
+    
+    public enum Kind {
+        STUDENT, INSTRUCTOR, SCHEDULE, EVOLUTION_RECORD, PHYSICAL_EVALUATION
+    }
+    
+    private static final String UID = "uid";
+    private static final String KIND = "kind";
+    private static final String ID = "id";
+    private static final String FILTER = "filter";
+    private static final String PRIMARY = "primary";
+    private static final String SECONDARY = "secondary";
+    private static final String CONTACT = "contact";
+    
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{M}\\p{N}]+");
+    private static final Pattern NUMERIC = Pattern.compile("[\\d\\s().+/-]*\\d[\\d\\s().+/-]*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int GRAM_SIZE = 3;
+    private static final Sort RELEVANCE = new Sort(SortField.FIELD_SCORE, new SortField(ID, SortField.Type.LONG));
+    private static final int MAX_QUERY_TOKENS = 8;
+    
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    
+    // Em memória: o índice é reconstruído a partir do banco a cada inicialização
+    // e nunca é gravado em disco
+    public SearchIndex() {
+        try {
+            this.directory = new ByteBuffersDirectory();
+            Analyzer analyzer = new PerFieldAnalyzerWrapper(new StandardAnalyzer(),
+                    Map.of(CONTACT, new TrigramAnalyzer()));
+            IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+            this.writer = new IndexWriter(directory, config);
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new RuntimeException("Não foi possível abrir o índice de busca", e);
+        }
+    }
+    
+    /**
+     * Documento a indexar. {@code filter} é um valor exato usado para restringir
+     * a busca (status ou tipo); {@code primary} recebe o peso maior;
+     * {@code contacts} são telefones, CPFs e e-mails buscáveis por qualquer trecho.
+     */
+    public record Entry(Kind kind, Long id, String filter, String primary, String secondary, List<String> contacts) {
+        
+        public Entry(Kind kind, Long id, String filter, String primary, String secondary) {
+            this(kind, id, filter, primary, secondary, List.of());
+        }
+    }
+    
+    public record Hits(List<Long> ids, long total) {
+    }
+    
+    public void index(Entry entry) {
+        indexAll(List.of(entry));
+    }
+    
+    public void indexAll(Collection<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        write(entries);
+        refresh();
+    }
+    
+    public void remove(Kind kind, Long id) {
+        try {
+            writer.deleteDocuments(uid(kind, id));
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao atualizar o índice de busca", e);
+        }
+        refresh();
+    }
+    
+    /**
+     * Grava os documentos sem torná-los visíveis; usado na reconstrução, que
+     * chama {@link #refresh()} uma única vez no final.
+     */
+    public void write(Collection<Entry> entries) {
+        try {
+            for (Entry entry : entries) {
+                writer.updateDocument(uid(entry.kind(), entry.id()), document(entry));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao atualizar o índice de busca", e);
+        }
+    }
+    
+    // Assim como write, só tem efeito para as buscas após o refresh
+    public void clear(Kind kind) {
+        try {
+            writer.deleteDocuments(new Term(KIND, kind.name()));
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao atualizar o índice de busca", e);
+        }
+    }
+    
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao atualizar o índice de busca", e);
+        }
+    }
+    
+    public Hits search(Kind kind, String filter, String text, int offset, int limit) {
+        Query query = query(kind, filter, tokens(text), contactForm(text));
+        if (query == null || limit <= 0) {
+            return new Hits(List.of(), 0);
+        }
+        
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopFieldCollector collector = TopFieldCollector.create(RELEVANCE, offset + limit, Integer.MAX_VALUE);
+            searcher.search(query, collector);
+            TopDocs page = collector.topDocs(offset, limit);
+            
+            StoredFields storedFields = searcher.storedFields();
+            List<Long> ids = new ArrayList<>(page.scoreDocs.length);
+            for (ScoreDoc scoreDoc : page.scoreDocs) {
+                ids.add(storedFields.document(scoreDoc.doc).getField(ID).numericValue().longValue());
+            }
+            return new Hits(ids, collector.getTotalHits());
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao consultar o índice de busca", e);
+        } finally {
+            release(searcher);
+        }
+    }
+    
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+    
+    /**
+     * Quebra o texto em palavras sem acentos e em minúsculas; e-mails e
+     * telefones viram várias palavras ("maria.silva@x.com" → maria, silva, x, com).
+     */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String part : SEPARATORS.split(text)) {
+            String token = StringUtils.removeAccents(part).toLowerCase(Locale.ROOT);
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    /**
+     * Forma usada no índice de contatos: só os dígitos quando o valor é numérico
+     * (mesma regra de {@link StringUtils#formatPhone} e {@link StringUtils#formatCPF}),
+     * senão o texto em minúsculas e sem espaços.
+     */
+    static String contactForm(String value) {
+        if (value == null) {
+            return "";
+        }
+        String trimmed = value.trim();
+        if (NUMERIC.matcher(trimmed).matches()) {
+            return StringUtils.onlyDigits(trimmed);
+        }
+        return WHITESPACE.matcher(trimmed.toLowerCase(Locale.ROOT)).replaceAll("");
+    }
+    
+    private static String normalize(String text) {
+        return String.join(" ", tokens(text));
+    }
+    
+    private static Term uid(Kind kind, Long id) {
+        return new Term(UID, kind.name() + ":" + id);
+    }
+    
+    private static Document document(Entry entry) {
+        Document document = new Document();
+        document.add(new StringField(UID, uid(entry.kind(), entry.id()).text(), Field.Store.NO));
+        document.add(new StringField(KIND, entry.kind().name(), Field.Store.NO));
+        document.add(new StoredField(ID, entry.id()));
+        document.add(new NumericDocValuesField(ID, entry.id()));
+        if (entry.filter() != null) {
+            document.add(new StringField(FILTER, entry.filter(), Field.Store.NO));
+        }
+        document.add(new TextField(PRIMARY, normalize(entry.primary()), Field.Store.NO));
+        document.add(new TextField(SECONDARY, normalize(entry.secondary()), Field.Store.NO));
+        for (String contact : entry.contacts()) {
+            document.add(new TextField(CONTACT, contactForm(contact), Field.Store.NO));
+        }
+        return document;
+    }
+    
+    private static Query query(Kind kind, String filter, List<String> tokens, String contact) {
+        BooleanQuery.Builder matches = new BooleanQuery.Builder();
+        if (!tokens.isEmpty()) {
+            matches.add(wordsQuery(tokens), BooleanClause.Occur.SHOULD);
+        }
+        if (contact.length() >= GRAM_SIZE) {
+            // Pontuação fixa: um trecho de contato não deve passar à frente de um nome
+            matches.add(new ConstantScoreQuery(contactQuery(contact)), BooleanClause.Occur.SHOULD);
+        }
+        BooleanQuery anyMatch = matches.build();
+        if (anyMatch.clauses().isEmpty()) {
+            return null;
+        }
+        
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(KIND, kind.name())), BooleanClause.Occur.FILTER)
+                .add(anyMatch, BooleanClause.Occur.MUST);
+        if (filter != null) {
+            query.add(new TermQuery(new Term(FILTER, filter)), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+    
+    private static Query wordsQuery(List<String> tokens) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        // Cada palavra deve casar; a palavra inteira pontua mais que o prefixo
+        for (String token : tokens.subList(0, Math.min(tokens.size(), MAX_QUERY_TOKENS))) {
+            BooleanQuery tokenQuery = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(PRIMARY, token)), 4f), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new PrefixQuery(new Term(PRIMARY, token)), 2f), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new TermQuery(new Term(SECONDARY, token)), 1.5f), BooleanClause.Occur.SHOULD)
+                    .add(new PrefixQuery(new Term(SECONDARY, token)), BooleanClause.Occur.SHOULD)
+                    .build();
+            query.add(tokenQuery, BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+    
+    // Trigramas consecutivos do trecho buscado, na mesma ordem em que aparecem no contato
+    private static Query contactQuery(String contact) {
+        PhraseQuery.Builder phrase = new PhraseQuery.Builder();
+        for (int i = 0; i + GRAM_SIZE <= contact.length(); i++) {
+            phrase.add(new Term(CONTACT, contact.substring(i, i + GRAM_SIZE)), i);
+        }
+        return phrase.build();
+    }
+    
+    private void release(IndexSearcher searcher) {
+        if (searcher == null) {
+            return;
+        }
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Falha ao liberar leitor do índice de busca", e);
+        }
+    }
+    
+    /**
+     * Quebra cada valor em todos os seus trigramas, em posições consecutivas;
+     * valores diferentes do mesmo documento ficam afastados para que uma busca
+     * não junte o fim de um contato com o início do outro.
+     */
+    private static final class TrigramAnalyzer extends Analyzer {
+        
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            return new TokenStreamComponents(new NGramTokenizer(GRAM_SIZE, GRAM_SIZE));
+        }
+        
+        @Override
+        public int getPositionIncrementGap(String fieldName) {
+            return 100;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,298 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.dto.ScheduleDTO;
+import com.sarahpilates.entity.EvolutionRecord;
+import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.entity.PhysicalEvaluation;
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.entity.Student;
+import com.sarahpilates.event.EvolutionRecordChangedEvent;
+import com.sarahpilates.event.InstructorChangedEvent;
+import com.sarahpilates.event.PhysicalEvaluationChangedEvent;
+import com.sarahpilates.event.ScheduleChangedEvent;
+import com.sarahpilates.event.StudentChangedEvent;
+import com.sarahpilates.repository.EvolutionRecordRepository;
+import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.PhysicalEvaluationRepository;
+import com.sarahpilates.repository.ScheduleRepository;
+import com.sarahpilates.repository.StudentRepository;
+import com.sarahpilates.service.SearchIndex.Entry;
+import com.sarahpilates.service.SearchIndex.Kind;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Mantém o {@link SearchIndex} sincronizado com o banco e atende as buscas
+ * textuais das listagens.
+ *
+ * O índice é reconstruído quando a aplicação sobe e, depois, atualizado pelos
+ * eventos publicados nas escritas dos serviços, após o commit. Como agendamentos,
+ * fichas e avaliações são encontrados pelos nomes de aluno e instrutor, a troca
+ * do nome de um aluno ou instrutor reindexa também os registros ligados a ele,
+ * em lotes e em uma thread própria, fora da requisição que fez a alteração.
+ * Enquanto o índice não está pronto, {@link #search} retorna vazio e os serviços
+ * usam as consultas LIKE do repositório.
+ */
+@Service
+@Slf4j
+public class SearchIndexService {
+    
+    private static final int REBUILD_BATCH_SIZE = 500;
+    
+    private final SearchIndex searchIndex;
+    private final StudentRepository studentRepository;
+    private final InstructorRepository instructorRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final EvolutionRecordRepository evolutionRecordRepository;
+    private final PhysicalEvaluationRepository physicalEvaluationRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    // Uma thread só: reindexações do mesmo aluno ou instrutor rodam na ordem dos eventos
+    private final ExecutorService dependentsReindexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-reindex");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private volatile boolean ready;
+    
+    public SearchIndexService(SearchIndex searchIndex,
+                              StudentRepository studentRepository,
+                              InstructorRepository instructorRepository,
+                              ScheduleRepository scheduleRepository,
+                              EvolutionRecordRepository evolutionRecordRepository,
+                              PhysicalEvaluationRepository physicalEvaluationRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
+        this.searchIndex = searchIndex;
+        this.studentRepository = studentRepository;
+        this.instructorRepository = instructorRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.evolutionRecordRepository = evolutionRecordRepository;
+        this.physicalEvaluationRepository = physicalEvaluationRepository;
+        this.entityManager = entityManager;
+        // Os eventos chegam depois do commit, quando a transação original já terminou
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            int indexed = readOnlyTransaction.execute(status ->
+                    rebuild(Kind.STUDENT, studentRepository.streamAllForSearch(), SearchIndexService::entry)
+                    + rebuild(Kind.INSTRUCTOR, instructorRepository.streamAllForSearch(), SearchIndexService::entry)
+                    + rebuild(Kind.SCHEDULE, scheduleRepository.streamAllForSearch(), SearchIndexService::entry)
+                    + rebuild(Kind.EVOLUTION_RECORD, evolutionRecordRepository.streamAllForSearch(),
+                            SearchIndexService::entry)
+                    + rebuild(Kind.PHYSICAL_EVALUATION, physicalEvaluationRepository.streamAllForSearch(),
+                            SearchIndexService::entry));
+            searchIndex.refresh();
+            ready = true;
+            log.info("Índice de busca reconstruído: {} registros em {} ms",
+                    indexed, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            ready = false;
+            log.error("Falha ao reconstruir o índice de busca; as buscas usarão o banco", e);
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        dependentsReindexer.shutdownNow();
+    }
+    
+    /**
+     * Busca no índice a página pedida e carrega os registros em lote com
+     * {@code loader}, preservando a ordem de relevância. Retorna vazio quando o
+     * índice não está disponível.
+     */
+    public <T> Optional<Page<T>> search(Kind kind, Enum<?> filter, String searchTerm, Pageable pageable,
+                                        Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        if (!ready || pageable.isUnpaged()) {
+            return Optional.empty();
+        }
+        
+        SearchIndex.Hits hits = searchIndex.search(kind, filter == null ? null : filter.name(), searchTerm,
+                (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits.ids().isEmpty()) {
+            return Optional.of(new PageImpl<>(List.of(), pageable, hits.total()));
+        }
+        
+        Map<Long, T> loaded = loader.apply(hits.ids()).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> content = hits.ids().stream()
+                .map(loaded::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return Optional.of(new PageImpl<>(content, pageable, hits.total()));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        Long studentId = event.studentId();
+        reindex(Kind.STUDENT, studentId, studentRepository::findById, SearchIndexService::entry);
+        if (event.nameChanged()) {
+            reindexDependentsLater("aluno " + studentId, () ->
+                    write(scheduleRepository.streamForSearchByStudentId(studentId), SearchIndexService::entry)
+                    + write(evolutionRecordRepository.streamForSearchByStudentId(studentId),
+                            SearchIndexService::entry)
+                    + write(physicalEvaluationRepository.streamForSearchByStudentId(studentId),
+                            SearchIndexService::entry));
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInstructorChanged(InstructorChangedEvent event) {
+        Long instructorId = event.instructorId();
+        reindex(Kind.INSTRUCTOR, instructorId, instructorRepository::findById, SearchIndexService::entry);
+        if (event.nameChanged()) {
+            reindexDependentsLater("instrutor " + instructorId, () ->
+                    write(scheduleRepository.streamForSearchByInstructorId(instructorId), SearchIndexService::entry)
+                    + write(evolutionRecordRepository.streamForSearchByInstructorId(instructorId),
+                            SearchIndexService::entry)
+                    + write(physicalEvaluationRepository.streamForSearchByInstructorId(instructorId),
+                            SearchIndexService::entry));
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (event.type() == ScheduleChangedEvent.Type.DELETED) {
+            searchIndex.remove(Kind.SCHEDULE, event.scheduleId());
+            return;
+        }
+        // O evento já traz o estado após a alteração, com os nomes de aluno e instrutor
+        searchIndex.index(entry(event.schedule()));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEvolutionRecordChanged(EvolutionRecordChangedEvent event) {
+        reindex(Kind.EVOLUTION_RECORD, event.evolutionRecordId(), evolutionRecordRepository::findById,
+                SearchIndexService::entry);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPhysicalEvaluationChanged(PhysicalEvaluationChangedEvent event) {
+        reindex(Kind.PHYSICAL_EVALUATION, event.physicalEvaluationId(), physicalEvaluationRepository::findById,
+                SearchIndexService::entry);
+    }
+    
+    private <T> void reindex(Kind kind, Long id, Function<Long, Optional<T>> finder, Function<T, Entry> toEntry) {
+        readOnlyTransaction.executeWithoutResult(status -> finder.apply(id).ifPresentOrElse(
+                value -> searchIndex.index(toEntry.apply(value)),
+                () -> searchIndex.remove(kind, id)));
+    }
+    
+    // Os registros passam a ser encontrados pelo nome novo ao fim da reindexação
+    private void reindexDependentsLater(String owner, IntSupplier reindex) {
+        dependentsReindexer.execute(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                int indexed = readOnlyTransaction.execute(status -> reindex.getAsInt());
+                searchIndex.refresh();
+                log.debug("Registros do {} reindexados: {} em {} ms", owner, indexed,
+                        System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                log.error("Falha ao reindexar os registros do {}", owner, e);
+            }
+        });
+    }
+    
+    private <T> int rebuild(Kind kind, Stream<T> source, Function<T, Entry> toEntry) {
+        searchIndex.clear(kind);
+        return write(source, toEntry);
+    }
+    
+    // Grava em lotes, sem refresh; o chamador torna o resultado visível
+    private <T> int write(Stream<T> source, Function<T, Entry> toEntry) {
+        int indexed = 0;
+        List<Entry> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        try (source) {
+            for (T value : (Iterable<T>) source::iterator) {
+                batch.add(toEntry.apply(value));
+                if (batch.size() == REBUILD_BATCH_SIZE) {
+                    indexed += flush(batch);
+                }
+            }
+        }
+        return indexed + flush(batch);
+    }
+    
+    private int flush(List<Entry> batch) {
+        int size = batch.size();
+        searchIndex.write(batch);
+        batch.clear();
+        // Libera as entidades já indexadas da sessão
+        entityManager.clear();
+        return size;
+    }
+    
+    private static Entry entry(Student student) {
+        return new Entry(Kind.STUDENT, student.getId(), student.getStatus().name(), student.getName(),
+                student.getEmail(), contacts(student.getPhone(), student.getEmail()));
+    }
+    
+    private static Entry entry(Instructor instructor) {
+        return new Entry(Kind.INSTRUCTOR, instructor.getId(), instructor.getStatus().name(), instructor.getName(),
+                instructor.getEmail(), contacts(instructor.getPhone(), instructor.getEmail(), instructor.getCpf()));
+    }
+    
+    private static Entry entry(Schedule schedule) {
+        return new Entry(Kind.SCHEDULE, schedule.getId(), null, names(schedule.getStudent(), schedule.getInstructor()),
+                String.join(" ", Objects.toString(schedule.getType(), ""), Objects.toString(schedule.getRoom(), "")));
+    }
+    
+    private static Entry entry(ScheduleDTO schedule) {
+        return new Entry(Kind.SCHEDULE, schedule.getId(), null,
+                schedule.getStudentName() + " " + schedule.getInstructorName(),
+                String.join(" ", Objects.toString(schedule.getType(), ""), Objects.toString(schedule.getRoom(), "")));
+    }
+    
+    private static Entry entry(EvolutionRecord record) {
+        return new Entry(Kind.EVOLUTION_RECORD, record.getId(), null,
+                names(record.getStudent(), record.getInstructor()), record.getFocus());
+    }
+    
+    private static Entry entry(PhysicalEvaluation evaluation) {
+        return new Entry(Kind.PHYSICAL_EVALUATION, evaluation.getId(), evaluation.getType().name(),
+                names(evaluation.getStudent(), evaluation.getInstructor()), null);
+    }
+    
+    private static String names(Student student, Instructor instructor) {
+        return student.getName() + " " + instructor.getName();
+    }
+    
+    private static List<String> contacts(String... values) {
+        return Stream.of(values).filter(Objects::nonNull).toList();
+    }
+}
\ No newline at end of file
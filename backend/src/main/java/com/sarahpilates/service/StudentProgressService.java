@@ -0,0 +1,297 @@
+package com.sarahpilates.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sarahpilates.dto.ReportDTO;
+import com.sarahpilates.event.EvolutionRecordChangedEvent;
+import com.sarahpilates.event.PhysicalEvaluationChangedEvent;
+import com.sarahpilates.event.StudentChangedEvent;
+import com.sarahpilates.repository.EvolutionRecordRepository;
+import com.sarahpilates.repository.PhysicalEvaluationRepository;
+import com.sarahpilates.repository.projection.EvaluationMetricsView;
+import com.sarahpilates.repository.projection.EvolutionMetricsView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Evolução de cada aluno ao longo das fichas de evolução e das avaliações
+ * físicas: uma série temporal por medida, com valor inicial e atual, tendência
+ * e média móvel. As séries são montadas uma vez por aluno, lendo só as colunas
+ * necessárias em fluxo, e ficam em memória.
+ *
+ * Uma ficha nova, com data igual ou posterior à última, é acrescentada à série
+ * já montada; alterações, exclusões, fichas fora de ordem e avaliações físicas
+ * descartam o aluno, que é montado de novo na próxima consulta. Uma série
+ * montada enquanto chegava um evento do aluno pode ter lido o estado anterior
+ * e não é guardada.
+ */
+@Service
+@Slf4j
+public class StudentProgressService {
+    
+    private static final Map<Metric, Function<EvolutionMetricsView, Integer>> RECORD_METRICS = Map.of(
+            Metric.DOR, EvolutionMetricsView::getPainLevel,
+            Metric.MOBILIDADE, EvolutionMetricsView::getMobilityLevel,
+            Metric.FORCA, EvolutionMetricsView::getStrengthLevel,
+            Metric.EQUILIBRIO, EvolutionMetricsView::getBalanceLevel,
+            Metric.RESISTENCIA, EvolutionMetricsView::getEnduranceLevel);
+    
+    private static final Map<Metric, Function<EvaluationMetricsView, Number>> EVALUATION_METRICS = Map.of(
+            Metric.PESO, EvaluationMetricsView::getWeight,
+            Metric.IMC, EvaluationMetricsView::getBmi,
+            Metric.GORDURA_CORPORAL, EvaluationMetricsView::getBodyFat,
+            Metric.FLEXAO_OMBRO, EvaluationMetricsView::getShoulderFlexion,
+            Metric.FLEXAO_COLUNA, EvaluationMetricsView::getSpinalFlexion,
+            Metric.FLEXAO_QUADRIL, EvaluationMetricsView::getHipFlexion,
+            Metric.FLEXAO_TORNOZELO, EvaluationMetricsView::getAnkleFlexion);
+    
+    private final EvolutionRecordRepository evolutionRecordRepository;
+    private final PhysicalEvaluationRepository physicalEvaluationRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int movingAverageWindow;
+    
+    private final Cache<Long, Progress> progressByStudent;
+    
+    // Gerações por faixa de alunos, incrementadas a cada evento; protegidas pelo monitor do serviço
+    private final long[] generations = new long[64];
+    
+    public StudentProgressService(EvolutionRecordRepository evolutionRecordRepository,
+                                  PhysicalEvaluationRepository physicalEvaluationRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${sarah-pilates.reports.progress.max-students:1000}") long maxStudents,
+                                  @Value("${sarah-pilates.reports.progress.moving-average-window:5}")
+                                  int movingAverageWindow) {
+        this.evolutionRecordRepository = evolutionRecordRepository;
+        this.physicalEvaluationRepository = physicalEvaluationRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.movingAverageWindow = movingAverageWindow;
+        this.progressByStudent = Caffeine.newBuilder()
+                .maximumSize(maxStudents)
+                .build();
+    }
+    
+    /**
+     * Preenche sessões, avaliação média, última sessão, score de progresso e
+     * medidas do relatório de progresso do aluno.
+     */
+    public void fill(Long studentId, ReportDTO.StudentProgress report) {
+        Progress progress = progressByStudent.getIfPresent(studentId);
+        if (progress == null) {
+            // A geração é lida antes de a transação da leitura começar: um evento
+            // posterior a ela indica que a leitura pode não ter visto a alteração
+            long before = generation(studentId);
+            progress = readOnlyTransaction.execute(status -> load(studentId));
+            synchronized (this) {
+                if (generation(studentId) == before) {
+                    progress = progressByStudent.asMap().merge(studentId, progress, (cached, loaded) -> cached);
+                }
+            }
+        }
+        progress.fill(report, movingAverageWindow);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEvolutionRecordChanged(EvolutionRecordChangedEvent event) {
+        if (!event.isCreation()) {
+            evict(event.previousStudentId(), event.studentId());
+            return;
+        }
+        Long studentId = event.studentId();
+        advance(studentId);
+        if (progressByStudent.getIfPresent(studentId) == null) {
+            return;
+        }
+        Optional<EvolutionMetricsView> record = readOnlyTransaction.execute(
+                status -> evolutionRecordRepository.findMetricsById(event.evolutionRecordId()));
+        // Sem a ficha, ou fora de ordem, monta de novo na próxima consulta
+        progressByStudent.asMap().computeIfPresent(studentId, (id, progress) ->
+                record != null && record.isPresent() && progress.append(record.get()) ? progress : null);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPhysicalEvaluationChanged(PhysicalEvaluationChangedEvent event) {
+        evict(event.previousStudentId(), event.studentId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        evict(event.studentId());
+    }
+    
+    private void evict(Long... studentIds) {
+        Stream.of(studentIds)
+                .filter(Objects::nonNull)
+                .forEach(studentId -> {
+                    advance(studentId);
+                    progressByStudent.invalidate(studentId);
+                });
+    }
+    
+    private synchronized long generation(Long studentId) {
+        return generations[stripe(studentId)];
+    }
+    
+    private synchronized void advance(Long studentId) {
+        generations[stripe(studentId)]++;
+    }
+    
+    private int stripe(Long studentId) {
+        return Math.floorMod(studentId.hashCode(), generations.length);
+    }
+    
+    // Chamado dentro da transação de leitura de fill(): os fluxos precisam dela aberta
+    private Progress load(Long studentId) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        try (Stream<EvolutionMetricsView> records = evolutionRecordRepository.streamMetricsByStudentId(studentId)) {
+            records.forEach(progress::add);
+        }
+        try (Stream<EvaluationMetricsView> evaluations =
+                     physicalEvaluationRepository.streamMetricsByStudentId(studentId)) {
+            evaluations.forEach(progress::add);
+        }
+        log.debug("Progresso do aluno {} montado com {} sessões em {} ms", studentId, progress.sessions,
+                (System.nanoTime() - start) / 1_000_000);
+        return progress;
+    }
+    
+    // Peso e IMC não têm sentido bom em si: a melhora informada é a própria variação
+    private enum Direction {
+        HIGHER_IS_BETTER, LOWER_IS_BETTER, NEUTRAL
+    }
+    
+    private enum Metric {
+        DOR("Nível de dor", "0-10", Direction.LOWER_IS_BETTER),
+        MOBILIDADE("Mobilidade", "1-5", Direction.HIGHER_IS_BETTER),
+        FORCA("Força", "1-5", Direction.HIGHER_IS_BETTER),
+        EQUILIBRIO("Equilíbrio", "1-5", Direction.HIGHER_IS_BETTER),
+        RESISTENCIA("Resistência", "1-5", Direction.HIGHER_IS_BETTER),
+        PESO("Peso", "kg", Direction.NEUTRAL),
+        IMC("IMC", "kg/m²", Direction.NEUTRAL),
+        GORDURA_CORPORAL("Gordura corporal", "%", Direction.LOWER_IS_BETTER),
+        FLEXAO_OMBRO("Flexão de ombro", "graus", Direction.HIGHER_IS_BETTER),
+        FLEXAO_COLUNA("Flexão de coluna", "graus", Direction.HIGHER_IS_BETTER),
+        FLEXAO_QUADRIL("Flexão de quadril", "graus", Direction.HIGHER_IS_BETTER),
+        FLEXAO_TORNOZELO("Flexão de tornozelo", "graus", Direction.HIGHER_IS_BETTER);
+        
+        private final String label;
+        private final String unit;
+        private final Direction direction;
+        
+        Metric(String label, String unit, Direction direction) {
+            this.label = label;
+            this.unit = unit;
+            this.direction = direction;
+        }
+    }
+    
+    /**
+     * Estado acumulado de um aluno. Acréscimos e leituras são sincronizados:
+     * uma ficha nova pode chegar enquanto outra requisição monta o relatório.
+     */
+    private static class Progress {
+        
+        private final Map<Metric, ProgressSeries> series = new EnumMap<>(Metric.class);
+        private long maxRecordId;
+        private int sessions;
+        private long ratingSum;
+        private int ratingCount;
+        private int firstRating;
+        private int lastRating;
+        private String lastFocus;
+        private LocalDate lastSession;
+        
+        /**
+         * Acrescenta uma ficha nova. Devolve falso, sem alterar nada, se ela
+         * puder já estar incluída ou tiver data anterior à última sessão.
+         */
+        synchronized boolean append(EvolutionMetricsView record) {
+            if (record.getId() <= maxRecordId || (lastSession != null && record.getDate().isBefore(lastSession))) {
+                return false;
+            }
+            add(record);
+            return true;
+        }
+        
+        // Fichas em ordem de data, sessão e id
+        synchronized void add(EvolutionMetricsView record) {
+            int rating = record.getOverallRating() != null ? record.getOverallRating() : 0;
+            if (sessions == 0) {
+                firstRating = rating;
+            }
+            if (record.getOverallRating() != null) {
+                ratingSum += record.getOverallRating();
+                ratingCount++;
+            }
+            maxRecordId = Math.max(maxRecordId, record.getId());
+            lastRating = rating;
+            lastFocus = record.getFocus();
+            lastSession = record.getDate();
+            sessions++;
+            RECORD_METRICS.forEach((metric, value) -> add(metric, record.getDate(), value.apply(record)));
+        }
+        
+        synchronized void add(EvaluationMetricsView evaluation) {
+            EVALUATION_METRICS.forEach((metric, value) -> add(metric, evaluation.getDate(), value.apply(evaluation)));
+        }
+        
+        synchronized void fill(ReportDTO.StudentProgress report, int movingAverageWindow) {
+            report.setTotalSessions(sessions);
+            if (sessions > 0) {
+                report.setAverageRating(ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount);
+                report.setLastFocus(lastFocus);
+                report.setLastSession(lastSession);
+                // Score de progresso pela melhoria entre a primeira e a última avaliação, entre 0 e 100
+                if (sessions > 1) {
+                    double progressScore = ((double) (lastRating - firstRating) / 5.0) * 100;
+                    report.setProgressScore(Math.max(0, Math.min(100, progressScore + 50)));
+                }
+            }
+            
+            List<ReportDTO.ProgressMetric> metrics = new ArrayList<>();
+            series.forEach((metric, values) -> metrics.add(toMetric(metric, values, movingAverageWindow)));
+            report.setMetrics(metrics);
+        }
+        
+        private void add(Metric metric, LocalDate date, Number value) {
+            if (value == null || date == null) {
+                return;
+            }
+            double number = value instanceof BigDecimal decimal ? decimal.doubleValue() : value.doubleValue();
+            series.computeIfAbsent(metric, m -> new ProgressSeries()).add(date, number);
+        }
+        
+        private static ReportDTO.ProgressMetric toMetric(Metric metric, ProgressSeries values,
+                                                         int movingAverageWindow) {
+            double change = values.last() - values.first();
+            double slope = values.slopePerDay();
+            
+            ReportDTO.ProgressMetric progressMetric = new ReportDTO.ProgressMetric();
+            progressMetric.setMetricName(metric.label);
+            progressMetric.setUnit(metric.unit);
+            progressMetric.setInitialValue(values.first());
+            progressMetric.setCurrentValue(values.last());
+            progressMetric.setImprovement(metric.direction == Direction.LOWER_IS_BETTER ? -change : change);
+            progressMetric.setSamples(values.size());
+            progressMetric.setTrendPerMonth(Double.isNaN(slope) ? null : slope * 30);
+            progressMetric.setMovingAverage(values.movingAverage(movingAverageWindow));
+            return progressMetric;
+        }
+    }
+}
\ No newline at end of file
@@ -1,15 +1,21 @@
 package com.sarahpilates.service;
 
+import com.sarahpilates.dto.StudentDTO;
 import com.sarahpilates.entity.Student;
+import com.sarahpilates.event.StudentChangedEvent;
 import com.sarahpilates.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -17,6 +23,8 @@ import java.util.Optional;
 public class StudentService {
     
     private final StudentRepository studentRepository;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<Student> findAll() {
         return studentRepository.findAll();
@@ -42,14 +50,48 @@ public class StudentService {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return studentRepository.findAll(pageable);
         }
-        return studentRepository.findBySearchTerm(searchTerm.trim(), pageable);
+        return searchIndexService.search(SearchIndex.Kind.STUDENT, null, searchTerm, pageable,
+                        studentRepository::findAllById, Student::getId)
+                .orElseGet(() -> studentRepository.findBySearchTerm(searchTerm.trim(), pageable));
     }
     
     public Page<Student> searchByStatus(Student.StudentStatus status, String searchTerm, Pageable pageable) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return studentRepository.findAll(pageable);
         }
-        return studentRepository.findByStatusAndSearchTerm(status, searchTerm.trim(), pageable);
+        return searchIndexService.search(SearchIndex.Kind.STUDENT, status, searchTerm, pageable,
+                        studentRepository::findAllById, Student::getId)
+                .orElseGet(() -> studentRepository.findByStatusAndSearchTerm(status, searchTerm.trim(), pageable));
+    }
+    
+    /**
+     * Página de alunos para as listagens, já projetada em {@link StudentDTO}.
+     * Mesmas regras de {@link #search} e {@link #searchByStatus}.
+     */
+    public Page<StudentDTO> findSummaries(String searchTerm, Student.StudentStatus status, Pageable pageable) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return studentRepository.findSummaries(pageable);
+        }
+        if (status != null) {
+            return searchIndexService.search(SearchIndex.Kind.STUDENT, status, searchTerm, pageable,
+                            studentRepository::findSummariesByIdIn, StudentDTO::getId)
+                    .orElseGet(() -> studentRepository.findSummariesByStatusAndSearchTerm(
+                            status, searchTerm.trim(), pageable));
+        }
+        return searchIndexService.search(SearchIndex.Kind.STUDENT, null, searchTerm, pageable,
+                        studentRepository::findSummariesByIdIn, StudentDTO::getId)
+                .orElseGet(() -> studentRepository.findSummariesBySearchTerm(searchTerm.trim(), pageable));
+    }
+    
+    /**
+     * Entrega os alunos com o status informado um a um para {@code sink},
+     * conforme são lidos do banco, sem montar a lista inteira em memória.
+     */
+    @Transactional(readOnly = true)
+    public void streamSummariesByStatus(Student.StudentStatus status, Consumer<StudentDTO> sink) {
+        try (Stream<StudentDTO> students = studentRepository.streamSummariesByStatus(status)) {
+            students.forEach(sink);
+        }
     }
     
     public Student save(Student student) {
@@ -66,7 +108,11 @@ public class StudentService {
             }
         }
         
-        return studentRepository.save(student);
+        // Na edição por save o nome anterior não é conhecido
+        boolean existing = student.getId() != null;
+        Student saved = studentRepository.save(student);
+        eventPublisher.publishEvent(new StudentChangedEvent(saved.getId(), existing));
+        return saved;
     }
     
     public Student update(Long id, Student studentDetails) {
@@ -79,6 +125,7 @@ public class StudentService {
             throw new RuntimeException("Email já está em uso");
         }
         
+        boolean nameChanged = !Objects.equals(student.getName(), studentDetails.getName());
         student.setName(studentDetails.getName());
         student.setEmail(studentDetails.getEmail());
         student.setPhone(studentDetails.getPhone());
@@ -91,7 +138,9 @@ public class StudentService {
         student.setPlan(studentDetails.getPlan());
         student.setStatus(studentDetails.getStatus());
         
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        eventPublisher.publishEvent(new StudentChangedEvent(saved.getId(), nameChanged));
+        return saved;
     }
     
     public void deleteById(Long id) {
@@ -99,6 +148,7 @@ public class StudentService {
             throw new RuntimeException("Aluno não encontrado");
         }
         studentRepository.deleteById(id);
+        eventPublisher.publishEvent(new StudentChangedEvent(id, false));
     }
     
     public Long countActiveStudents() {
@@ -108,11 +158,4 @@ public class StudentService {
     public List<Object[]> getStudentsByPlan() {
         return studentRepository.countStudentsByPlan();
     }
-    
-    public void incrementTotalClasses(Long studentId) {
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
-        student.setTotalClasses(student.getTotalClasses() + 1);
-        studentRepository.save(student);
-    }
 }
\ No newline at end of file
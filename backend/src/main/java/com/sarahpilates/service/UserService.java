@@ -2,8 +2,12 @@ package com.sarahpilates.service;
 
 import com.sarahpilates.entity.User;
 import com.sarahpilates.repository.UserRepository;
+import com.sarahpilates.security.UserStatusCache;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,17 +20,28 @@ import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 @Transactional
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EntityManager entityManager;
+    private final UserStatusCache userStatusCache;
     
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userRepository.findByEmail(email)
+        return findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + email));
     }
     
+    // Chamado no login com a senha já codificada no custo atual do BCrypt
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        return userRepository.save(user);
+    }
+    
     public List<User> findAll() {
         return userRepository.findAll();
     }
@@ -35,8 +50,9 @@ public class UserService implements UserDetailsService {
         return userRepository.findById(id);
     }
     
+    // Pela chave natural: e-mail e usuário vêm do cache de segundo nível quando presentes
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(email);
     }
     
     public User save(User user) {
@@ -82,6 +98,8 @@ public class UserService implements UserDetailsService {
             user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
         }
         
+        // Tokens já emitidos passam a refletir a nova situação e o novo perfil
+        userStatusCache.invalidateAfterCommit(id);
         return userRepository.save(user);
     }
     
@@ -90,6 +108,7 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("Usuário não encontrado");
         }
         userRepository.deleteById(id);
+        userStatusCache.invalidateAfterCommit(id);
     }
     
     public boolean existsByEmail(String email) {
@@ -0,0 +1,71 @@
+package com.sarahpilates.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * CSV (RFC 4180) em UTF-8, com BOM para o Excel reconhecer a acentuação.
+ *
+ * Textos que o Excel interpretaria como fórmula (começando por =, +, -, @,
+ * tabulação ou retorno de carro) recebem um apóstrofo na frente e são exibidos
+ * como texto. Números não são alterados.
+ */
+public class CsvWriter implements TableWriter {
+    
+    private static final int FLUSH_EVERY = 200;
+    
+    private final Writer writer;
+    private int written;
+    
+    public CsvWriter(OutputStream output) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        this.writer.write('\uFEFF');
+    }
+    
+    @Override
+    public void writeRow(List<?> values) {
+        try {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values.get(i)));
+            }
+            writer.write("\r\n");
+            if (++written % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void finish() throws IOException {
+        writer.close();
+    }
+    
+    private static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!(value instanceof Number) && startsLikeFormula(text)) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+    
+    private static boolean startsLikeFormula(String text) {
+        return !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.sarahpilates.util;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formatos de exportação em planilha. {@link #open} prepara a resposta como
+ * download e devolve o escritor correspondente.
+ */
+public enum ExportFormat {
+    
+    CSV("text/csv;charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+    
+    private final String contentType;
+    private final String extension;
+    
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    public TableWriter open(HttpServletResponse response, String fileName, String title) throws IOException {
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName + "." + extension, StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        return this == CSV
+                ? new CsvWriter(response.getOutputStream())
+                : new XlsxWriter(response.getOutputStream(), title);
+    }
+}
\ No newline at end of file
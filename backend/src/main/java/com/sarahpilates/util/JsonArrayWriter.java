@@ -0,0 +1,56 @@
+package com.sarahpilates.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Escreve um array JSON direto na resposta HTTP, um elemento por vez, para
+ * listagens sem paginação. Os elementos vão para o cliente em blocos conforme
+ * chegam, sem montar a lista inteira nem o documento em memória.
+ *
+ * O array só é fechado em {@link #finish()}; se a leitura falhar no meio, a
+ * resposta fica incompleta em vez de parecer uma lista válida e menor.
+ */
+public class JsonArrayWriter<T> implements Consumer<T> {
+    
+    private static final int FLUSH_EVERY = 200;
+    
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    private int written;
+    
+    public JsonArrayWriter(ObjectMapper objectMapper, HttpServletResponse response) throws IOException {
+        // O flush fica a cargo desta classe, não de cada writeValue
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        this.generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        this.generator.writeStartArray();
+    }
+    
+    @Override
+    public void accept(T value) {
+        try {
+            writer.writeValue(generator, value);
+            if (++written % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public void finish() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+    }
+}
\ No newline at end of file
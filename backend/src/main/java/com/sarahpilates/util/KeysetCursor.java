@@ -0,0 +1,91 @@
+package com.sarahpilates.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Cursor opaco da paginação por chave (keyset): as colunas de ordenação do
+ * último registro entregue, em Base64 URL-safe. A próxima página começa logo
+ * depois dessas chaves, então o custo não cresce com a profundidade e não há
+ * COUNT.
+ *
+ * Um cursor vazio representa o início da lista: as chaves valem o maior valor
+ * possível, já que as listagens por cursor vêm da mais recente para a mais antiga.
+ */
+public final class KeysetCursor {
+    
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    // Maior data aceita pelo MySQL em colunas DATE
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+    
+    private final String[] keys;
+    
+    private KeysetCursor(String[] keys) {
+        this.keys = keys;
+    }
+    
+    public static String encode(Object... keys) {
+        String joined = Arrays.stream(keys).map(String::valueOf).collect(Collectors.joining("|"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static KeysetCursor decode(String cursor, int size) {
+        if (cursor == null || cursor.isBlank()) {
+            return new KeysetCursor(null);
+        }
+        try {
+            String[] keys = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8)
+                    .split("\\|", -1);
+            if (keys.length != size) {
+                throw new RuntimeException("Cursor inválido");
+            }
+            return new KeysetCursor(keys);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+    
+    /** Tamanho de página pedido, limitado a {@link #MAX_PAGE_SIZE}. */
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+    
+    public LocalDate date(int index) {
+        try {
+            return keys == null ? LAST_DATE : LocalDate.parse(keys[index]);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+    
+    public LocalTime time(int index) {
+        try {
+            return keys == null ? LocalTime.MAX : LocalTime.parse(keys[index]);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+    
+    public Integer integer(int index) {
+        try {
+            return keys == null ? Integer.MAX_VALUE : Integer.valueOf(keys[index]);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+    
+    public Long id(int index) {
+        try {
+            return keys == null ? Long.MAX_VALUE : Long.valueOf(keys[index]);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+}
\ No newline at end of file
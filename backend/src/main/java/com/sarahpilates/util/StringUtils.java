@@ -7,6 +7,7 @@ public class StringUtils {
     
     private static final Pattern NONLATIN = Pattern.compile("[^\\w-]");
     private static final Pattern WHITESPACE = Pattern.compile("[\\s]");
+    private static final Pattern NON_DIGIT = Pattern.compile("[^0-9]");
     
     public static String removeAccents(String input) {
         if (input == null) return null;
@@ -24,10 +25,16 @@ public class StringUtils {
         return slug.toLowerCase();
     }
     
+    public static String onlyDigits(String input) {
+        if (input == null) return null;
+        
+        return NON_DIGIT.matcher(input).replaceAll("");
+    }
+    
     public static String formatCPF(String cpf) {
         if (cpf == null) return null;
         
-        cpf = cpf.replaceAll("[^0-9]", "");
+        cpf = onlyDigits(cpf);
         if (cpf.length() != 11) return cpf;
         
         return cpf.substring(0, 3) + "." + 
@@ -39,7 +46,7 @@ public class StringUtils {
     public static String formatPhone(String phone) {
         if (phone == null) return null;
         
-        phone = phone.replaceAll("[^0-9]", "");
+        phone = onlyDigits(phone);
         
         if (phone.length() == 10) {
             return "(" + phone.substring(0, 2) + ") " + 
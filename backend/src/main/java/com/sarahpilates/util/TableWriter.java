@@ -0,0 +1,19 @@
+package com.sarahpilates.util;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Escreve uma tabela linha a linha direto na resposta, sem montar o arquivo
+ * em memória. Números viram números na planilha; os demais valores, texto.
+ *
+ * Falhas de escrita (inclusive o cliente que desistiu do download) saem de
+ * {@link #writeRow} como {@link java.io.UncheckedIOException}, para
+ * interromper a leitura do banco que está alimentando a tabela.
+ */
+public interface TableWriter {
+    
+    void writeRow(List<?> values);
+    
+    void finish() throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.sarahpilates.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Planilha XLSX de uma aba, gerada em fluxo: as partes fixas do pacote são
+ * escritas primeiro e as linhas da aba vão para o ZIP conforme chegam, sem
+ * arquivo temporário. Textos vão como strings inline, sem tabela de strings
+ * compartilhadas, que exigiria guardar todos os valores até o fim.
+ */
+public class XlsxWriter implements TableWriter {
+    
+    private static final int FLUSH_EVERY = 200;
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String DOCUMENT_RELATIONSHIPS_NS =
+            "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    
+    private final ZipOutputStream zip;
+    private final Writer sheet;
+    private int written;
+    
+    public XlsxWriter(OutputStream output, String sheetName) throws IOException {
+        this.zip = new ZipOutputStream(output, StandardCharsets.UTF_8);
+        this.sheet = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        
+        entry("[Content_Types].xml", "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+                "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" +
+                "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" +
+                "<Override PartName=\"/xl/workbook.xml\" " +
+                "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>" +
+                "<Override PartName=\"/xl/worksheets/sheet1.xml\" " +
+                "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>" +
+                "</Types>");
+        entry("_rels/.rels", "<Relationships xmlns=\"" + RELATIONSHIPS_NS + "\">" +
+                "<Relationship Id=\"rId1\" Type=\"" + DOCUMENT_RELATIONSHIPS_NS + "/officeDocument\" " +
+                "Target=\"xl/workbook.xml\"/></Relationships>");
+        entry("xl/workbook.xml", "<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + DOCUMENT_RELATIONSHIPS_NS + "\">" +
+                "<sheets><sheet name=\"" + escape(sheetName) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+        entry("xl/_rels/workbook.xml.rels", "<Relationships xmlns=\"" + RELATIONSHIPS_NS + "\">" +
+                "<Relationship Id=\"rId1\" Type=\"" + DOCUMENT_RELATIONSHIPS_NS + "/worksheet\" " +
+                "Target=\"worksheets/sheet1.xml\"/></Relationships>");
+        
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        sheet.write(HEADER);
+        sheet.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>");
+        // O cliente recebe o início do arquivo antes da primeira linha do banco
+        sheet.flush();
+        output.flush();
+    }
+    
+    @Override
+    public void writeRow(List<?> values) {
+        try {
+            sheet.write("<row>");
+            for (Object value : values) {
+                if (value == null) {
+                    sheet.write("<c/>");
+                } else if (value instanceof Number number) {
+                    sheet.write("<c><v>");
+                    sheet.write(number instanceof BigDecimal decimal ? decimal.toPlainString() : number.toString());
+                    sheet.write("</v></c>");
+                } else {
+                    sheet.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                    sheet.write(escape(value.toString()));
+                    sheet.write("</t></is></c>");
+                }
+            }
+            sheet.write("</row>");
+            if (++written % FLUSH_EVERY == 0) {
+                sheet.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void finish() throws IOException {
+        sheet.write("</sheetData></worksheet>");
+        sheet.flush();
+        zip.closeEntry();
+        zip.close();
+    }
+    
+    private void entry(String name, String xml) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write((HEADER + xml).getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+    
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                // Caracteres de controle não são aceitos em XML 1.0
+                default -> {
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.sarahpilates.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.sarahpilates.entity.User;
+import com.sarahpilates.repository.UserRepository;
+import com.sarahpilates.service.UserService;
+import com.sarahpilates.support.QueryCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerTest {
+    
+    private static final String EMAIL = "token.teste@sarahpilates.com";
+    private static final String PASSWORD = "senha123";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private User user;
+    
+    @BeforeEach
+    void setUp() {
+        User newUser = new User();
+        newUser.setName("Usuário Token");
+        newUser.setEmail(EMAIL);
+        newUser.setPassword(PASSWORD);
+        newUser.setRole(User.UserRole.ADMIN);
+        user = userService.save(newUser);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+    
+    @Test
+    void tokenAuthenticatesWithoutQueriesUntilUserIsDeactivated() throws Exception {
+        String token = "Bearer " + login();
+        
+        mockMvc.perform(get("/auth/me").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(EMAIL));
+        
+        // Situação do usuário já em memória: o perfil vem da claim do token
+        QueryCounter.assertAtMost(0, "Requisição autenticada por token",
+                () -> mockMvc.perform(get("/cache/statistics").header("Authorization", token))
+                        .andExpect(status().isOk()));
+        
+        User deactivated = userService.findById(user.getId()).orElseThrow();
+        deactivated.setActive(false);
+        userService.update(user.getId(), deactivated);
+        
+        mockMvc.perform(get("/cache/statistics").header("Authorization", token))
+                .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void repeatedTokenIsVerifiedOnce() throws Exception {
+        String token = "Bearer " + login();
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/cache/tokens").header("Authorization", token))
+                    .andExpect(status().isOk());
+        }
+        
+        // A primeira requisição verifica o token; as demais o encontram no cache
+        mockMvc.perform(get("/cache/tokens").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(greaterThanOrEqualTo(3)));
+    }
+    
+    @Test
+    void loginRehashesPasswordWithLowerCost() throws Exception {
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        stored.setPassword(new BCryptPasswordEncoder(4).encode(PASSWORD));
+        userRepository.save(stored);
+        
+        login();
+        
+        // Custo configurado em application-test.yml
+        assertTrue(userRepository.findById(user.getId()).orElseThrow().getPassword().startsWith("$2a$05$"));
+    }
+    
+    @Test
+    void loginRehashesPasswordWithHigherCost() throws Exception {
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        stored.setPassword(new BCryptPasswordEncoder(6).encode(PASSWORD));
+        userRepository.save(stored);
+        
+        login();
+        
+        // Baixar o custo configurado também alcança as senhas já gravadas
+        assertTrue(userRepository.findById(user.getId()).orElseThrow().getPassword().startsWith("$2a$05$"));
+    }
+    
+    private String login() throws Exception {
+        // O login responde de forma assíncrona, pelo pool de verificação de senhas
+        MvcResult started = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(response, "$.token");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.sarahpilates.controller;
+
+import com.sarahpilates.security.JwtTokenProvider;
+import com.sarahpilates.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Vazão e latência da API com vários clientes simultâneos, para comparar o
+ * modo com threads de plataforma (pool do Tomcat) com o de threads virtuais.
+ * Cada requisição passa pelo filtro JWT e por uma consulta paginada ao banco.
+ *
+ * Não faz parte do build normal: o nome da classe não segue o padrão do
+ * Surefire. Para executar nos dois modos (threads virtuais exigem Java 21 e o
+ * perfil Maven virtual-threads):
+ * <pre>
+ * mvn test -Dtest=RequestThroughputBenchmark -Dbenchmark.clients=50,200,800
+ * mvn test -Pvirtual-threads -Dtest=RequestThroughputBenchmark -Dbenchmark.clients=50,200,800 -Dbenchmark.virtual=true
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=${benchmark.virtual:false}",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.sarahpilates=INFO",
+        "logging.level.org.springframework.security=INFO"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class RequestThroughputBenchmark {
+    
+    private static final int STUDENTS = 2_000;
+    private static final int REQUESTS_PER_CLIENT = 50;
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void measureConcurrentRequests() throws Exception {
+        int[] clients = Arrays.stream(System.getProperty("benchmark.clients", "50,200").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        insertStudents();
+        String token = "Bearer " + jwtTokenProvider.generateToken(
+                userService.findByEmail("admin@sarahpilates.com").orElseThrow());
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        
+        System.out.printf("%nJava %s, threads virtuais: %s%n", Runtime.version(),
+                System.getProperty("benchmark.virtual", "false"));
+        System.out.printf("%8s %12s %10s %10s %10s%n", "clientes", "req/s", "p50", "p99", "erros");
+        // Aquecimento do JIT, dos pools e dos caches antes da medição
+        run(client, token, 20);
+        for (int concurrency : clients) {
+            long start = System.nanoTime();
+            Result result = run(client, token, concurrency);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%8d %12.0f %8.2fms %8.2fms %10d%n", concurrency,
+                    result.latencies().length / seconds,
+                    percentile(result.latencies(), 50), percentile(result.latencies(), 99), result.errors());
+            assertEquals(0, result.errors());
+        }
+        jdbcTemplate.update("DELETE FROM students");
+    }
+    
+    private Result run(HttpClient client, String token, int concurrency) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> tasks = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            int offset = c;
+            tasks.add(executor.submit(() -> {
+                start.await();
+                long[] nanos = new long[REQUESTS_PER_CLIENT];
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                                    + "/api/students?page=" + (offset + i) % 50 + "&size=20"))
+                            .header("Authorization", token)
+                            .build();
+                    long begin = System.nanoTime();
+                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    // Latência negativa marca a falha; contada à parte
+                    nanos[i] = status == 200 ? System.nanoTime() - begin : -1;
+                }
+                return nanos;
+            }));
+        }
+        start.countDown();
+        List<Long> latencies = new ArrayList<>();
+        int errors = 0;
+        for (Future<long[]> task : tasks) {
+            for (long nanos : task.get()) {
+                if (nanos < 0) {
+                    errors++;
+                } else {
+                    latencies.add(nanos);
+                }
+            }
+        }
+        executor.shutdown();
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Result(sorted, errors);
+    }
+    
+    private static double percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+    
+    private void insertStudents() {
+        String sql = "INSERT INTO students (name, email, phone, birth_date, emergency_contact, emergency_phone, " +
+                "plan, status, registration_date, total_classes, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Date today = Date.valueOf(LocalDate.now());
+        List<Object[]> batch = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            batch.add(new Object[] {"Aluno Carga " + i, "aluno.carga" + i + "@exemplo.com.br", "(11) 99999-0000",
+                    Date.valueOf(LocalDate.of(1990, 1, 1)), "Contato", "(11) 99999-0001", "Mensal - 8 aulas",
+                    "ATIVO", today, 0, now});
+        }
+        jdbcTemplate.batchUpdate(sql, batch);
+    }
+    
+    private record Result(long[] latencies, int errors) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.sarahpilates.controller;
+
+import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.entity.Student;
+import com.sarahpilates.repository.DailyScheduleRollupRepository;
+import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.ScheduleRepository;
+import com.sarahpilates.repository.StudentRepository;
+import com.sarahpilates.service.ScheduleConflictIndex;
+import com.sarahpilates.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "sarah-pilates.schedule.conflict-index.verify=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class ScheduleConflictVerifyTest {
+    
+    // Dentro da janela carregada na inicialização: o índice não consulta o banco para esta data
+    private static final LocalDate DATE = LocalDate.now().plusDays(1);
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ScheduleConflictIndex conflictIndex;
+    
+    @Autowired
+    private DailyScheduleRollupRepository rollupRepository;
+    
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private InstructorRepository instructorRepository;
+    
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        scheduleRepository.deleteAll();
+        studentRepository.deleteAll();
+        instructorRepository.deleteAll();
+    }
+    
+    @Test
+    void verifyModeRejectsFromTheDatabaseAndReloadsADivergentIndex() throws Exception {
+        Student student = studentRepository.save(TestFixtures.student("Aluno Verificação", "verifica@teste.com"));
+        Instructor instructor = instructorRepository.save(
+                TestFixtures.instructor("Instrutor Verificação", "instrutor.verifica@teste.com"));
+        
+        // Gravado direto pelo repositório: o índice não fica sabendo deste horário
+        Schedule schedule = new Schedule();
+        schedule.setStudent(student);
+        schedule.setInstructor(instructor);
+        schedule.setDate(DATE);
+        schedule.setStartTime(LocalTime.of(9, 0));
+        schedule.setEndTime(LocalTime.of(10, 0));
+        schedule.setPrice(new BigDecimal("80.00"));
+        Long hidden = scheduleRepository.save(schedule).getId();
+        assertEquals(List.of(), conflictIndex.findConflicts(instructor.getId(), DATE,
+                LocalTime.of(9, 30), LocalTime.of(10, 30), null));
+        
+        mockMvc.perform(post("/schedules").contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"student": {"id": %d}, "instructor": {"id": %d}, "date": "%s",
+                                 "startTime": "09:30", "endTime": "10:30", "price": 80.00}
+                                """.formatted(student.getId(), instructor.getId(), DATE)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.details[0]").value("09:00-10:00 (agendamento #" + hidden + ")"));
+        
+        // A divergência fez o índice reler a agenda do banco
+        assertEquals(List.of(new ScheduleConflictIndex.Slot(hidden, LocalTime.of(9, 0), LocalTime.of(10, 0))),
+                conflictIndex.findConflicts(instructor.getId(), DATE, LocalTime.of(9, 30), LocalTime.of(10, 30), null));
+    }
+}
\ No newline at end of file
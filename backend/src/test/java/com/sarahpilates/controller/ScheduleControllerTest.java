@@ -0,0 +1,350 @@
+package com.sarahpilates.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.entity.Student;
+import com.sarahpilates.repository.DailyScheduleRollupRepository;
+import com.sarahpilates.repository.IdempotencyKeyRepository;
+import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.ScheduleRepository;
+import com.sarahpilates.repository.StudentRepository;
+import com.sarahpilates.service.SearchIndexService;
+import com.sarahpilates.support.QueryCounter;
+import com.sarahpilates.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class ScheduleControllerTest {
+    
+    // Projeção + contagem + equipamentos, independente do tamanho da página
+    private static final int MAX_STATEMENTS = 3;
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 3);
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private DailyScheduleRollupRepository rollupRepository;
+    
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private InstructorRepository instructorRepository;
+    
+    @BeforeEach
+    void setUp() {
+        List<Student> students = studentRepository.saveAll(TestFixtures.students("Lista", 10));
+        
+        List<Instructor> instructors = TestFixtures.instructors("Lista", 4);
+        instructors.forEach(instructor ->
+                instructor.setSpecializations(new ArrayList<>(List.of("Pilates Solo", "Reformer"))));
+        instructors = instructorRepository.saveAll(instructors);
+        
+        for (int i = 0; i < 40; i++) {
+            Schedule schedule = new Schedule();
+            schedule.setStudent(students.get(i % students.size()));
+            schedule.setInstructor(instructors.get(i % instructors.size()));
+            schedule.setDate(DATE.plusDays(i % 2));
+            schedule.setStartTime(LocalTime.of(6 + i / 4, 0));
+            schedule.setEndTime(LocalTime.of(6 + i / 4, 50));
+            schedule.setEquipment(new ArrayList<>(List.of("Reformer", "Bola")));
+            schedule.setPrice(new BigDecimal("80.00"));
+            // Texto livre que o Excel executaria como fórmula
+            schedule.setNotes(i == 0 ? "=HYPERLINK(\"http://x\")" : null);
+            scheduleRepository.save(schedule);
+        }
+        searchIndexService.rebuild();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        idempotencyKeyRepository.deleteAll();
+        rollupRepository.deleteAll();
+        scheduleRepository.deleteAll();
+        studentRepository.deleteAll();
+        instructorRepository.deleteAll();
+        searchIndexService.rebuild();
+    }
+    
+    @Test
+    void exportStreamsWholePeriodAsCsvAndXlsx() throws Exception {
+        String csv = mockMvc.perform(get("/schedules/export")
+                        .param("startDate", DATE.toString())
+                        .param("endDate", DATE.plusDays(1).toString())
+                        .param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString(".csv")))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String[] lines = csv.split("\r\n");
+        assertEquals(41, lines.length);
+        assertTrue(lines[0].startsWith("\uFEFFId,Data,"));
+        assertTrue(lines[1].startsWith(DATE.toString(), lines[1].indexOf(',') + 1));
+        assertTrue(lines[1].endsWith("Reformer; Bola") || lines[1].endsWith("Bola; Reformer"));
+        assertTrue(lines[1].contains(",\"'=HYPERLINK(\"\"http://x\"\")\","), lines[1]);
+        
+        byte[] xlsx = mockMvc.perform(get("/schedules/export")
+                        .param("startDate", DATE.toString())
+                        .param("endDate", DATE.plusDays(1).toString())
+                        .param("format", "XLSX"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        String sheet = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(xlsx))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                    sheet = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        assertEquals(41, sheet.split("<row>", -1).length - 1);
+        assertTrue(sheet.contains("<c><v>80.00</v></c>"));
+    }
+    
+    @Test
+    void listEndpointsLoadAssociationsWithoutNPlusOne() throws Exception {
+        QueryCounter.assertAtMost(MAX_STATEMENTS, "GET /schedules", () ->
+                mockMvc.perform(get("/schedules").param("size", "50").param("sort", "date,desc"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content.length()").value(40))
+                        .andExpect(jsonPath("$.content[0].date").value(DATE.plusDays(1).toString()))
+                        .andExpect(jsonPath("$.content[0].studentName").exists())
+                        .andExpect(jsonPath("$.content[0].notes").doesNotExist())
+                        .andExpect(jsonPath("$.content[0].equipment.length()").value(2)));
+        
+        QueryCounter.assertAtMost(MAX_STATEMENTS, "GET /schedules?search", () ->
+                mockMvc.perform(get("/schedules").param("search", "instrutor lista").param("size", "50"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content.length()").value(40))
+                        .andExpect(jsonPath("$.content[0].instructorName").exists()));
+        
+        QueryCounter.assertAtMost(MAX_STATEMENTS, "GET /schedules/date", () ->
+                mockMvc.perform(get("/schedules/date/{date}", DATE))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(20))
+                        .andExpect(jsonPath("$[0].instructorName").exists())
+                        .andExpect(jsonPath("$[0].durationMinutes").value(50)));
+        
+        QueryCounter.assertAtMost(MAX_STATEMENTS, "GET /schedules/date-range", () ->
+                mockMvc.perform(get("/schedules/date-range")
+                                .param("startDate", DATE.toString())
+                                .param("endDate", DATE.plusDays(1).toString()))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(40))
+                        .andExpect(jsonPath("$[0].equipment.length()").value(2)));
+    }
+    
+    @Test
+    void cursorModeWalksEverySchedulePageFromNewestToOldest() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        String cursor = "";
+        for (int expected : new int[] {15, 15, 10}) {
+            String request = cursor;
+            MvcResult[] result = new MvcResult[1];
+            // Consulta da página + equipamentos, sem COUNT
+            QueryCounter.assertAtMost(2, "GET /schedules?cursor", () ->
+                    result[0] = mockMvc.perform(get("/schedules").param("cursor", request).param("size", "15"))
+                            .andExpect(status().isOk())
+                            .andExpect(jsonPath("$.content.length()").value(expected))
+                            .andExpect(jsonPath("$.hasNext").value(expected == 15))
+                            .andReturn());
+            String body = result[0].getResponse().getContentAsString();
+            seen.addAll(JsonPath.<List<Number>>read(body, "$.content[*].id").stream().map(Number::longValue).toList());
+            cursor = JsonPath.read(body, "$.nextCursor");
+        }
+        
+        assertNull(cursor);
+        assertEquals(40, new HashSet<>(seen).size());
+        // A primeira página começa pelo último horário do dia mais recente
+        mockMvc.perform(get("/schedules").param("cursor", "").param("size", "1"))
+                .andExpect(jsonPath("$.content[0].date").value(DATE.plusDays(1).toString()))
+                .andExpect(jsonPath("$.content[0].startTime").value("15:00:00"));
+        mockMvc.perform(get("/schedules").param("cursor", "nao-e-um-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void seriesBooksEveryFreeOccurrenceAndReportsConflicts() throws Exception {
+        Long instructorId = scheduleRepository.findByDate(DATE).get(0).getInstructor().getId();
+        Long studentId = studentRepository.findAll().get(0).getId();
+        // 03/06/2024 é segunda-feira; o instrutor já dá aula às 07:00 nesse dia
+        Long existing = scheduleRepository.findByInstructorId(instructorId).stream()
+                .filter(schedule -> schedule.getDate().equals(DATE) && schedule.getStartTime().getHour() == 7)
+                .findFirst().orElseThrow().getId();
+        String request = """
+                {"studentId": %d, "instructorId": %d, "daysOfWeek": ["MONDAY", "TUESDAY"],
+                 "startTime": "07:00", "endTime": "07:50", "startDate": "%s", "endDate": "%s",
+                 "equipment": ["Reformer"], "price": 75.00}
+                """.formatted(studentId, instructorId, DATE, DATE.plusDays(27));
+        
+        mockMvc.perform(post("/schedules/series").contentType(MediaType.APPLICATION_JSON).content(request))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(7))
+                .andExpect(jsonPath("$.conflicts").value(1))
+                .andExpect(jsonPath("$.occurrences.length()").value(8))
+                .andExpect(jsonPath("$.occurrences[0].date").value(DATE.toString()))
+                .andExpect(jsonPath("$.occurrences[0].status").value("CONFLITO"))
+                .andExpect(jsonPath("$.occurrences[0].conflictsWith[0]").value(
+                        "07:00-07:50 (agendamento #" + existing + ")"))
+                .andExpect(jsonPath("$.occurrences[1].status").value("CRIADO"))
+                .andExpect(jsonPath("$.occurrences[1].scheduleId").isNumber());
+        
+        mockMvc.perform(get("/schedules/date/{date}", DATE.plusDays(7)))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].instructorId").value(instructorId))
+                .andExpect(jsonPath("$[0].equipment[0]").value("Reformer"));
+        assertEquals(7L, rollupRepository.findAll().stream()
+                .mapToLong(rollup -> rollup.getScheduledCount()).sum());
+        
+        // Repetir a série agora só encontra conflitos
+        mockMvc.perform(post("/schedules/series").contentType(MediaType.APPLICATION_JSON).content(request))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.conflicts").value(8));
+    }
+    
+    @Test
+    void bookingRejectsOverlapsButAcceptsTouchingSlots() throws Exception {
+        Long instructorId = scheduleRepository.findByDate(DATE).get(0).getInstructor().getId();
+        Long studentId = studentRepository.findAll().get(0).getId();
+        // O instrutor dá aula de hora em hora, das 06:00 às 15:50, com 10 minutos livres entre as aulas
+        Long seven = scheduleAt(instructorId, 7);
+        Long eight = scheduleAt(instructorId, 8);
+        
+        mockMvc.perform(post("/schedules").contentType(MediaType.APPLICATION_JSON)
+                        .content(booking(studentId, instructorId, "07:30", "08:10")))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Instrutor já possui agendamento neste horário"))
+                .andExpect(jsonPath("$.details.length()").value(2))
+                .andExpect(jsonPath("$.details[0]").value("07:00-07:50 (agendamento #" + seven + ")"))
+                .andExpect(jsonPath("$.details[1]").value("08:00-08:50 (agendamento #" + eight + ")"));
+        
+        // Encostar no fim de uma aula e no início da seguinte não é conflito
+        String touching = booking(studentId, instructorId, "07:50", "08:00");
+        Long created = ((Number) JsonPath.read(mockMvc.perform(post("/schedules")
+                        .contentType(MediaType.APPLICATION_JSON).content(touching))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id")).longValue();
+        
+        // A atualização não conflita com o próprio horário, mas o novo horário já está no índice
+        mockMvc.perform(put("/schedules/{id}", created).contentType(MediaType.APPLICATION_JSON).content(touching))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/schedules").contentType(MediaType.APPLICATION_JSON)
+                        .content(booking(studentId, instructorId, "07:55", "07:58")))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.details[0]").value("07:50-08:00 (agendamento #" + created + ")"));
+        
+        // Aulas canceladas e excluídas liberam o horário
+        mockMvc.perform(patch("/schedules/{id}/status", seven).param("status", "CANCELADO"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/schedules/{id}", eight))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/schedules").contentType(MediaType.APPLICATION_JSON)
+                        .content(booking(studentId, instructorId, "07:00", "07:50")))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/schedules").contentType(MediaType.APPLICATION_JSON)
+                        .content(booking(studentId, instructorId, "08:00", "08:50")))
+                .andExpect(status().isCreated());
+    }
+    
+    @Test
+    void bulkStatusClosesClassesOnceAndReplaysRetries() throws Exception {
+        Student student = studentRepository.findAll().get(0);
+        List<Schedule> schedules = scheduleRepository.findByStudentId(student.getId());
+        Long instructorId = schedules.get(0).getInstructor().getId();
+        int instructorClasses = (int) schedules.stream()
+                .filter(schedule -> schedule.getInstructor().getId().equals(instructorId)).count();
+        StringBuilder items = new StringBuilder();
+        for (Schedule schedule : schedules) {
+            items.append("{\"scheduleId\": ").append(schedule.getId()).append(", \"status\": \"CONCLUIDO\"}, ");
+        }
+        String request = "{\"items\": [" + items + "{\"scheduleId\": 999999, \"status\": \"FALTA\"}]}";
+        
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(patch("/schedules/status").header("Idempotency-Key", "fechamento-1")
+                            .contentType(MediaType.APPLICATION_JSON).content(request))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.updated").value(schedules.size()))
+                    .andExpect(jsonPath("$.notFound").value(1))
+                    .andExpect(jsonPath("$.items[0].previousStatus").value("AGENDADO"))
+                    .andExpect(jsonPath("$.items[0].outcome").value("ATUALIZADO"))
+                    .andExpect(jsonPath("$.items[" + schedules.size() + "].outcome").value("NAO_ENCONTRADO"));
+        }
+        
+        // A repetição devolveu o resultado original sem contar as aulas de novo
+        assertEquals(schedules.size(), studentRepository.findById(student.getId()).orElseThrow().getTotalClasses());
+        assertEquals(instructorClasses, instructorRepository.findById(instructorId).orElseThrow().getTotalClasses());
+        assertEquals(schedules.size(), scheduleRepository.findByStatus(Schedule.ScheduleStatus.CONCLUIDO).size());
+        
+        // Mesma chave com outros dados é recusada
+        mockMvc.perform(patch("/schedules/status").header("Idempotency-Key", "fechamento-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\": [{\"scheduleId\": 999999, \"status\": \"FALTA\"}]}"))
+                .andExpect(status().isBadRequest());
+        
+        // Sem chave, aplicar de novo não altera nada
+        mockMvc.perform(patch("/schedules/status").contentType(MediaType.APPLICATION_JSON).content(request))
+                .andExpect(jsonPath("$.updated").value(0))
+                .andExpect(jsonPath("$.unchanged").value(schedules.size()));
+    }
+    
+    private Long scheduleAt(Long instructorId, int hour) {
+        return scheduleRepository.findByInstructorId(instructorId).stream()
+                .filter(schedule -> schedule.getDate().equals(DATE) && schedule.getStartTime().getHour() == hour)
+                .findFirst().orElseThrow().getId();
+    }
+    
+    private static String booking(Long studentId, Long instructorId, String startTime, String endTime) {
+        return """
+                {"student": {"id": %d}, "instructor": {"id": %d}, "date": "%s",
+                 "startTime": "%s", "endTime": "%s", "price": 80.00}
+                """.formatted(studentId, instructorId, DATE, startTime, endTime);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.repository.StudentRepository;
+import com.sarahpilates.util.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara a busca por trechos de telefone e e-mail feita com LIKE '%termo%'
+ * (consulta original do repositório) com o índice de trigramas.
+ *
+ * Não faz parte do build normal: o nome da classe não segue o padrão do
+ * Surefire. Para executar:
+ * <pre>
+ * mvn test -Dtest=ContactSearchBenchmark -Dbenchmark.rows=10000,100000,1000000
+ * </pre>
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.sarahpilates=INFO",
+        "logging.level.org.springframework.security=INFO"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class ContactSearchBenchmark {
+    
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final int QUERIES = 200;
+    private static final String[] WORDS = {"silva", "souza", "lima", "costa", "pereira", "alves", "rocha", "gomes"};
+    
+    @Autowired
+    private StudentService studentService;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final Random random = new Random(42);
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM students");
+    }
+    
+    @Test
+    void compareLikeQueriesWithTrigramIndex() {
+        int[] sizes = Arrays.stream(System.getProperty("benchmark.rows", "10000,100000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Pageable page = PageRequest.of(0, 20);
+        
+        System.out.printf("%n%10s %-8s %12s %12s %12s %12s%n",
+                "linhas", "trecho", "LIKE p50", "LIKE p99", "índice p50", "índice p99");
+        for (int rows : sizes) {
+            jdbcTemplate.update("DELETE FROM students");
+            List<String[]> contacts = insertStudents(rows);
+            long start = System.nanoTime();
+            searchIndexService.rebuild();
+            long rebuildMillis = (System.nanoTime() - start) / 1_000_000;
+            
+            List<String> phoneFragments = new ArrayList<>();
+            List<String> emailFragments = new ArrayList<>();
+            for (int i = 0; i < QUERIES; i++) {
+                String[] contact = contacts.get(random.nextInt(contacts.size()));
+                // "(11) 98765-4321": os cinco dígitos do meio, que o LIKE também encontra
+                phoneFragments.add(contact[0].substring(5, 10));
+                emailFragments.add(contact[1].substring(2, 10));
+            }
+            
+            // O índice compara só os dígitos, então encontra ao menos o que o LIKE encontra
+            String probe = phoneFragments.get(0);
+            assertTrue(studentService.search(probe, page).getTotalElements()
+                    >= studentRepository.findBySearchTerm(probe, page).getTotalElements());
+            
+            report(rows, "telefone", phoneFragments,
+                    term -> studentRepository.findBySearchTerm(term, page),
+                    term -> studentService.search(term, page));
+            report(rows, "e-mail", emailFragments,
+                    term -> studentRepository.findBySearchTerm(term, page),
+                    term -> studentService.search(term, page));
+            System.out.printf("%10d reconstrução do índice: %d ms%n", rows, rebuildMillis);
+        }
+    }
+    
+    private void report(int rows, String label, List<String> terms, Consumer<String> like, Consumer<String> index) {
+        // Aquecimento do JIT e dos caches antes da medição
+        terms.stream().limit(20).forEach(like.andThen(index));
+        long[] likeNanos = measure(terms, like);
+        long[] indexNanos = measure(terms, index);
+        System.out.printf("%10d %-8s %10.2fms %10.2fms %10.2fms %10.2fms%n", rows, label,
+                percentile(likeNanos, 50), percentile(likeNanos, 99),
+                percentile(indexNanos, 50), percentile(indexNanos, 99));
+    }
+    
+    private static long[] measure(List<String> terms, Consumer<String> search) {
+        long[] nanos = new long[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            long start = System.nanoTime();
+            search.accept(terms.get(i));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+    
+    private static double percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+    
+    private List<String[]> insertStudents(int rows) {
+        String sql = "INSERT INTO students (name, email, phone, birth_date, emergency_contact, emergency_phone, " +
+                "plan, status, registration_date, total_classes, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Date today = Date.valueOf(LocalDate.now());
+        List<String[]> contacts = new ArrayList<>(rows);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            String phone = StringUtils.formatPhone(String.format("119%08d", random.nextInt(100_000_000)));
+            String email = word + "." + Integer.toString(i, 36) + "@exemplo.com.br";
+            contacts.add(new String[] {phone, email});
+            batch.add(new Object[] {"Aluno " + word + " " + i, email, phone, Date.valueOf(LocalDate.of(1990, 1, 1)),
+                    "Contato", phone, "Mensal - 8 aulas", "ATIVO", today, 0, now});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        return contacts;
+    }
+}
\ No newline at end of file
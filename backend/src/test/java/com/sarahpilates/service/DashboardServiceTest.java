@@ -0,0 +1,115 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.dto.DashboardStats;
+import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.entity.Student;
+import com.sarahpilates.repository.DailyScheduleRollupRepository;
+import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.ScheduleRepository;
+import com.sarahpilates.repository.StudentRepository;
+import com.sarahpilates.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DashboardServiceTest {
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @Autowired
+    private StudentService studentService;
+    
+    @Autowired
+    private InstructorService instructorService;
+    
+    @Autowired
+    private ScheduleService scheduleService;
+    
+    @Autowired
+    private DailyScheduleRollupRepository rollupRepository;
+    
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private InstructorRepository instructorRepository;
+    
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        scheduleRepository.deleteAll();
+        studentRepository.deleteAll();
+        instructorRepository.deleteAll();
+    }
+    
+    @Test
+    void writesRefreshOnlyTheAffectedCounters() {
+        DashboardStats initial = dashboardService.getStats();
+        
+        Student student = studentService.save(TestFixtures.student("Aluno Dashboard", "aluno.dashboard@teste.com"));
+        
+        DashboardStats afterStudent = awaitStats(stats -> stats.getTotalStudents() == initial.getTotalStudents() + 1);
+        assertTrue(afterStudent.getSnapshotVersion() > initial.getSnapshotVersion());
+        assertEquals(initial.getTotalInstructors(), afterStudent.getTotalInstructors());
+        
+        Instructor instructor = instructorService.save(
+                TestFixtures.instructor("Instrutor Dashboard", "instrutor.dashboard@teste.com"));
+        awaitStats(stats -> stats.getTotalInstructors() == initial.getTotalInstructors() + 1);
+        
+        Schedule schedule = new Schedule();
+        schedule.setStudent(student);
+        schedule.setInstructor(instructor);
+        schedule.setDate(LocalDate.now());
+        schedule.setStartTime(LocalTime.of(10, 0));
+        schedule.setEndTime(LocalTime.of(11, 0));
+        schedule.setStatus(Schedule.ScheduleStatus.CONFIRMADO);
+        schedule.setPrice(new BigDecimal("90.00"));
+        schedule = scheduleService.save(schedule);
+        
+        DashboardStats afterSchedule = awaitStats(stats -> stats.getTodaySchedules() == initial.getTodaySchedules() + 1);
+        assertEquals(initial.getTodaySchedulesList().size() + 1, afterSchedule.getTodaySchedulesList().size());
+        assertEquals("Aluno Dashboard", afterSchedule.getTodaySchedulesList().stream()
+                .filter(s -> s.getDate().equals(LocalDate.now()) && s.getStartTime().equals(LocalTime.of(10, 0)))
+                .findFirst().orElseThrow().getStudent().getName());
+        
+        scheduleService.updateStatus(schedule.getId(), Schedule.ScheduleStatus.CONCLUIDO);
+        DashboardStats afterCompleted = awaitStats(stats ->
+                stats.getCompletedClasses() == initial.getCompletedClasses() + 1);
+        assertEquals(initial.getTodaySchedules(), afterCompleted.getTodaySchedules());
+    }
+    
+    private DashboardStats awaitStats(Predicate<DashboardStats> condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            DashboardStats stats = dashboardService.getStats();
+            if (condition.test(stats)) {
+                return stats;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return fail("Estatísticas do dashboard não foram atualizadas");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.dto.ReportDTO;
+import com.sarahpilates.entity.ReportJob;
+import com.sarahpilates.event.ScheduleChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "ADMIN")
+class ReportCacheServiceTest {
+    
+    private static final LocalDate START = LocalDate.of(2021, 1, 1);
+    private static final LocalDate END = LocalDate.of(2021, 12, 31);
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ReportService reportService;
+    
+    @Autowired
+    private ReportCacheService reportCacheService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Test
+    void closedPeriodReportIsCachedUntilAScheduleDatedInsideItChanges() throws Exception {
+        ReportDTO.FinancialReport first = reportService.generateFinancialReport(START, END);
+        long hits = reportCacheService.statistics().getHits();
+        long invalidated = reportCacheService.statistics().getInvalidated();
+        assertSame(first, reportService.generateFinancialReport(START, END));
+        
+        // Agendamento fora do período: o relatório continua valendo
+        eventPublisher.publishEvent(new ScheduleChangedEvent(ScheduleChangedEvent.Type.DELETED, 1L,
+                END.plusDays(1), null, null));
+        assertSame(first, reportService.generateFinancialReport(START, END));
+        
+        // Agendamento do último dia do período
+        eventPublisher.publishEvent(new ScheduleChangedEvent(ScheduleChangedEvent.Type.DELETED, 2L,
+                END, null, null));
+        assertNotSame(first, reportService.generateFinancialReport(START, END));
+        
+        mockMvc.perform(get("/cache/reports"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(hits + 2))
+                .andExpect(jsonPath("$.invalidated").value(invalidated + 1));
+    }
+    
+    @Test
+    void currentPeriodReportExpiresAfterItsTtl() throws Exception {
+        ReportCacheService cache = new ReportCacheService(10, Duration.ofMillis(50));
+        AtomicInteger generated = new AtomicInteger();
+        LocalDate today = LocalDate.now();
+        
+        Object first = cache.get(ReportJob.ReportType.FINANCEIRO, today.withDayOfMonth(1), today,
+                () -> "relatório " + generated.incrementAndGet());
+        assertSame(first, cache.get(ReportJob.ReportType.FINANCEIRO, today.withDayOfMonth(1), today,
+                () -> "relatório " + generated.incrementAndGet()));
+        
+        Thread.sleep(100);
+        assertEquals("relatório 2", cache.get(ReportJob.ReportType.FINANCEIRO, today.withDayOfMonth(1), today,
+                () -> "relatório " + generated.incrementAndGet()));
+        
+        // Período encerrado, com o mesmo prazo configurado, não expira
+        Object closed = cache.get(ReportJob.ReportType.FINANCEIRO, START, END, () -> "encerrado");
+        Thread.sleep(100);
+        assertSame(closed, cache.get(ReportJob.ReportType.FINANCEIRO, START, END, () -> "recalculado"));
+    }
+    
+    @Test
+    void reportComputedWhileAChangeCommitsIsNotCached() {
+        ReportCacheService cache = new ReportCacheService(10, Duration.ofMinutes(1));
+        AtomicInteger generated = new AtomicInteger();
+        
+        // A alteração chega enquanto o relatório é calculado: ele pode ter lido o estado anterior
+        Object stale = cache.get(ReportJob.ReportType.FREQUENCIA, START, END, () -> {
+            cache.onScheduleChanged(new ScheduleChangedEvent(ScheduleChangedEvent.Type.DELETED, 1L,
+                    START, null, null));
+            return "relatório " + generated.incrementAndGet();
+        });
+        assertEquals("relatório 1", stale);
+        
+        Object fresh = cache.get(ReportJob.ReportType.FREQUENCIA, START, END,
+                () -> "relatório " + generated.incrementAndGet());
+        assertEquals("relatório 2", fresh);
+        assertSame(fresh, cache.get(ReportJob.ReportType.FREQUENCIA, START, END,
+                () -> "relatório " + generated.incrementAndGet()));
+    }
+}
\ No newline at end of file
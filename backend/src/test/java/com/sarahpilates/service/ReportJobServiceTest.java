@@ -0,0 +1,86 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.entity.ReportJob;
+import com.sarahpilates.event.ScheduleChangedEvent;
+import com.sarahpilates.repository.ReportJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReportJobServiceTest {
+    
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private static final LocalDate END = LocalDate.of(2023, 12, 31);
+    
+    @Autowired
+    private ReportJobService reportJobService;
+    
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @AfterEach
+    void tearDown() {
+        reportJobRepository.deleteAll();
+    }
+    
+    @Test
+    void identicalRequestsShareOneJobAndClosedPeriodsAreServedFromStoredResult() throws Exception {
+        ReportJob first = reportJobService.submit(ReportJob.ReportType.FINANCEIRO, START, END);
+        ReportJob second = reportJobService.submit(ReportJob.ReportType.FINANCEIRO, START, END);
+        
+        ReportJob completed = awaitCompletion(first.getId());
+        assertEquals(ReportJob.JobStatus.CONCLUIDO, completed.getStatus());
+        assertNotNull(completed.getResult());
+        // O segundo pedido chegou antes ou depois da conclusão: nos dois casos, a mesma geração
+        assertEquals(first.getId(), second.getId());
+        
+        ReportJob stored = reportJobService.submit(ReportJob.ReportType.FINANCEIRO, START, END);
+        assertEquals(first.getId(), stored.getId());
+        assertEquals(ReportJob.JobStatus.CONCLUIDO, stored.getStatus());
+        // Período encerrado: mantido por bem mais que os minutos do período atual
+        assertTrue(stored.getExpiresAt().isAfter(stored.getCompletedAt().plusDays(1)));
+        assertEquals(1, reportJobRepository.count());
+    }
+    
+    @Test
+    void storedResultIsDeletedWhenAScheduleDatedInsideItChanges() throws Exception {
+        ReportJob job = awaitCompletion(reportJobService.submit(ReportJob.ReportType.FINANCEIRO, START, END).getId());
+        assertEquals(ReportJob.JobStatus.CONCLUIDO, job.getStatus());
+        
+        // Agendamento fora do período: o resultado gravado continua valendo
+        eventPublisher.publishEvent(new ScheduleChangedEvent(ScheduleChangedEvent.Type.DELETED, 1L,
+                END.plusDays(1), null, null));
+        assertTrue(reportJobRepository.existsById(job.getId()));
+        
+        // Agendamento do último dia do período
+        eventPublisher.publishEvent(new ScheduleChangedEvent(ScheduleChangedEvent.Type.DELETED, 2L,
+                END, null, null));
+        assertFalse(reportJobRepository.existsById(job.getId()));
+    }
+    
+    private ReportJob awaitCompletion(Long id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            ReportJob job = reportJobRepository.findById(id).orElseThrow();
+            if (job.getStatus() == ReportJob.JobStatus.CONCLUIDO || job.getStatus() == ReportJob.JobStatus.FALHOU) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Relatório não concluído a tempo");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.dto.BulkStatusRequest;
+import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.entity.Student;
+import com.sarahpilates.repository.DailyScheduleRollupRepository;
+import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.InstructorStudentRepository;
+import com.sarahpilates.repository.ScheduleRepository;
+import com.sarahpilates.repository.StudentRepository;
+import com.sarahpilates.support.QueryCounter;
+import com.sarahpilates.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ScheduleCounterContentionTest {
+    
+    private static final LocalDate DATE = LocalDate.of(2024, 8, 5);
+    private static final int THREADS = 8;
+    private static final int FLIPS_PER_THREAD = 40;
+    private static final Schedule.ScheduleStatus[] STATUSES = {
+            Schedule.ScheduleStatus.CONCLUIDO, Schedule.ScheduleStatus.CONFIRMADO, Schedule.ScheduleStatus.FALTA};
+    
+    @Autowired
+    private ScheduleService scheduleService;
+    
+    @Autowired
+    private ClassAttendanceService attendanceService;
+    
+    @Autowired
+    private InstructorStudentRepository instructorStudentRepository;
+    
+    @Autowired
+    private DailyScheduleRollupRepository rollupRepository;
+    
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private InstructorRepository instructorRepository;
+    
+    private final List<Student> students = new ArrayList<>();
+    private final List<Instructor> instructors = new ArrayList<>();
+    private final List<Long> scheduleIds = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        students.addAll(studentRepository.saveAll(TestFixtures.students("Contador", 2)));
+        instructors.addAll(instructorRepository.saveAll(TestFixtures.instructors("Contador", 2)));
+        
+        for (int i = 0; i < 12; i++) {
+            Schedule schedule = new Schedule();
+            schedule.setStudent(students.get(i % 2));
+            schedule.setInstructor(instructors.get(i / 6));
+            schedule.setDate(DATE);
+            schedule.setStartTime(LocalTime.of(7 + i % 6, 0));
+            schedule.setEndTime(LocalTime.of(7 + i % 6, 50));
+            schedule.setPrice(new BigDecimal("80.00"));
+            scheduleIds.add(scheduleService.save(schedule).getId());
+        }
+    }
+    
+    @AfterEach
+    void tearDown() {
+        instructorStudentRepository.deleteAll();
+        rollupRepository.deleteAll();
+        scheduleRepository.deleteAll();
+        studentRepository.deleteAll();
+        instructorRepository.deleteAll();
+    }
+    
+    @Test
+    void concurrentStatusFlipsKeepDerivedFieldsExact() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(t);
+            tasks.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < FLIPS_PER_THREAD; i++) {
+                    Long id = scheduleIds.get(random.nextInt(scheduleIds.size()));
+                    Schedule.ScheduleStatus status = STATUSES[random.nextInt(STATUSES.length)];
+                    if (i % 10 == 0) {
+                        scheduleService.updateStatuses(bulk(id, status,
+                                scheduleIds.get(random.nextInt(scheduleIds.size()))), null);
+                    } else {
+                        scheduleService.updateStatus(id, status);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> task : tasks) {
+            // Propaga qualquer falha das threads, inclusive deadlocks
+            task.get();
+        }
+        executor.shutdown();
+        
+        assertCountersMatchSchedules();
+        
+        // A reconstrução chega aos mesmos valores mantidos incrementalmente
+        attendanceService.rebuild();
+        assertCountersMatchSchedules();
+    }
+    
+    @Test
+    void cachedCountersAreEvictedWhenAClassIsCompleted() throws Exception {
+        Long studentId = students.get(0).getId();
+        studentRepository.findById(studentId).orElseThrow();
+        QueryCounter.assertAtMost(0, "Aluno já no cache de segundo nível",
+                () -> studentRepository.findById(studentId).orElseThrow());
+        
+        scheduleService.updateStatus(scheduleIds.get(0), Schedule.ScheduleStatus.CONCLUIDO);
+        
+        QueryCounter.reset();
+        assertEquals(1, studentRepository.findById(studentId).orElseThrow().getTotalClasses());
+        assertTrue(QueryCounter.count() > 0, "O aluno alterado deveria ter saído do cache");
+    }
+    
+    private void assertCountersMatchSchedules() {
+        List<Schedule> completed = scheduleRepository.findByStatus(Schedule.ScheduleStatus.CONCLUIDO);
+        for (Student student : students) {
+            List<Schedule> classes = completed.stream()
+                    .filter(schedule -> schedule.getStudent().getId().equals(student.getId()))
+                    .toList();
+            Student stored = studentRepository.findById(student.getId()).orElseThrow();
+            assertEquals(classes.size(), stored.getTotalClasses());
+            assertEquals(classes.stream()
+                    .map(schedule -> LocalDateTime.of(schedule.getDate(), schedule.getStartTime()))
+                    .max(Comparator.naturalOrder())
+                    .orElse(null), stored.getLastClass());
+        }
+        for (Instructor instructor : instructors) {
+            List<Schedule> classes = completed.stream()
+                    .filter(schedule -> schedule.getInstructor().getId().equals(instructor.getId()))
+                    .toList();
+            Instructor stored = instructorRepository.findById(instructor.getId()).orElseThrow();
+            assertEquals(classes.size(), stored.getTotalClasses());
+            assertEquals(classes.stream().map(schedule -> schedule.getStudent().getId()).distinct().count(),
+                    (long) stored.getTotalStudents());
+        }
+    }
+    
+    private static BulkStatusRequest bulk(Long id, Schedule.ScheduleStatus status, Long otherId) {
+        BulkStatusRequest.Item first = new BulkStatusRequest.Item();
+        first.setScheduleId(id);
+        first.setStatus(status);
+        BulkStatusRequest.Item second = new BulkStatusRequest.Item();
+        second.setScheduleId(otherId);
+        second.setStatus(Schedule.ScheduleStatus.CONCLUIDO);
+        BulkStatusRequest request = new BulkStatusRequest();
+        request.setItems(List.of(first, second));
+        return request;
+    }
+}
\ No newline at end of file
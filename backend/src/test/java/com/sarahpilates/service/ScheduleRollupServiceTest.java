@@ -0,0 +1,291 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.dto.ReportDTO;
+import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.entity.Student;
+import com.sarahpilates.repository.DailyScheduleRollupRepository;
+import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.ScheduleRepository;
+import com.sarahpilates.repository.StudentRepository;
+import com.sarahpilates.service.ScheduleRollupService.Snapshot;
+import com.sarahpilates.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ScheduleRollupServiceTest {
+    
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 4, 30);
+    private static final String[] TYPES = {"Pilates Solo", "Reformer", "Cadillac"};
+    private static final String[] ROOMS = {"Sala 1", "Sala 2"};
+    
+    @Autowired
+    private ScheduleService scheduleService;
+    
+    @Autowired
+    private ScheduleRollupService rollupService;
+    
+    @Autowired
+    private ReportService reportService;
+    
+    @Autowired
+    private DailyScheduleRollupRepository rollupRepository;
+    
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private InstructorRepository instructorRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final Random random = new Random(7);
+    private final List<Student> students = new ArrayList<>();
+    private final List<Instructor> instructors = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        students.addAll(studentRepository.saveAll(TestFixtures.students("Rollup", 6)));
+        instructors.addAll(instructorRepository.saveAll(TestFixtures.instructors("Rollup", 3)));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        scheduleRepository.deleteAll();
+        studentRepository.deleteAll();
+        instructorRepository.deleteAll();
+    }
+    
+    @Test
+    void incrementalMaintenanceMatchesSchedules() {
+        List<Schedule> schedules = new ArrayList<>();
+        for (LocalDate date = START; !date.isAfter(END); date = date.plusDays(1)) {
+            int classes = random.nextInt(4);
+            for (int i = 0; i < classes; i++) {
+                schedules.add(scheduleService.save(newSchedule(date, i)));
+            }
+        }
+        
+        for (Schedule schedule : schedules) {
+            switch (random.nextInt(4)) {
+                case 0 -> scheduleService.updateStatus(schedule.getId(), randomStatus());
+                case 1 -> scheduleService.update(schedule.getId(), changed(schedule));
+                case 2 -> scheduleService.deleteById(schedule.getId());
+                default -> { }
+            }
+        }
+        
+        assertMatchesSchedules();
+        assertEquals(scheduleRepository.findByDateBetween(START, END).size(),
+                rollupService.totals(START, END).getCount());
+        assertReportsMatchSchedules();
+    }
+    
+    @Test
+    void rebuildMatchesSchedules() {
+        for (LocalDate date = START; !date.isAfter(END); date = date.plusDays(1)) {
+            for (int i = 0; i < random.nextInt(4); i++) {
+                scheduleService.save(newSchedule(date, i));
+            }
+        }
+        rollupRepository.deleteAll();
+        
+        rollupService.rebuild(START, END);
+        
+        assertMatchesSchedules();
+    }
+    
+    @Test
+    void concurrentFirstSchedulesForTheSameRowAreAllCounted() throws Exception {
+        int writers = 4;
+        Snapshot snapshot = new Snapshot(START, instructors.get(0).getId(), TYPES[0], ROOMS[0],
+                Schedule.ScheduleStatus.AGENDADO, Schedule.PaymentStatus.PENDENTE, new BigDecimal("80.00"), 50);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CyclicBarrier start = new CyclicBarrier(writers);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                // Todas as transações chegam juntas à linha ainda inexistente e a mantêm aberta um pouco
+                results.add(executor.submit(() -> transaction.executeWithoutResult(status -> {
+                    await(start);
+                    rollupService.apply(null, snapshot);
+                    sleep(50);
+                })));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals(1, rollupRepository.count());
+        ScheduleAggregation.Bucket totals = rollupService.totals(START, START);
+        assertEquals(writers, totals.getCount());
+        assertEquals(new BigDecimal("320.00"), totals.amount(Schedule.PaymentStatus.PENDENTE));
+    }
+    
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void assertMatchesSchedules() {
+        List<Schedule> schedules = scheduleRepository.findByDateBetween(START, END);
+        ScheduleAggregation rollup = rollupService.aggregate(START, END);
+        
+        assertEquals(summarize(schedules, schedule -> true).get(true), Summary.of(rollup.getTotal()));
+        assertEquals(summarize(schedules, Schedule::getType), summarize(rollup.getByType()));
+        assertEquals(summarize(schedules, schedule -> schedule.getInstructor().getId()),
+                summarize(rollup.getByInstructor()));
+        assertEquals(summarize(schedules, Schedule::getDate), summarize(rollup.getByDay()));
+        assertEquals(Summary.of(rollup.getTotal()), Summary.of(rollupService.totals(START, END)));
+    }
+    
+    // Alunos distintos e frequência por aluno vêm de consultas agrupadas, fora da tabela de totais
+    private void assertReportsMatchSchedules() {
+        List<Schedule> schedules = scheduleRepository.findByDateBetween(START, END);
+        
+        Map<Long, Summary> byStudent = summarize(schedules, schedule -> schedule.getStudent().getId());
+        ReportDTO.AttendanceReport attendance = reportService.generateAttendanceReport(START, END);
+        assertEquals(byStudent.size(), attendance.getStudentAttendances().size());
+        attendance.getStudentAttendances().forEach(student -> {
+            Summary expected = byStudent.get(student.getStudentId());
+            assertEquals(expected.count(), student.getTotalScheduled());
+            assertEquals(expected.completed(), student.getTotalCompleted());
+            assertEquals(expected.canceled(), student.getTotalCanceled());
+        });
+        
+        List<Schedule> march = scheduleRepository.findByDateBetween(START, START.withDayOfMonth(31));
+        ReportDTO.MonthlyReport monthly = reportService.generateMonthlyReport(START);
+        monthly.getClassTypeStats().forEach(stats -> assertEquals(march.stream()
+                .filter(schedule -> schedule.getType().equals(stats.getClassType()))
+                .map(schedule -> schedule.getStudent().getId())
+                .distinct()
+                .count(), stats.getUniqueStudents()));
+        monthly.getInstructorPerformances().forEach(performance -> assertEquals(march.stream()
+                .filter(schedule -> schedule.getInstructor().getId().equals(performance.getInstructorId()))
+                .map(schedule -> schedule.getStudent().getId())
+                .distinct()
+                .count(), performance.getTotalStudents()));
+    }
+    
+    // Referência calculada diretamente dos agendamentos, sem passar pela tabela de totais
+    private static <K> Map<K, Summary> summarize(List<Schedule> schedules, Function<Schedule, K> key) {
+        Map<K, Summary> summaries = new HashMap<>();
+        schedules.forEach(schedule -> summaries.merge(key.apply(schedule), Summary.of(schedule), Summary::plus));
+        return summaries;
+    }
+    
+    private static <K> Map<K, Summary> summarize(Map<K, ScheduleAggregation.Bucket> buckets) {
+        Map<K, Summary> summaries = new HashMap<>();
+        buckets.forEach((key, bucket) -> summaries.put(key, Summary.of(bucket)));
+        return summaries;
+    }
+    
+    private record Summary(long count, long completed, long canceled, long paid, BigDecimal paidAmount,
+                           BigDecimal amount) {
+        
+        static Summary of(Schedule schedule) {
+            boolean paid = schedule.getPaymentStatus() == Schedule.PaymentStatus.PAGO;
+            return new Summary(1,
+                    schedule.getStatus() == Schedule.ScheduleStatus.CONCLUIDO ? 1 : 0,
+                    schedule.getStatus() == Schedule.ScheduleStatus.CANCELADO ? 1 : 0,
+                    paid ? 1 : 0,
+                    paid ? schedule.getPrice() : BigDecimal.ZERO.setScale(2),
+                    schedule.getPrice());
+        }
+        
+        static Summary of(ScheduleAggregation.Bucket bucket) {
+            return new Summary(bucket.getCount(), bucket.count(Schedule.ScheduleStatus.CONCLUIDO),
+                    bucket.count(Schedule.ScheduleStatus.CANCELADO), bucket.count(Schedule.PaymentStatus.PAGO),
+                    bucket.getRevenue().setScale(2), bucket.getAmount().setScale(2));
+        }
+        
+        Summary plus(Summary other) {
+            return new Summary(count + other.count, completed + other.completed, canceled + other.canceled,
+                    paid + other.paid, paidAmount.add(other.paidAmount), amount.add(other.amount));
+        }
+    }
+    
+    private Schedule newSchedule(LocalDate date, int slot) {
+        Schedule schedule = new Schedule();
+        schedule.setStudent(students.get(random.nextInt(students.size())));
+        schedule.setInstructor(instructors.get(random.nextInt(instructors.size())));
+        schedule.setDate(date);
+        schedule.setStartTime(LocalTime.of(7 + slot, 0));
+        schedule.setEndTime(LocalTime.of(7 + slot, 50));
+        schedule.setType(TYPES[random.nextInt(TYPES.length)]);
+        schedule.setRoom(ROOMS[random.nextInt(ROOMS.length)]);
+        schedule.setStatus(randomStatus());
+        schedule.setPaymentStatus(randomPaymentStatus());
+        schedule.setPrice(BigDecimal.valueOf(4000 + random.nextInt(8000), 2));
+        return schedule;
+    }
+    
+    private Schedule changed(Schedule schedule) {
+        Schedule details = new Schedule();
+        details.setStudent(schedule.getStudent());
+        details.setInstructor(schedule.getInstructor());
+        details.setDate(schedule.getDate());
+        details.setStartTime(schedule.getStartTime());
+        details.setEndTime(schedule.getEndTime().minusMinutes(random.nextInt(20)));
+        details.setType(TYPES[random.nextInt(TYPES.length)]);
+        details.setRoom(ROOMS[random.nextInt(ROOMS.length)]);
+        details.setStatus(randomStatus());
+        details.setPaymentStatus(randomPaymentStatus());
+        details.setPrice(BigDecimal.valueOf(4000 + random.nextInt(8000), 2));
+        return details;
+    }
+    
+    private Schedule.ScheduleStatus randomStatus() {
+        return Schedule.ScheduleStatus.values()[random.nextInt(Schedule.ScheduleStatus.values().length)];
+    }
+    
+    private Schedule.PaymentStatus randomPaymentStatus() {
+        return Schedule.PaymentStatus.values()[random.nextInt(Schedule.PaymentStatus.values().length)];
+    }
+}
\ No newline at end of file
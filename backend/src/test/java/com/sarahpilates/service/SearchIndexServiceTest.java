@@ -0,0 +1,157 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.entity.Schedule;
+import com.sarahpilates.entity.Student;
+import com.sarahpilates.repository.DailyScheduleRollupRepository;
+import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.ScheduleRepository;
+import com.sarahpilates.repository.StudentRepository;
+import com.sarahpilates.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest
+@ActiveProfiles("test")
+// A limpeza direta pelos repositórios não publica eventos; índice e dashboard ficariam defasados
+@DirtiesContext
+class SearchIndexServiceTest {
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private StudentService studentService;
+    
+    @Autowired
+    private InstructorService instructorService;
+    
+    @Autowired
+    private ScheduleService scheduleService;
+    
+    @Autowired
+    private DailyScheduleRollupRepository rollupRepository;
+    
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private InstructorRepository instructorRepository;
+    
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        scheduleRepository.deleteAll();
+        studentRepository.deleteAll();
+        instructorRepository.deleteAll();
+    }
+    
+    @Test
+    void studentSearchIgnoresAccentsMatchesPrefixesAndRanksNamesFirst() {
+        assertTrue(searchIndexService.isReady());
+        
+        Student joao = studentService.save(TestFixtures.student("João Würtzel", "jw@teste.com", "(11) 98888-1234"));
+        Student byEmail = studentService.save(TestFixtures.student("Beatriz Costa", "wurtzel.bia@teste.com", "11977770000"));
+        Student other = TestFixtures.student("Carla Würtzel", "carla@teste.com", "11966660000");
+        other.setStatus(Student.StudentStatus.INATIVO);
+        other = studentService.save(other);
+        
+        assertEquals(List.of(joao.getId()), ids(studentService.search("joao", PageRequest.of(0, 10))));
+        assertEquals(List.of(joao.getId()), ids(studentService.search("JOÃO wür", PageRequest.of(0, 10))));
+        assertEquals(List.of(joao.getId()), ids(studentService.search("119888", PageRequest.of(0, 10))));
+        
+        Page<Student> page = studentService.search("wurtzel", PageRequest.of(0, 2));
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(byEmail.getId()), ids(studentService.search("wurtzel", PageRequest.of(1, 2))));
+        assertTrue(ids(page).containsAll(List.of(joao.getId(), other.getId())));
+        
+        assertEquals(List.of(other.getId()),
+                ids(studentService.searchByStatus(Student.StudentStatus.INATIVO, "wurtz", PageRequest.of(0, 10))));
+        
+        studentService.deleteById(joao.getId());
+        assertEquals(List.of(), ids(studentService.search("joao", PageRequest.of(0, 10))));
+    }
+    
+    @Test
+    void renamingAnInstructorReindexesTheirSchedules() {
+        Student student = studentService.save(TestFixtures.student("Aluno Busca", "aluno.busca@teste.com"));
+        Instructor instructor = instructorService.save(
+                TestFixtures.instructor("Instrutora Quitéria", "quiteria@teste.com"));
+        
+        Schedule schedule = new Schedule();
+        schedule.setStudent(student);
+        schedule.setInstructor(instructor);
+        schedule.setDate(LocalDate.of(2024, 5, 10));
+        schedule.setStartTime(LocalTime.of(9, 0));
+        schedule.setEndTime(LocalTime.of(10, 0));
+        schedule.setType("Reformer");
+        schedule.setPrice(new BigDecimal("80.00"));
+        schedule = scheduleService.save(schedule);
+        
+        assertEquals(List.of(schedule.getId()), ids(scheduleService.search("quiteria refor", PageRequest.of(0, 10))));
+        
+        instructor.setName("Instrutora Zuleica");
+        instructorService.update(instructor.getId(), instructor);
+        
+        // Os agendamentos são reindexados em segundo plano
+        Long scheduleId = schedule.getId();
+        awaitSearch(() -> ids(scheduleService.search("zuleica", PageRequest.of(0, 10))).equals(List.of(scheduleId)));
+        assertEquals(List.of(), ids(scheduleService.search("quiteria", PageRequest.of(0, 10))));
+    }
+    
+    @Test
+    void contactFragmentsMatchAnywhereInPhoneCpfAndEmail() {
+        Instructor instructor = TestFixtures.instructor("Instrutora Contato", "ana.paula@estudio.com",
+                "529.982.247-25");
+        instructor.setPhone("(11) 98765-4321");
+        Long id = instructorService.save(instructor).getId();
+        
+        for (String fragment : List.of("765-43", "8765 4", "2.247-2", "98224725", "paula@est", "DIO.CO")) {
+            assertEquals(List.of(id), ids(instructorService.search(fragment, PageRequest.of(0, 10))), fragment);
+        }
+        assertEquals(List.of(), ids(instructorService.search("98743", PageRequest.of(0, 10))));
+        assertEquals(List.of(), ids(instructorService.search("4321529", PageRequest.of(0, 10))));
+    }
+    
+    private static void awaitSearch(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Índice de busca não foi atualizado");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrompido aguardando o índice de busca");
+            }
+        }
+    }
+    
+    private static <T> List<Long> ids(Page<T> page) {
+        return page.getContent().stream()
+                .map(value -> value instanceof Student student ? student.getId()
+                        : value instanceof Instructor instructor ? instructor.getId()
+                        : ((Schedule) value).getId())
+                .toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.sarahpilates.service;
+
+import com.sarahpilates.dto.ReportDTO;
+import com.sarahpilates.entity.EvolutionRecord;
+import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.entity.Student;
+import com.sarahpilates.repository.EvolutionRecordRepository;
+import com.sarahpilates.repository.InstructorRepository;
+import com.sarahpilates.repository.StudentRepository;
+import com.sarahpilates.support.QueryCounter;
+import com.sarahpilates.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+// A limpeza direta pelos repositórios não publica eventos; o índice de busca ficaria defasado
+@DirtiesContext
+class StudentProgressServiceTest {
+    
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    
+    @Autowired
+    private ReportService reportService;
+    
+    @Autowired
+    private EvolutionRecordService evolutionRecordService;
+    
+    @Autowired
+    private StudentService studentService;
+    
+    @Autowired
+    private InstructorService instructorService;
+    
+    @Autowired
+    private EvolutionRecordRepository evolutionRecordRepository;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private InstructorRepository instructorRepository;
+    
+    @AfterEach
+    void tearDown() {
+        evolutionRecordRepository.deleteAll();
+        studentRepository.deleteAll();
+        instructorRepository.deleteAll();
+    }
+    
+    @Test
+    void trendsAreComputedOnceAndNewRecordsAreAppended() throws Exception {
+        Student student = studentService.save(
+                TestFixtures.student("Aluna Progresso", "progresso@teste.com", "11999990002"));
+        Instructor instructor = instructorService.save(
+                TestFixtures.instructor("Instrutora Progresso", "instrutora.progresso@estudio.com"));
+        EvolutionRecord first = evolutionRecordService.save(record(student, instructor, START, 8, 2));
+        evolutionRecordService.save(record(student, instructor, START.plusDays(10), 6, 3));
+        evolutionRecordService.save(record(student, instructor, START.plusDays(20), 4, 4));
+        
+        ReportDTO.StudentProgress report = reportService.generateStudentProgressReport(student.getId());
+        assertEquals(3, report.getTotalSessions());
+        ReportDTO.ProgressMetric pain = metric(report, "Nível de dor");
+        assertEquals(8.0, pain.getInitialValue());
+        assertEquals(4.0, pain.getCurrentValue());
+        // Dor menor é melhora
+        assertEquals(4.0, pain.getImprovement());
+        assertEquals(-6.0, pain.getTrendPerMonth(), 1e-9);
+        assertEquals(6.0, pain.getMovingAverage(), 1e-9);
+        assertEquals(2.0, metric(report, "Mobilidade").getImprovement());
+        
+        // A ficha nova entra na série já montada, sem reler as anteriores
+        evolutionRecordService.save(record(student, instructor, START.plusDays(30), 2, 5));
+        ReportDTO.StudentProgress[] updated = new ReportDTO.StudentProgress[1];
+        QueryCounter.assertAtMost(2, "Relatório de progresso após nova ficha",
+                () -> updated[0] = reportService.generateStudentProgressReport(student.getId()));
+        assertEquals(4, updated[0].getTotalSessions());
+        assertEquals(2.0, metric(updated[0], "Nível de dor").getCurrentValue());
+        assertEquals(4, metric(updated[0], "Nível de dor").getSamples());
+        
+        // Alterar uma ficha antiga descarta a série: o valor inicial passa a ser o novo
+        first.setPainLevel(9);
+        evolutionRecordService.update(first.getId(), first);
+        ReportDTO.StudentProgress rebuilt = reportService.generateStudentProgressReport(student.getId());
+        assertEquals(9.0, metric(rebuilt, "Nível de dor").getInitialValue());
+        assertEquals(4, rebuilt.getTotalSessions());
+    }
+    
+    private static ReportDTO.ProgressMetric metric(ReportDTO.StudentProgress report, String name) {
+        return report.getMetrics().stream()
+                .filter(metric -> metric.getMetricName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+    
+    private static EvolutionRecord record(Student student, Instructor instructor, LocalDate date,
+                                          int painLevel, int mobilityLevel) {
+        EvolutionRecord record = new EvolutionRecord();
+        record.setStudent(student);
+        record.setInstructor(instructor);
+        record.setDate(date);
+        record.setFocus("Mobilidade");
+        record.setOverallRating(4);
+        record.setPainLevel(painLevel);
+        record.setMobilityLevel(mobilityLevel);
+        record.setDuration(50);
+        return record;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.sarahpilates.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Conta os comandos SQL preparados pelo Hibernate na thread atual. Registrado
+ * em application-test.yml; os testes usam {@link #assertAtMost} para falhar
+ * quando uma operação passa do número de consultas esperado (N+1).
+ */
+public class QueryCounter implements StatementInspector {
+    
+    private static final ThreadLocal<Integer> COUNT = ThreadLocal.withInitial(() -> 0);
+    
+    @Override
+    public String inspect(String sql) {
+        COUNT.set(COUNT.get() + 1);
+        return sql;
+    }
+    
+    public static void reset() {
+        COUNT.set(0);
+    }
+    
+    public static int count() {
+        return COUNT.get();
+    }
+    
+    public static void assertAtMost(int maxStatements, String description, Action action) throws Exception {
+        reset();
+        action.run();
+        int executed = count();
+        assertTrue(executed <= maxStatements,
+                description + ": " + executed + " comandos SQL, máximo esperado " + maxStatements);
+    }
+    
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+}
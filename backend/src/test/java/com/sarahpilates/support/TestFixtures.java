@@ -0,0 +1,80 @@
+package com.sarahpilates.support;
+
+import com.sarahpilates.entity.Instructor;
+import com.sarahpilates.entity.Student;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Alunos e instrutores válidos para os testes, ainda não gravados: cada teste
+ * os salva pelo repositório ou pelo serviço, conforme precise ou não dos
+ * eventos. Os campos não informados recebem valores fixos.
+ */
+public final class TestFixtures {
+    
+    // CPF é único; os testes que precisam de um CPF específico o informam
+    private static final AtomicLong CPF_SEQUENCE = new AtomicLong();
+    
+    private TestFixtures() {
+    }
+    
+    public static Student student(String name, String email) {
+        return student(name, email, "11999990000");
+    }
+    
+    public static Student student(String name, String email, String phone) {
+        Student student = new Student();
+        student.setName(name);
+        student.setEmail(email);
+        student.setPhone(phone);
+        student.setBirthDate(LocalDate.of(1990, 1, 1));
+        student.setEmergencyContact("Contato");
+        student.setEmergencyPhone("11999990001");
+        return student;
+    }
+    
+    public static Instructor instructor(String name, String email) {
+        return instructor(name, email, String.format("%011d", CPF_SEQUENCE.incrementAndGet()));
+    }
+    
+    public static Instructor instructor(String name, String email, String cpf) {
+        Instructor instructor = new Instructor();
+        instructor.setName(name);
+        instructor.setEmail(email);
+        instructor.setPhone("11999990000");
+        instructor.setBirthDate(LocalDate.of(1985, 1, 1));
+        instructor.setCpf(cpf);
+        instructor.setRg("112233");
+        return instructor;
+    }
+    
+    /**
+     * {@code count} alunos chamados "Aluno {label} i", com e-mail
+     * "aluno.{label}i@teste.com".
+     */
+    public static List<Student> students(String label, int count) {
+        String slug = label.toLowerCase(Locale.ROOT);
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            students.add(student("Aluno " + label + " " + i, "aluno." + slug + i + "@teste.com"));
+        }
+        return students;
+    }
+    
+    /**
+     * {@code count} instrutores chamados "Instrutor {label} i", com e-mail
+     * "instrutor.{label}i@teste.com".
+     */
+    public static List<Instructor> instructors(String label, int count) {
+        String slug = label.toLowerCase(Locale.ROOT);
+        List<Instructor> instructors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            instructors.add(instructor("Instrutor " + label + " " + i, "instrutor." + slug + i + "@teste.com"));
+        }
+        return instructors;
+    }
+}
\ No newline at end of file